@@ -21,11 +21,13 @@ package io.kestros.commons.structuredslingmodels;
 
 import static org.apache.jackrabbit.JcrConstants.JCR_CONTENT;
 
-import io.kestros.commons.structuredslingmodels.exceptions.ModelAdaptionException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.kestros.commons.structuredslingmodels.utils.SlingModelUtils;
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.wrappers.CompositeValueMap;
 import org.apache.sling.models.annotations.Model;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,23 +41,27 @@ public class BasePage extends BaseResource {
 
   private static final Logger LOG = LoggerFactory.getLogger(BasePage.class);
 
+  private Resource pageResource;
+
+  private ValueMap contentProperties;
+
+  private boolean hasContentResource;
+
+  private ValueMap mergedProperties;
+
   /**
    * Returns the root page resource.  If the model was adapted from a jcr:content resource, will
-   * return the parent Resource.
+   * return the parent Resource.  The page Resource is resolved once per Model.
    *
    * @return The root Resource associated to the current model.
    */
   @Override
   @Nonnull
   public Resource getResource() {
-    final Resource adaptedResource = super.getResource();
-    if (JCR_CONTENT.equals(adaptedResource.getName())) {
-      final Resource adaptedResourceParent = adaptedResource.getParent();
-      if (adaptedResourceParent != null) {
-        return adaptedResourceParent;
-      }
+    if (pageResource == null) {
+      pageResource = resolvePageResource(super.getResource());
     }
-    return adaptedResource;
+    return pageResource;
   }
 
   /**
@@ -85,7 +91,7 @@ public class BasePage extends BaseResource {
   /**
    * Properties of the current Page.  If jcr:content exists as a child, will return the ValueMap of
    * the jcr:content.  To retrieve the properties of the Page resource, use
-   * `getResource().getProperties()`.
+   * `getResource().getProperties()`.  The jcr:content Resource is resolved once per Model.
    *
    * @return Properties ValueMap for the current Page.  If the page has a jcr:content child
    *         Resource, the value of that Resource will be returned.
@@ -93,15 +99,55 @@ public class BasePage extends BaseResource {
   @Override
   @Nonnull
   public ValueMap getProperties() {
-    try {
-      return SlingModelUtils.getChildAsType(JCR_CONTENT, getResource(),
-                                            BaseResource.class).getProperties();
-    } catch (final ModelAdaptionException exception) {
+    if (contentProperties == null) {
+      contentProperties = resolveContentProperties();
+    }
+    return contentProperties;
+  }
+
+  /**
+   * Properties of the jcr:content Resource, falling back to the properties of the page Resource
+   * for keys the jcr:content Resource does not define.  If the page has no jcr:content child, only
+   * the page Resource properties are returned.
+   *
+   * @return Merged page and jcr:content properties.
+   */
+  @JsonIgnore
+  @Nonnull
+  public ValueMap getMergedProperties() {
+    if (mergedProperties == null) {
+      final ValueMap properties = getProperties();
+      if (hasContentResource) {
+        mergedProperties = new CompositeValueMap(properties, getResource().getValueMap());
+      } else {
+        mergedProperties = properties;
+      }
+    }
+    return mergedProperties;
+  }
+
+  @Nonnull
+  private ValueMap resolveContentProperties() {
+    final Resource resource = getResource();
+    final Optional<BaseResource> contentResource = SlingModelUtils.tryGetChildAsType(
+            JCR_CONTENT, resource, BaseResource.class);
+    hasContentResource = contentResource.isPresent();
+    if (!hasContentResource) {
       LOG.debug(
               "Unable to get jcr:content Resource for {} while getting properties for as BasePage. "
                       + "Returning root properties.", getPath().replaceAll("[\r\n]", ""));
     }
+    return contentResource.map(BaseResource::getProperties).orElseGet(resource::getValueMap);
+  }
 
-    return getResource().getValueMap();
+  @Nonnull
+  private static Resource resolvePageResource(@Nonnull final Resource adaptedResource) {
+    if (JCR_CONTENT.equals(adaptedResource.getName())) {
+      final Resource adaptedResourceParent = adaptedResource.getParent();
+      if (adaptedResourceParent != null) {
+        return adaptedResourceParent;
+      }
+    }
+    return adaptedResource;
   }
 }
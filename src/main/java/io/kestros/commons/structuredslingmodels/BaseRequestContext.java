@@ -21,8 +21,10 @@ package io.kestros.commons.structuredslingmodels;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.kestros.commons.structuredslingmodels.utils.AdaptedModelCache;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.api.resource.Resource;
@@ -96,4 +98,26 @@ public class BaseRequestContext implements BaseSlingModel {
   public Resource getResource() {
     return request.getResource();
   }
+
+  /**
+   * Request-scoped cache of Models adapted by SlingModelUtils.
+   *
+   * @return Request-scoped cache of Models adapted by SlingModelUtils.
+   */
+  @Nonnull
+  @JsonIgnore
+  public AdaptedModelCache getAdaptedModelCache() {
+    return AdaptedModelCache.register(getRequest());
+  }
+
+  /**
+   * Registers the request-scoped {@link AdaptedModelCache}, so SlingModelUtils lookups made
+   * through the request's ResourceResolver reuse previously adapted Models.
+   */
+  @PostConstruct
+  public void registerAdaptedModelCache() {
+    if (request != null && request.getResourceResolver() != null) {
+      AdaptedModelCache.register(request);
+    }
+  }
 }
\ No newline at end of file
@@ -19,20 +19,16 @@
 
 package io.kestros.commons.structuredslingmodels;
 
-import static org.apache.jackrabbit.JcrConstants.JCR_CREATED;
-import static org.apache.jackrabbit.JcrConstants.JCR_LASTMODIFIED;
-import static org.apache.jackrabbit.JcrConstants.JCR_PRIMARYTYPE;
 import static org.apache.jackrabbit.vault.util.JcrConstants.JCR_DESCRIPTION;
 import static org.apache.jackrabbit.vault.util.JcrConstants.JCR_TITLE;
-import static org.apache.sling.api.resource.ResourceResolver.PROPERTY_RESOURCE_TYPE;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import io.kestros.commons.commonutils.jcr.JcrPropertyUtils;
 import io.kestros.commons.structuredslingmodels.annotation.KestrosModel;
 import io.kestros.commons.structuredslingmodels.annotation.KestrosProperty;
 import io.kestros.commons.structuredslingmodels.exceptions.NoParentResourceException;
 import io.kestros.commons.structuredslingmodels.utils.SlingModelUtils;
+import java.time.Instant;
 import java.util.Date;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -63,6 +59,16 @@ public class BaseResource implements BaseSlingModel {
   @Self
   private Resource resource;
 
+  /**
+   * Properties of the Resource, read the first time they are needed.
+   */
+  private ResourcePropertySnapshot propertySnapshot;
+
+  /**
+   * Typed values converted from {@link #getProperties()}, created the first time they are needed.
+   */
+  private PropertyConversionCache propertyConversionCache;
+
   /**
    * Original Resource the current Model was adapted from.
    *
@@ -111,7 +117,8 @@ public class BaseResource implements BaseSlingModel {
   }
 
   /**
-   * Property ValueMap associated to the resource the current model was adapted from.
+   * Property ValueMap associated to the resource the current model was adapted from.  The ValueMap
+   * is retrieved once per Model, but is not a copy, so its values reflect the Resource.
    *
    * @return Property ValueMap associated to the resource the current model was adapted from.
    */
@@ -119,7 +126,7 @@ public class BaseResource implements BaseSlingModel {
   @Nonnull
   @Deprecated(forRemoval = true)
   public ValueMap getProperties() {
-    return getResource().getValueMap();
+    return getPropertySnapshot().getProperties();
   }
 
   /**
@@ -137,6 +144,58 @@ public class BaseResource implements BaseSlingModel {
     return getProperties().get(key, defaultValue);
   }
 
+  /**
+   * Property value as a long, or the default value if the property is missing or cannot be
+   * converted.  Each property is converted once per Model.
+   *
+   * @param key Property to retrieve.
+   * @param defaultValue Value to return if no matching property is found.
+   *
+   * @return Property value as a long, or the default value.
+   */
+  public long getLong(@Nonnull final String key, final long defaultValue) {
+    return getPropertyConversionCache().getLong(key, defaultValue);
+  }
+
+  /**
+   * Property value as an int, or the default value if the property is missing or cannot be
+   * converted.  Each property is converted once per Model.
+   *
+   * @param key Property to retrieve.
+   * @param defaultValue Value to return if no matching property is found.
+   *
+   * @return Property value as an int, or the default value.
+   */
+  public int getInt(@Nonnull final String key, final int defaultValue) {
+    return getPropertyConversionCache().getInt(key, defaultValue);
+  }
+
+  /**
+   * Property value as a boolean, or the default value if the property is missing or cannot be
+   * converted.  Each property is converted once per Model.
+   *
+   * @param key Property to retrieve.
+   * @param defaultValue Value to return if no matching property is found.
+   *
+   * @return Property value as a boolean, or the default value.
+   */
+  public boolean getBoolean(@Nonnull final String key, final boolean defaultValue) {
+    return getPropertyConversionCache().getBoolean(key, defaultValue);
+  }
+
+  /**
+   * Date property value as milliseconds since the epoch, or the default value if the property is
+   * missing or is not a date.  Each property is converted once per Model.
+   *
+   * @param key Property to retrieve.
+   * @param defaultValue Value to return if no matching property is found.
+   *
+   * @return Date property value as milliseconds since the epoch, or the default value.
+   */
+  public long getInstantEpochMillis(@Nonnull final String key, final long defaultValue) {
+    return getPropertyConversionCache().getEpochMillis(key, defaultValue);
+  }
+
   /**
    * Pull the value from jcr:content, or the Resource name if jcr:title is empty or null.
    *
@@ -147,7 +206,7 @@ public class BaseResource implements BaseSlingModel {
           jcrPropertyName = JCR_TITLE,
           configurable = true)
   public String getTitle() {
-    return JcrPropertyUtils.getStringOrDefaultValue(getResource(), JCR_TITLE, getName());
+    return getPropertySnapshot().getTitle();
   }
 
   /**
@@ -160,8 +219,7 @@ public class BaseResource implements BaseSlingModel {
           jcrPropertyName = JCR_DESCRIPTION,
           configurable = true)
   public String getDescription() {
-    return JcrPropertyUtils.getStringOrDefaultValue(getResource(), JCR_DESCRIPTION,
-                                                    StringUtils.EMPTY);
+    return getPropertySnapshot().getDescription();
   }
 
   /**
@@ -193,8 +251,7 @@ public class BaseResource implements BaseSlingModel {
   @Nonnull
   @JsonIgnore
   public String getJcrPrimaryType() {
-    return JcrPropertyUtils.getStringOrDefaultValue(getResource(), JCR_PRIMARYTYPE,
-                                                    StringUtils.EMPTY);
+    return getPropertySnapshot().getJcrPrimaryType();
   }
 
   /**
@@ -205,8 +262,7 @@ public class BaseResource implements BaseSlingModel {
   @Nonnull
   @JsonIgnore
   public String getSlingResourceType() {
-    return JcrPropertyUtils.getStringOrDefaultValue(getResource(), PROPERTY_RESOURCE_TYPE,
-                                                    StringUtils.EMPTY);
+    return getPropertySnapshot().getSlingResourceType();
   }
 
   /**
@@ -243,7 +299,7 @@ public class BaseResource implements BaseSlingModel {
   @Nullable
   @JsonIgnore
   public Date getLastModifiedDate() {
-    return JcrPropertyUtils.getDateOrNull(getResource(), JCR_LASTMODIFIED);
+    return toDate(getPropertySnapshot().getLastModified());
   }
 
   /**
@@ -254,6 +310,58 @@ public class BaseResource implements BaseSlingModel {
   @Nullable
   @JsonIgnore
   public Date getCreatedDate() {
-    return JcrPropertyUtils.getDateOrNull(getResource(), JCR_CREATED);
+    return toDate(getPropertySnapshot().getCreated());
+  }
+
+  /**
+   * Instant when the current Resource was last modified, or null if the property is not found.
+   * Unlike {@link #getLastModifiedDate()}, does not create a new object on each call.
+   *
+   * @return Instant when the current Resource was last modified.
+   */
+  @Nullable
+  @JsonIgnore
+  public Instant getLastModified() {
+    return getPropertySnapshot().getLastModified();
+  }
+
+  /**
+   * Instant when the current Resource was created, or null if the property is not found.  Unlike
+   * {@link #getCreatedDate()}, does not create a new object on each call.
+   *
+   * @return Instant when the current Resource was created.
+   */
+  @Nullable
+  @JsonIgnore
+  public Instant getCreated() {
+    return getPropertySnapshot().getCreated();
+  }
+
+  /**
+   * Properties of the Resource, each read the first time it is needed. Converted values are not
+   * refreshed if the Resource is modified after they are read.
+   */
+  @Nonnull
+  private ResourcePropertySnapshot getPropertySnapshot() {
+    if (propertySnapshot == null) {
+      propertySnapshot = new ResourcePropertySnapshot(getResource(), getName());
+    }
+    return propertySnapshot;
+  }
+
+  @Nonnull
+  private PropertyConversionCache getPropertyConversionCache() {
+    if (propertyConversionCache == null) {
+      propertyConversionCache = new PropertyConversionCache(getProperties());
+    }
+    return propertyConversionCache;
+  }
+
+  @Nullable
+  private static Date toDate(@Nullable final Instant instant) {
+    if (instant != null) {
+      return Date.from(instant);
+    }
+    return null;
   }
 }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.apache.sling.api.resource.ValueMap;
+
+/**
+ * Converted property values of a single ValueMap.  Each property is converted once per requested
+ * type, after which reads return the cached value.  Properties that are missing, or cannot be
+ * converted, are remembered as well so the ValueMap is not asked again.  Values are held as
+ * primitives in one entry per property, and the map of entries is only created on the first read.
+ * Like the Models that own them, instances are not thread-safe.
+ */
+final class PropertyConversionCache {
+
+  private static final int LONG = 1;
+  private static final int INT = 1 << 1;
+  private static final int BOOLEAN = 1 << 2;
+  private static final int EPOCH_MILLIS = 1 << 3;
+
+  private final ValueMap properties;
+  private Map<String, ConvertedValues> convertedValues;
+
+  /**
+   * Cache of converted values for a ValueMap.
+   *
+   * @param properties ValueMap to convert values from.
+   */
+  PropertyConversionCache(@Nonnull final ValueMap properties) {
+    this.properties = properties;
+  }
+
+  long getLong(@Nonnull final String key, final long defaultValue) {
+    final ConvertedValues values = getConvertedValues(key);
+    if (values.isUnconverted(LONG)) {
+      final Long value = properties.get(key, Long.class);
+      if (value != null) {
+        values.longValue = value;
+      }
+      values.setConverted(LONG, value != null);
+    }
+    if (values.isConvertible(LONG)) {
+      return values.longValue;
+    }
+    return defaultValue;
+  }
+
+  int getInt(@Nonnull final String key, final int defaultValue) {
+    final ConvertedValues values = getConvertedValues(key);
+    if (values.isUnconverted(INT)) {
+      final Integer value = properties.get(key, Integer.class);
+      if (value != null) {
+        values.intValue = value;
+      }
+      values.setConverted(INT, value != null);
+    }
+    if (values.isConvertible(INT)) {
+      return values.intValue;
+    }
+    return defaultValue;
+  }
+
+  boolean getBoolean(@Nonnull final String key, final boolean defaultValue) {
+    final ConvertedValues values = getConvertedValues(key);
+    if (values.isUnconverted(BOOLEAN)) {
+      final Boolean value = properties.get(key, Boolean.class);
+      if (value != null) {
+        values.booleanValue = value;
+      }
+      values.setConverted(BOOLEAN, value != null);
+    }
+    if (values.isConvertible(BOOLEAN)) {
+      return values.booleanValue;
+    }
+    return defaultValue;
+  }
+
+  long getEpochMillis(@Nonnull final String key, final long defaultValue) {
+    final ConvertedValues values = getConvertedValues(key);
+    if (values.isUnconverted(EPOCH_MILLIS)) {
+      final Date value = properties.get(key, Date.class);
+      if (value != null) {
+        values.epochMillis = value.getTime();
+      }
+      values.setConverted(EPOCH_MILLIS, value != null);
+    }
+    if (values.isConvertible(EPOCH_MILLIS)) {
+      return values.epochMillis;
+    }
+    return defaultValue;
+  }
+
+  @Nonnull
+  private ConvertedValues getConvertedValues(@Nonnull final String key) {
+    if (convertedValues == null) {
+      convertedValues = new HashMap<>();
+    }
+    return convertedValues.computeIfAbsent(key, property -> new ConvertedValues());
+  }
+
+  /**
+   * Converted values of a single property, with a flag per type recording whether the conversion
+   * was attempted, and whether it succeeded.
+   */
+  private static final class ConvertedValues {
+
+    private int converted;
+    private int convertible;
+    private long longValue;
+    private int intValue;
+    private boolean booleanValue;
+    private long epochMillis;
+
+    private boolean isUnconverted(final int type) {
+      return (converted & type) == 0;
+    }
+
+    private boolean isConvertible(final int type) {
+      return (convertible & type) != 0;
+    }
+
+    private void setConverted(final int type, final boolean succeeded) {
+      converted |= type;
+      if (succeeded) {
+        convertible |= type;
+      }
+    }
+  }
+
+}
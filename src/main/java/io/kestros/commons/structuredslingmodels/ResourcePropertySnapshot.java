@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels;
+
+import static org.apache.jackrabbit.JcrConstants.JCR_CREATED;
+import static org.apache.jackrabbit.JcrConstants.JCR_LASTMODIFIED;
+import static org.apache.jackrabbit.JcrConstants.JCR_PRIMARYTYPE;
+import static org.apache.jackrabbit.vault.util.JcrConstants.JCR_DESCRIPTION;
+import static org.apache.jackrabbit.vault.util.JcrConstants.JCR_TITLE;
+import static org.apache.sling.api.resource.ResourceResolver.PROPERTY_RESOURCE_TYPE;
+
+import io.kestros.commons.commonutils.jcr.JcrPropertyUtils;
+import java.time.Instant;
+import java.util.Date;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+
+/**
+ * Properties of a Resource, read when a {@link BaseResource} first needs them.  Each well-known JCR
+ * property is converted to the type its getter returns on first access and kept, so repeated getter
+ * calls do not go back to the Resource.  The ValueMap returned by {@link #getProperties()} is the
+ * Resource's own ValueMap, retrieved once but not copied, so values read through it directly are
+ * not part of the snapshot.  Not thread-safe, like the Model which holds it.
+ */
+final class ResourcePropertySnapshot {
+
+  private final Resource resource;
+  private final String defaultTitle;
+  private ValueMap properties;
+  private String title;
+  private String description;
+  private String jcrPrimaryType;
+  private String slingResourceType;
+  private Instant lastModified;
+  private boolean lastModifiedRead;
+  private Instant created;
+  private boolean createdRead;
+
+  /**
+   * Snapshot of the properties of a Resource.  No properties are read until they are requested.
+   *
+   * @param resource Resource to read properties from.
+   * @param defaultTitle Title to use when jcr:title is not set.
+   */
+  ResourcePropertySnapshot(@Nonnull final Resource resource, @Nonnull final String defaultTitle) {
+    this.resource = resource;
+    this.defaultTitle = defaultTitle;
+  }
+
+  /**
+   * ValueMap of the Resource, retrieved on first access.  The ValueMap is not a copy, so it reflects
+   * the Resource as its ResourceResolver sees it.
+   */
+  @Nonnull
+  ValueMap getProperties() {
+    if (properties == null) {
+      properties = resource.getValueMap();
+    }
+    return properties;
+  }
+
+  @Nonnull
+  String getTitle() {
+    if (title == null) {
+      title = JcrPropertyUtils.getStringOrDefaultValue(resource, JCR_TITLE, defaultTitle);
+    }
+    return title;
+  }
+
+  @Nonnull
+  String getDescription() {
+    if (description == null) {
+      description = JcrPropertyUtils.getStringOrDefaultValue(resource, JCR_DESCRIPTION,
+                                                             StringUtils.EMPTY);
+    }
+    return description;
+  }
+
+  @Nonnull
+  String getJcrPrimaryType() {
+    if (jcrPrimaryType == null) {
+      jcrPrimaryType = JcrPropertyUtils.getStringOrDefaultValue(resource, JCR_PRIMARYTYPE,
+                                                                StringUtils.EMPTY);
+    }
+    return jcrPrimaryType;
+  }
+
+  @Nonnull
+  String getSlingResourceType() {
+    if (slingResourceType == null) {
+      slingResourceType = JcrPropertyUtils.getStringOrDefaultValue(resource,
+                                                                   PROPERTY_RESOURCE_TYPE,
+                                                                   StringUtils.EMPTY);
+    }
+    return slingResourceType;
+  }
+
+  @Nullable
+  Instant getLastModified() {
+    if (!lastModifiedRead) {
+      lastModified = toInstant(JcrPropertyUtils.getDateOrNull(resource, JCR_LASTMODIFIED));
+      lastModifiedRead = true;
+    }
+    return lastModified;
+  }
+
+  @Nullable
+  Instant getCreated() {
+    if (!createdRead) {
+      created = toInstant(JcrPropertyUtils.getDateOrNull(resource, JCR_CREATED));
+      createdRead = true;
+    }
+    return created;
+  }
+
+  @Nullable
+  private static Instant toInstant(@Nullable final Date date) {
+    if (date != null) {
+      return date.toInstant();
+    }
+    return null;
+  }
+
+}
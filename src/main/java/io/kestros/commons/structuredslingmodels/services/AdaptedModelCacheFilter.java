@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.services;
+
+import io.kestros.commons.structuredslingmodels.utils.AdaptedModelCache;
+import java.io.IOException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * Removes the request-scoped {@link AdaptedModelCache} once the request has been processed.
+ */
+@Component(immediate = true,
+        service = Filter.class,
+        property = {
+                "sling.filter.scope=REQUEST"
+        })
+public class AdaptedModelCacheFilter implements Filter {
+
+  @Override
+  public void init(final FilterConfig filterConfig) {
+    // No configuration required.
+  }
+
+  @Override
+  public void doFilter(final ServletRequest request, final ServletResponse response,
+          final FilterChain chain) throws IOException, ServletException {
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      if (request instanceof SlingHttpServletRequest) {
+        AdaptedModelCache.unregister((SlingHttpServletRequest) request);
+      }
+    }
+  }
+
+  @Override
+  public void destroy() {
+    // Nothing to clean up.
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.services;
+
+import io.kestros.commons.structuredslingmodels.utils.SlingModelCacheUtils;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+/**
+ * Enables the shared {@link io.kestros.commons.structuredslingmodels.utils.SlingModelUtils}
+ * caches while active, and invalidates them when Resources they depend on change. /apps and /libs
+ * (the default search paths, which resourceType caches are built from), /content (where ancestor
+ * lookups such as finding a page's site root start) and /conf (where optional configuration is
+ * looked up) are observed by default. Missing Resource and ancestor lookups are only cached under
+ * the observed paths, so deployments that want them cached for other roots can add them to the
+ * {@code resource.paths} property.
+ */
+@Component(immediate = true,
+        service = ResourceChangeListener.class,
+        property = {
+                ResourceChangeListener.PATHS + "=" + SlingModelCacheInvalidationListener.APPS,
+                ResourceChangeListener.PATHS + "=" + SlingModelCacheInvalidationListener.LIBS,
+                ResourceChangeListener.PATHS + "=" + SlingModelCacheInvalidationListener.CONTENT,
+                ResourceChangeListener.PATHS + "=" + SlingModelCacheInvalidationListener.CONF
+        })
+public class SlingModelCacheInvalidationListener
+        implements ResourceChangeListener, ExternalResourceChangeListener {
+
+  static final String APPS = "/apps";
+  static final String LIBS = "/libs";
+  static final String CONTENT = "/content";
+  static final String CONF = "/conf";
+
+  /**
+   * Paths observed when the {@code resource.paths} property is not set.
+   */
+  private static final String[] DEFAULT_PATHS = {APPS, LIBS, CONTENT, CONF};
+
+  /**
+   * Enables SlingModelUtils caching for the observed paths.
+   *
+   * @param properties Component properties.
+   */
+  @Activate
+  public void activate(@Nonnull final Map<String, Object> properties) {
+    SlingModelCacheUtils.enableCaching(
+            getObservedPaths(properties.get(ResourceChangeListener.PATHS)));
+  }
+
+  /**
+   * Disables and clears SlingModelUtils caching.
+   */
+  @Deactivate
+  public void deactivate() {
+    SlingModelCacheUtils.disableCaching();
+  }
+
+  @Override
+  public void onChange(@Nonnull final List<ResourceChange> changes) {
+    for (final ResourceChange change : changes) {
+      SlingModelCacheUtils.invalidate(change.getPath());
+    }
+  }
+
+  /**
+   * Observed paths, from the String or String[] paths property, or the default paths when it is not
+   * set. Glob patterns are passed as is, and are never matched as observed paths.
+   */
+  @Nonnull
+  private static String[] getObservedPaths(final Object paths) {
+    if (paths instanceof String[]) {
+      return (String[]) paths;
+    }
+    if (paths instanceof String) {
+      return new String[]{(String) paths};
+    }
+    return DEFAULT_PATHS.clone();
+  }
+}
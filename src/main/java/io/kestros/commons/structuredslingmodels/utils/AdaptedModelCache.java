@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Request-scoped cache of adapted Sling Models, keyed by Resource path and Sling Model class. A
+ * cache is registered to a request by
+ * {@link io.kestros.commons.structuredslingmodels.BaseRequestContext}, and {@link SlingModelUtils}
+ * uses it automatically for any Resource retrieved through that request's ResourceResolver, so
+ * repeated lookups of the same parent, ancestor or child return the same Model instance.
+ *
+ * <p>
+ * The cache is held as a request attribute, and is only weakly referenced from the
+ * ResourceResolver lookup, so it never outlives the request. It is also removed explicitly once
+ * the request has been processed by
+ * {@link io.kestros.commons.structuredslingmodels.services.AdaptedModelCacheFilter}. The lookup is
+ * a lock-free map keyed by ResourceResolver identity. While the ResourceResolver has uncommitted
+ * changes, the cache is cleared and bypassed, so Models built before the changes are dropped and
+ * Models built from pending changes are neither cached nor served. Changes that are made and
+ * committed without a lookup in between are not noticed, so code that writes through the request's
+ * ResourceResolver and then needs fresh Models should call {@link #clear()}.
+ * </p>
+ */
+public final class AdaptedModelCache {
+
+  static final int MAX_SIZE = 10000;
+
+  private static final String REQUEST_ATTRIBUTE = AdaptedModelCache.class.getName();
+
+  private static final Map<ResolverKey, Reference<AdaptedModelCache>> CACHES
+          = new ConcurrentHashMap<>();
+  private static final ReferenceQueue<ResourceResolver> COLLECTED_RESOLVERS
+          = new ReferenceQueue<>();
+
+  private final Map<Key, Object> models = new ConcurrentHashMap<>();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  private AdaptedModelCache() {
+  }
+
+  /**
+   * Registers a cache to the specified request, if one is not already registered.
+   *
+   * @param request Request to register the cache to.
+   *
+   * @return The cache registered to the request.
+   */
+  @Nonnull
+  public static AdaptedModelCache register(@Nonnull final SlingHttpServletRequest request) {
+    final Object attribute = request.getAttribute(REQUEST_ATTRIBUTE);
+    if (attribute instanceof AdaptedModelCache) {
+      return (AdaptedModelCache) attribute;
+    }
+    final AdaptedModelCache cache = new AdaptedModelCache();
+    request.setAttribute(REQUEST_ATTRIBUTE, cache);
+    removeCollectedResolvers();
+    CACHES.put(new ResolverKey(request.getResourceResolver(), COLLECTED_RESOLVERS),
+               new WeakReference<>(cache));
+    return cache;
+  }
+
+  /**
+   * Removes the cache registered to the specified request, if there is one.
+   *
+   * @param request Request to remove the cache from.
+   */
+  public static void unregister(@Nonnull final SlingHttpServletRequest request) {
+    final Object attribute = request.getAttribute(REQUEST_ATTRIBUTE);
+    if (attribute instanceof AdaptedModelCache) {
+      request.removeAttribute(REQUEST_ATTRIBUTE);
+      CACHES.remove(new ResolverKey(request.getResourceResolver(), null));
+      removeCollectedResolvers();
+      ((AdaptedModelCache) attribute).clear();
+    }
+  }
+
+  /**
+   * The cache registered to the request the specified ResourceResolver belongs to.
+   *
+   * @param resolver ResourceResolver to retrieve the cache for.
+   *
+   * @return The cache registered to the request the specified ResourceResolver belongs to, or null
+   *         if none is registered or the ResourceResolver has uncommitted changes (in which case the
+   *         registered cache is cleared).
+   */
+  @Nullable
+  public static AdaptedModelCache get(@Nullable final ResourceResolver resolver) {
+    if (resolver == null || CACHES.isEmpty()) {
+      return null;
+    }
+    final Reference<AdaptedModelCache> reference = CACHES.get(new ResolverKey(resolver, null));
+    if (reference == null) {
+      return null;
+    }
+    final AdaptedModelCache cache = reference.get();
+    if (cache != null && resolver.hasChanges()) {
+      cache.clear();
+      return null;
+    }
+    return cache;
+  }
+
+  private static void removeCollectedResolvers() {
+    Reference<? extends ResourceResolver> collected = COLLECTED_RESOLVERS.poll();
+    while (collected != null) {
+      CACHES.remove(collected);
+      collected = COLLECTED_RESOLVERS.poll();
+    }
+  }
+
+  /**
+   * Cached Model for the specified path and Sling Model class.
+   *
+   * @param path Path of the adapted Resource.
+   * @param type Sling Model class the Resource was adapted to.
+   * @param <T> Sling Model class the Resource was adapted to.
+   *
+   * @return Cached Model for the specified path and Sling Model class, or null.
+   */
+  @Nullable
+  public <T> T getModel(@Nonnull final String path, @Nonnull final Class<T> type) {
+    final Object model = models.get(new Key(path, type));
+    if (model != null) {
+      hitCount.incrementAndGet();
+      return type.cast(model);
+    }
+    missCount.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Caches an adapted Model.
+   *
+   * @param path Path of the adapted Resource.
+   * @param type Sling Model class the Resource was adapted to.
+   * @param model Adapted Model.
+   * @param <T> Sling Model class the Resource was adapted to.
+   */
+  public <T> void putModel(@Nonnull final String path, @Nonnull final Class<T> type,
+          @Nonnull final T model) {
+    if (models.size() >= MAX_SIZE) {
+      models.clear();
+    }
+    models.put(new Key(path, type), model);
+  }
+
+  /**
+   * Number of lookups answered from the cache.
+   *
+   * @return Number of lookups answered from the cache.
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Number of lookups that were not answered from the cache.
+   *
+   * @return Number of lookups that were not answered from the cache.
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Number of cached Models.
+   *
+   * @return Number of cached Models.
+   */
+  public int size() {
+    return models.size();
+  }
+
+  /**
+   * Removes all cached Models.
+   */
+  public void clear() {
+    models.clear();
+  }
+
+  /**
+   * Weak reference to a ResourceResolver, compared by the identity of the ResourceResolver.
+   */
+  private static final class ResolverKey extends WeakReference<ResourceResolver> {
+
+    private final int hash;
+
+    private ResolverKey(@Nonnull final ResourceResolver resolver,
+            @Nullable final ReferenceQueue<ResourceResolver> queue) {
+      super(resolver, queue);
+      this.hash = System.identityHashCode(resolver);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (!(object instanceof ResolverKey)) {
+        return false;
+      }
+      final ResourceResolver resolver = get();
+      return resolver != null && resolver == ((ResolverKey) object).get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final class Key {
+
+    private final String path;
+    private final Class<?> type;
+    private final int hash;
+
+    private Key(@Nonnull final String path, @Nonnull final Class<?> type) {
+      this.path = path;
+      this.type = type;
+      this.hash = Objects.hash(path, type);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (!(object instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) object;
+      return type == key.type && path.equals(key.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+}
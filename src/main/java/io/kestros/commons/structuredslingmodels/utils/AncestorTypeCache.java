@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Bounded cache of ancestor lookups, keyed by Resource path, ResourceResolver user and Sling Model
+ * class. Each entry holds the path of the nearest Resource at or above the keyed path that is
+ * valid for the Model class, or an empty String if there is none. Every Resource visited by an
+ * ancestor walk is cached, so a later lookup from a sibling or descendant ends at the first cached
+ * path above it.
+ *
+ * <p>
+ * Entries are invalidated by {@link SlingModelCacheUtils#invalidate(String)} when a Resource at or
+ * above the path changes. Since a Resource can be valid because of its jcr:content Resource,
+ * changes to a jcr:content Resource also invalidate the Resource it belongs to.
+ * </p>
+ */
+final class AncestorTypeCache {
+
+  static final int MAX_SIZE = 10000;
+
+  /**
+   * Cached value for Resources with no valid Resource at or above them.
+   */
+  static final String NO_ANCESTOR = "";
+
+  private static final char USER_SEPARATOR = '\u0000';
+  private static final String REP_POLICY = "/rep:policy";
+  private static final String JCR_CONTENT_SUFFIX = "/jcr:content";
+
+  private static final ConcurrentNavigableMap<String, Map<Class<?>, String>> CACHE
+          = new ConcurrentSkipListMap<>();
+  private static final AtomicInteger SIZE = new AtomicInteger();
+
+  private AncestorTypeCache() {
+  }
+
+  /**
+   * Path of the nearest Resource at or above the specified path that is valid for the Model class,
+   * {@link #NO_ANCESTOR} if there is none, or null if nothing has been cached.
+   *
+   * @param resolver ResourceResolver the lookup is made with.
+   * @param path Absolute Resource path.
+   * @param type Sling Model class.
+   *
+   * @return Path of the nearest valid Resource at or above the path, {@link #NO_ANCESTOR}, or
+   *         null if nothing has been cached.
+   */
+  @Nullable
+  static String get(@Nonnull final ResourceResolver resolver, @Nonnull final String path,
+          @Nonnull final Class<?> type) {
+    final Map<Class<?>, String> ancestors = CACHE.get(getKey(resolver, path));
+    if (ancestors != null) {
+      return ancestors.get(type);
+    }
+    return null;
+  }
+
+  /**
+   * Records the nearest Resource at or above the specified path that is valid for the Model
+   * class.
+   *
+   * @param resolver ResourceResolver the lookup was made with.
+   * @param path Absolute Resource path.
+   * @param type Sling Model class.
+   * @param ancestorPath Path of the nearest valid Resource at or above the path, or {@link
+   *         #NO_ANCESTOR}.
+   */
+  static void put(@Nonnull final ResourceResolver resolver, @Nonnull final String path,
+          @Nonnull final Class<?> type, @Nonnull final String ancestorPath) {
+    if (SIZE.get() >= MAX_SIZE) {
+      clear();
+    }
+    final Map<Class<?>, String> ancestors = CACHE.computeIfAbsent(getKey(resolver, path),
+                                                                  key -> new ConcurrentHashMap<>());
+    if (ancestors.put(type, ancestorPath) == null) {
+      SIZE.incrementAndGet();
+    }
+  }
+
+  /**
+   * Removes entries at or below the specified path. Changes to an access control policy remove
+   * entries at or below the Resource the policy applies to, and changes to a jcr:content Resource
+   * remove entries at or below the Resource it belongs to.
+   *
+   * @param path Absolute path of the Resource that was added, changed or removed.
+   */
+  static void invalidate(@Nonnull final String path) {
+    String invalidatedPath = path;
+    final int policyIndex = invalidatedPath.indexOf(REP_POLICY);
+    if (policyIndex >= 0) {
+      invalidatedPath = invalidatedPath.substring(0, policyIndex);
+    }
+    while (invalidatedPath.endsWith(JCR_CONTENT_SUFFIX)) {
+      invalidatedPath = invalidatedPath.substring(0,
+                                                  invalidatedPath.length()
+                                                  - JCR_CONTENT_SUFFIX.length());
+    }
+    if (invalidatedPath.isEmpty() || "/".equals(invalidatedPath)) {
+      clear();
+      return;
+    }
+    remove(CACHE.subMap(invalidatedPath + USER_SEPARATOR, invalidatedPath + (char) (
+            USER_SEPARATOR + 1)));
+    remove(CACHE.subMap(invalidatedPath + "/", invalidatedPath + (char) ('/' + 1)));
+  }
+
+  /**
+   * Number of cached ancestor lookups.
+   *
+   * @return Number of cached ancestor lookups.
+   */
+  static int size() {
+    return SIZE.get();
+  }
+
+  /**
+   * Removes all cached ancestor lookups.
+   */
+  static void clear() {
+    CACHE.clear();
+    SIZE.set(0);
+  }
+
+  private static void remove(
+          @Nonnull final ConcurrentNavigableMap<String, Map<Class<?>, String>> entries) {
+    for (final String key : entries.keySet()) {
+      final Map<Class<?>, String> ancestors = entries.remove(key);
+      if (ancestors != null) {
+        SIZE.addAndGet(-ancestors.size());
+      }
+    }
+  }
+
+  @Nonnull
+  private static String getKey(@Nonnull final ResourceResolver resolver,
+          @Nonnull final String path) {
+    return path + USER_SEPARATOR + resolver.getUserID();
+  }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Iterates the descendants of a Resource that can be adapted by an adapter function, adapting each
+ * descendant only when the caller asks for the next Model.
+ *
+ * <p>
+ * When a query is passed, it is run against the Resource's ResourceResolver and its results are
+ * read as the caller pulls, so only the ResourceResolver's current page of query results is held
+ * in memory. If the ResourceResolver does not support queries, the descendants are traversed
+ * instead.
+ * </p>
+ *
+ * <p>
+ * Traversal returns the adaptable children of a Resource, then the adaptable descendants of each
+ * child in order, using an explicit stack rather than recursion. Each Resource's children are
+ * listed once, and each Resource is passed to the adapter once. A Resource is only adapted to
+ * {@link BaseResource} (to decide whether its descendants are traversed) when the adapter did not
+ * match it and it has children.
+ * </p>
+ *
+ * <p>
+ * A {@link TraversalBudget} can limit the depth, number of visited Resources, number of Models and
+ * running time. Iteration ends as soon as a limit is reached, and {@link #isTruncated()} reports
+ * whether anything was left out.
+ * </p>
+ *
+ * @param <T> Model type returned by the adapter function.
+ */
+final class DescendantIterator<T extends BaseResource> implements Iterator<T> {
+
+  private final Resource resource;
+  private final Function<Resource, Optional<T>> adapter;
+  private final String query;
+  private final TraversalBudget budget;
+  private final int resourceDepth;
+  private final Deque<Iterator<Child>> unexpandedChildren = new ArrayDeque<>();
+
+  private Iterator<Resource> candidates = Collections.emptyIterator();
+  private int candidateDepth;
+  private List<Child> siblings = new ArrayList<>();
+  private boolean started;
+  private boolean traversing;
+  private T nextModel;
+
+  /**
+   * Iterates adaptable descendants, traversing the Resource's children.
+   *
+   * @param resource Resource to originate traversal from.
+   * @param adapter Adapts a descendant Resource, returning an empty Optional if it does not match.
+   */
+  DescendantIterator(@Nonnull final Resource resource,
+          @Nonnull final Function<Resource, Optional<T>> adapter) {
+    this(resource, adapter, null);
+  }
+
+  /**
+   * Iterates adaptable descendants, found by running a query.
+   *
+   * @param resource Resource to originate traversal from, when queries are not supported.
+   * @param adapter Adapts a descendant Resource, returning an empty Optional if it does not match.
+   * @param query XPath query that finds descendants of the Resource, or null to traverse.
+   */
+  DescendantIterator(@Nonnull final Resource resource,
+          @Nonnull final Function<Resource, Optional<T>> adapter, @Nullable final String query) {
+    this(resource, adapter, query, new TraversalBudget(TraversalOptions.unbounded()), 0);
+  }
+
+  /**
+   * Iterates adaptable descendants within a traversal budget.
+   *
+   * @param resource Resource to originate traversal from, when queries are not supported.
+   * @param adapter Adapts a descendant Resource, returning an empty Optional if it does not match.
+   * @param query XPath query that finds descendants of the Resource, or null to traverse.
+   * @param budget Limits for the traversal.
+   * @param resourceDepth Depth of the Resource within a larger traversal, or 0 if it is the
+   *         origin.
+   */
+  DescendantIterator(@Nonnull final Resource resource,
+          @Nonnull final Function<Resource, Optional<T>> adapter, @Nullable final String query,
+          @Nonnull final TraversalBudget budget, final int resourceDepth) {
+    this.resource = resource;
+    this.adapter = adapter;
+    this.query = query;
+    this.budget = budget;
+    this.resourceDepth = resourceDepth;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (nextModel == null) {
+      nextModel = findNext();
+    }
+    return nextModel != null;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final T model = nextModel;
+    nextModel = null;
+    return model;
+  }
+
+  /**
+   * Whether a traversal limit left out descendants that would otherwise have been visited.
+   *
+   * @return Whether a traversal limit left out descendants.
+   */
+  boolean isTruncated() {
+    return budget.isTruncated();
+  }
+
+  @Nullable
+  private T findNext() {
+    if (budget.isFull()) {
+      if (candidates.hasNext() || !siblings.isEmpty() || !unexpandedChildren.isEmpty()) {
+        budget.truncate();
+      }
+      return null;
+    }
+    while (true) {
+      while (candidates.hasNext()) {
+        if (!budget.visit()) {
+          return null;
+        }
+        final Resource candidate = candidates.next();
+        final int depth;
+        if (traversing) {
+          depth = candidateDepth;
+        } else {
+          depth = getDepth(candidate);
+          if (!budget.isWithinDepth(depth)) {
+            continue;
+          }
+        }
+        final Optional<T> model = adapter.apply(candidate);
+        if (traversing) {
+          siblings.add(new Child(candidate, model.isPresent(), depth));
+        }
+        if (model.isPresent()) {
+          if (!budget.addResult()) {
+            return null;
+          }
+          return model.get();
+        }
+      }
+      if (traversing) {
+        if (!siblings.isEmpty()) {
+          unexpandedChildren.push(siblings.iterator());
+          siblings = new ArrayList<>();
+        }
+        if (!expandNextChild()) {
+          return null;
+        }
+      } else if (started) {
+        return null;
+      } else {
+        started = true;
+        if (query != null) {
+          runQuery();
+        } else {
+          startTraversal();
+        }
+      }
+    }
+  }
+
+  private void runQuery() {
+    try {
+      candidates = resource.getResourceResolver().findResources(query, "xpath");
+    } catch (final UnsupportedOperationException exception) {
+      startTraversal();
+    }
+  }
+
+  private void startTraversal() {
+    traversing = true;
+    final Iterator<Resource> children = resource.listChildren();
+    if (children.hasNext() && budget.isWithinDepth(resourceDepth + 1)) {
+      candidates = children;
+      candidateDepth = resourceDepth + 1;
+    }
+  }
+
+  private boolean expandNextChild() {
+    while (!unexpandedChildren.isEmpty()) {
+      final Iterator<Child> children = unexpandedChildren.peek();
+      while (children.hasNext()) {
+        final Child child = children.next();
+        final Iterator<Resource> grandchildren = child.resource.listChildren();
+        if (grandchildren.hasNext() && budget.isWithinDepth(child.depth + 1) && (child.adaptable
+                || SlingModelUtils.tryAdaptTo(child.resource, BaseResource.class).isPresent())) {
+          candidates = grandchildren;
+          candidateDepth = child.depth + 1;
+          return true;
+        }
+      }
+      unexpandedChildren.pop();
+    }
+    return false;
+  }
+
+  private int getDepth(@Nonnull final Resource descendant) {
+    final String relativePath = descendant.getPath().substring(resource.getPath().length());
+    int depth = resourceDepth + StringUtils.countMatches(relativePath, '/');
+    if ("/".equals(resource.getPath())) {
+      depth++;
+    }
+    return depth;
+  }
+
+  private static final class Child {
+
+    private final Resource resource;
+    private final boolean adaptable;
+    private final int depth;
+
+    private Child(@Nonnull final Resource resource, final boolean adaptable, final int depth) {
+      this.resource = resource;
+      this.adaptable = adaptable;
+      this.depth = depth;
+    }
+  }
+
+}
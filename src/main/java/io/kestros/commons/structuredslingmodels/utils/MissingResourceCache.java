@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Bounded cache of absolute Resource paths that were looked up and found to be missing, keyed by
+ * path and ResourceResolver user, since a Resource can be hidden from one user and readable by
+ * another. Entries are invalidated by {@link SlingModelCacheUtils#invalidate(String)} when a
+ * Resource at or above the path changes.
+ */
+final class MissingResourceCache {
+
+  static final int MAX_SIZE = 10000;
+
+  private static final char USER_SEPARATOR = '\u0000';
+  private static final String REP_POLICY = "/rep:policy";
+
+  private static final ConcurrentNavigableMap<String, Boolean> CACHE
+          = new ConcurrentSkipListMap<>();
+  private static final AtomicInteger SIZE = new AtomicInteger();
+
+  private MissingResourceCache() {
+  }
+
+  /**
+   * Whether the path is known to be missing for the ResourceResolver's user.
+   *
+   * @param resolver ResourceResolver the lookup is made with.
+   * @param path Absolute Resource path.
+   *
+   * @return Whether the path is known to be missing for the ResourceResolver's user.
+   */
+  static boolean isMissing(@Nonnull final ResourceResolver resolver, @Nonnull final String path) {
+    return CACHE.containsKey(getKey(resolver, path));
+  }
+
+  /**
+   * Records that the path is missing for the ResourceResolver's user.
+   *
+   * @param resolver ResourceResolver the lookup was made with.
+   * @param path Absolute Resource path.
+   */
+  static void putMissing(@Nonnull final ResourceResolver resolver, @Nonnull final String path) {
+    if (SIZE.get() >= MAX_SIZE) {
+      clear();
+    }
+    if (CACHE.putIfAbsent(getKey(resolver, path), Boolean.TRUE) == null) {
+      SIZE.incrementAndGet();
+    }
+  }
+
+  /**
+   * Removes entries at or below the specified path. Changes to an access control policy remove
+   * entries at or below the Resource the policy applies to.
+   *
+   * @param path Absolute path of the Resource that was added, changed or removed.
+   */
+  static void invalidate(@Nonnull final String path) {
+    String invalidatedPath = path;
+    final int policyIndex = invalidatedPath.indexOf(REP_POLICY);
+    if (policyIndex >= 0) {
+      invalidatedPath = invalidatedPath.substring(0, policyIndex);
+    }
+    if (invalidatedPath.isEmpty() || "/".equals(invalidatedPath)) {
+      clear();
+      return;
+    }
+    remove(CACHE.subMap(invalidatedPath + USER_SEPARATOR, invalidatedPath + (char) (
+            USER_SEPARATOR + 1)));
+    remove(CACHE.subMap(invalidatedPath + "/", invalidatedPath + (char) ('/' + 1)));
+  }
+
+  /**
+   * Number of cached missing paths.
+   *
+   * @return Number of cached missing paths.
+   */
+  static int size() {
+    return CACHE.size();
+  }
+
+  /**
+   * Removes all cached missing paths.
+   */
+  static void clear() {
+    CACHE.clear();
+    SIZE.set(0);
+  }
+
+  private static void remove(@Nonnull final ConcurrentNavigableMap<String, Boolean> entries) {
+    for (final String key : entries.keySet()) {
+      if (entries.remove(key) != null) {
+        SIZE.decrementAndGet();
+      }
+    }
+  }
+
+  @Nonnull
+  private static String getKey(@Nonnull final ResourceResolver resolver,
+          @Nonnull final String path) {
+    return path + USER_SEPARATOR + resolver.getUserID();
+  }
+
+}
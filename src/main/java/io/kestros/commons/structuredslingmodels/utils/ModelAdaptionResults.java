@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import io.kestros.commons.structuredslingmodels.exceptions.ModelAdaptionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Results of adapting a list of Resource paths in bulk. Models are returned in the order their
+ * paths were requested, and each path that could not be adapted is reported with the Exception
+ * describing why.
+ *
+ * <p>
+ * Models adapted by worker threads belong to ResourceResolvers cloned for those workers. These
+ * ResourceResolvers stay open until {@link #close()} is called, so the results should be closed
+ * once the Models are no longer needed.
+ * </p>
+ *
+ * @param <T> Model type the Resources were adapted to.
+ */
+public final class ModelAdaptionResults<T extends BaseResource> implements AutoCloseable {
+
+  private final List<String> resourcePaths;
+  private final Object[] models;
+  private final ModelAdaptionException[] failures;
+  private final List<ResourceResolver> resourceResolvers;
+
+  ModelAdaptionResults(@Nonnull final List<String> resourcePaths,
+          @Nonnull final List<ResourceResolver> resourceResolvers) {
+    this.resourcePaths = resourcePaths;
+    this.models = new Object[resourcePaths.size()];
+    this.failures = new ModelAdaptionException[resourcePaths.size()];
+    this.resourceResolvers = resourceResolvers;
+  }
+
+  /**
+   * Models that were successfully adapted, in the order their paths were requested.
+   *
+   * @return Models that were successfully adapted, in the order their paths were requested.
+   */
+  @Nonnull
+  @SuppressWarnings("unchecked")
+  public List<T> getModels() {
+    final List<T> adaptedModels = new ArrayList<>(models.length);
+    for (final Object model : models) {
+      if (model != null) {
+        adaptedModels.add((T) model);
+      }
+    }
+    return adaptedModels;
+  }
+
+  /**
+   * Paths that could not be adapted, mapped to the Exception describing why, in the order they
+   * were requested.
+   *
+   * @return Paths that could not be adapted, mapped to the Exception describing why.
+   */
+  @Nonnull
+  public Map<String, ModelAdaptionException> getFailures() {
+    final Map<String, ModelAdaptionException> failedPaths = new LinkedHashMap<>();
+    for (int i = 0; i < failures.length; i++) {
+      if (failures[i] != null) {
+        failedPaths.put(resourcePaths.get(i), failures[i]);
+      }
+    }
+    return Collections.unmodifiableMap(failedPaths);
+  }
+
+  /**
+   * Whether every requested path was adapted.
+   *
+   * @return Whether every requested path was adapted.
+   */
+  public boolean isSuccessful() {
+    for (final ModelAdaptionException failure : failures) {
+      if (failure != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Closes the ResourceResolvers cloned to adapt the Models. Models adapted by worker threads
+   * should not be used after the results are closed.
+   */
+  @Override
+  public void close() {
+    for (final ResourceResolver resourceResolver : resourceResolvers) {
+      if (resourceResolver.isLive()) {
+        resourceResolver.close();
+      }
+    }
+  }
+
+  void setModel(final int index, @Nullable final T model) {
+    models[index] = model;
+  }
+
+  void setFailure(final int index, @Nonnull final ModelAdaptionException failure) {
+    failures[index] = failure;
+  }
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import io.kestros.commons.structuredslingmodels.annotation.KestrosProperty;
+import io.kestros.commons.structuredslingmodels.utils.PropertyAccessorTable.PropertyAccessor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Utility methods for writing Sling Models as JSON.  Models are written from their {@link
+ * KestrosProperty} methods, using accessors compiled once per Model class, directly to a stream
+ * without building an intermediate object tree or introspecting the Model on each call.
+ */
+public final class ModelJsonUtils {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private ModelJsonUtils() {
+  }
+
+  /**
+   * Writes the {@link KestrosProperty} values of a Model as a JSON object.  Properties are written
+   * in method name order, and named after their getter (getTitle is written as title) unless the
+   * getter declares a {@link com.fasterxml.jackson.annotation.JsonProperty} name.  Getters
+   * annotated with {@link com.fasterxml.jackson.annotation.JsonIgnore} are skipped.  Property
+   * values which are Models are written as nested objects, except a Model already being written
+   * further up the same branch, which is written as its path to stop the recursion.
+   *
+   * @param model Model to write.
+   * @param generator Generator to write to.
+   *
+   * @throws IOException Generator failed to write.
+   */
+  public static void writeModel(@Nonnull final BaseResource model,
+          @Nonnull final JsonGenerator generator) throws IOException {
+    writeModel(model, generator, new HashSet<>());
+  }
+
+  /**
+   * Writes the {@link KestrosProperty} values of a Model as a JSON object. The Writer is flushed,
+   * but not closed.
+   *
+   * @param model Model to write.
+   * @param writer Writer to write to.
+   *
+   * @throws IOException Writer failed to write.
+   */
+  public static void writeModel(@Nonnull final BaseResource model, @Nonnull final Writer writer)
+          throws IOException {
+    try (JsonGenerator generator = createGenerator(writer)) {
+      writeModel(model, generator);
+    }
+  }
+
+  /**
+   * Writes the {@link KestrosProperty} values of a Model as a UTF-8 JSON object. The OutputStream
+   * is flushed, but not closed.
+   *
+   * @param model Model to write.
+   * @param outputStream OutputStream to write to.
+   *
+   * @throws IOException OutputStream failed to write.
+   */
+  public static void writeModel(@Nonnull final BaseResource model,
+          @Nonnull final OutputStream outputStream) throws IOException {
+    try (JsonGenerator generator = createGenerator(outputStream)) {
+      writeModel(model, generator);
+    }
+  }
+
+  /**
+   * JsonGenerator which writes to the specified Writer, and does not close it when the generator is
+   * closed.
+   *
+   * @param writer Writer to write to.
+   *
+   * @return JsonGenerator which writes to the specified Writer.
+   *
+   * @throws IOException Generator could not be created.
+   */
+  @Nonnull
+  public static JsonGenerator createGenerator(@Nonnull final Writer writer) throws IOException {
+    return JSON_FACTORY.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * JsonGenerator which writes UTF-8 to the specified OutputStream, and does not close it when the
+   * generator is closed.
+   *
+   * @param outputStream OutputStream to write to.
+   *
+   * @return JsonGenerator which writes to the specified OutputStream.
+   *
+   * @throws IOException Generator could not be created.
+   */
+  @Nonnull
+  public static JsonGenerator createGenerator(@Nonnull final OutputStream outputStream)
+          throws IOException {
+    return JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8).disable(
+            JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * Writes the {@link KestrosProperty} values of a Model as fields of the JSON object the generator
+   * is currently writing.
+   *
+   * @param model Model to write.
+   * @param generator Generator to write to.
+   *
+   * @throws IOException Generator failed to write.
+   */
+  static void writeModelFields(@Nonnull final BaseResource model,
+          @Nonnull final JsonGenerator generator) throws IOException {
+    writeModelFields(model, generator, new HashSet<>());
+  }
+
+  private static void writeModel(@Nonnull final BaseResource model,
+          @Nonnull final JsonGenerator generator, @Nonnull final Set<String> ancestorPaths)
+          throws IOException {
+    generator.writeStartObject();
+    writeModelFields(model, generator, ancestorPaths);
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes the fields of a Model, tracking its path in ancestorPaths while its property values are
+   * written so that a Model which (directly or indirectly) references itself is not recursed into.
+   */
+  private static void writeModelFields(@Nonnull final BaseResource model,
+          @Nonnull final JsonGenerator generator, @Nonnull final Set<String> ancestorPaths)
+          throws IOException {
+    final String path = model.getPath();
+    final boolean added = ancestorPaths.add(path);
+    try {
+      for (final PropertyAccessor accessor : PropertyAccessorTable.getTable(
+              model.getClass()).getAccessors()) {
+        generator.writeFieldName(accessor.getName());
+        writeValue(accessor.getValue(model), generator, ancestorPaths);
+      }
+    } finally {
+      if (added) {
+        ancestorPaths.remove(path);
+      }
+    }
+  }
+
+  private static void writeValue(@Nullable final Object value,
+          @Nonnull final JsonGenerator generator, @Nonnull final Set<String> ancestorPaths)
+          throws IOException {
+    if (value == null) {
+      generator.writeNull();
+    } else if (value instanceof String) {
+      generator.writeString((String) value);
+    } else if (value instanceof Boolean) {
+      generator.writeBoolean((Boolean) value);
+    } else if (value instanceof Number) {
+      writeNumber((Number) value, generator);
+    } else if (value instanceof BaseResource) {
+      final BaseResource model = (BaseResource) value;
+      if (ancestorPaths.contains(model.getPath())) {
+        generator.writeString(model.getPath());
+      } else {
+        writeModel(model, generator, ancestorPaths);
+      }
+    } else if (value instanceof Date) {
+      generator.writeNumber(((Date) value).getTime());
+    } else if (value instanceof Calendar) {
+      generator.writeNumber(((Calendar) value).getTimeInMillis());
+    } else if (value instanceof TemporalAccessor || value instanceof Enum) {
+      generator.writeString(value.toString());
+    } else if (value instanceof Iterable) {
+      generator.writeStartArray();
+      for (final Object item : (Iterable<?>) value) {
+        writeValue(item, generator, ancestorPaths);
+      }
+      generator.writeEndArray();
+    } else if (value instanceof Object[]) {
+      generator.writeStartArray();
+      for (final Object item : (Object[]) value) {
+        writeValue(item, generator, ancestorPaths);
+      }
+      generator.writeEndArray();
+    } else if (value instanceof Map) {
+      generator.writeStartObject();
+      for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        generator.writeFieldName(String.valueOf(entry.getKey()));
+        writeValue(entry.getValue(), generator, ancestorPaths);
+      }
+      generator.writeEndObject();
+    } else if (generator.getCodec() != null) {
+      generator.writeObject(value);
+    } else {
+      generator.writeString(value.toString());
+    }
+  }
+
+  private static void writeNumber(@Nonnull final Number value,
+          @Nonnull final JsonGenerator generator) throws IOException {
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      generator.writeNumber(value.intValue());
+    } else if (value instanceof Long) {
+      generator.writeNumber(value.longValue());
+    } else if (value instanceof Double) {
+      generator.writeNumber(value.doubleValue());
+    } else if (value instanceof Float) {
+      generator.writeNumber(value.floatValue());
+    } else if (value instanceof BigDecimal) {
+      generator.writeNumber((BigDecimal) value);
+    } else if (value instanceof BigInteger) {
+      generator.writeNumber((BigInteger) value);
+    } else {
+      generator.writeNumber(value.toString());
+    }
+  }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import io.kestros.commons.structuredslingmodels.BaseRequestContext;
+import io.kestros.commons.structuredslingmodels.annotation.KestrosModel;
+import io.kestros.commons.structuredslingmodels.annotation.KestrosProperty;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.sling.models.annotations.Model;
+
+/**
+ * Annotation metadata for a Sling Model class, read once by {@link ModelMetadataRegistry}.
+ */
+public final class ModelMetadata {
+
+  static final String RESOURCE_TYPE_DEFAULT = "sling/servlet/default";
+
+  private final Class<?> type;
+  private final Set<String> resourceTypes;
+  private final boolean matchesAllResourceTypes;
+  private final KestrosModel kestrosModel;
+  private final List<String> docPaths;
+  private final List<Method> kestrosPropertyMethods;
+
+  ModelMetadata(@Nonnull final Class<?> type) {
+    this.type = type;
+
+    final Model model = type.getAnnotation(Model.class);
+    if (model != null) {
+      this.resourceTypes = Collections.unmodifiableSet(
+              new LinkedHashSet<>(Arrays.asList(model.resourceType())));
+    } else {
+      this.resourceTypes = Collections.emptySet();
+    }
+    this.matchesAllResourceTypes = this.resourceTypes.contains(RESOURCE_TYPE_DEFAULT);
+    this.kestrosModel = type.getAnnotation(KestrosModel.class);
+    if (this.kestrosModel != null) {
+      this.docPaths = Collections.unmodifiableList(
+              new ArrayList<>(Arrays.asList(this.kestrosModel.docPaths())));
+    } else {
+      this.docPaths = Collections.emptyList();
+    }
+    this.kestrosPropertyMethods = Collections.unmodifiableList(findKestrosPropertyMethods(type));
+  }
+
+  /**
+   * Sling Model class the metadata was read from.
+   *
+   * @return Sling Model class the metadata was read from.
+   */
+  @Nonnull
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * resourceType values of the class's {@link Model} annotation, in declared order.
+   *
+   * @return resourceType values of the class's {@link Model} annotation, in declared order.
+   */
+  @Nonnull
+  public Set<String> getResourceTypes() {
+    return resourceTypes;
+  }
+
+  /**
+   * Whether the Model is valid for any resourceType (declares sling/servlet/default).
+   *
+   * @return Whether the Model is valid for any resourceType.
+   */
+  public boolean isMatchesAllResourceTypes() {
+    return matchesAllResourceTypes;
+  }
+
+  /**
+   * The class's {@link KestrosModel} annotation, if it has one.
+   *
+   * @return The class's {@link KestrosModel} annotation, or null.
+   */
+  @Nullable
+  public KestrosModel getKestrosModel() {
+    return kestrosModel;
+  }
+
+  /**
+   * Request context Model associated to the class, from {@link KestrosModel#contextModel()}.
+   *
+   * @return Request context Model associated to the class.
+   */
+  @Nonnull
+  public Class<? extends BaseRequestContext> getContextModel() {
+    if (kestrosModel != null) {
+      return kestrosModel.contextModel();
+    }
+    return BaseRequestContext.class;
+  }
+
+  /**
+   * Whether the Resource type uses a jcr:content child resource, from {@link
+   * KestrosModel#usesJcrContent()}.
+   *
+   * @return Whether the Resource type uses a jcr:content child resource.
+   */
+  public boolean isUsesJcrContent() {
+    return kestrosModel != null && kestrosModel.usesJcrContent();
+  }
+
+  /**
+   * Documentation Resource paths, from {@link KestrosModel#docPaths()}.
+   *
+   * @return Documentation Resource paths.
+   */
+  @Nonnull
+  public List<String> getDocPaths() {
+    return docPaths;
+  }
+
+  /**
+   * Public, no-argument methods annotated with {@link KestrosProperty}, sorted by name. Includes
+   * overriding methods when the overridden method carries the annotation.
+   *
+   * @return Public, no-argument methods annotated with {@link KestrosProperty}.
+   */
+  @Nonnull
+  public List<Method> getKestrosPropertyMethods() {
+    return kestrosPropertyMethods;
+  }
+
+  /**
+   * The {@link KestrosProperty} annotation for a method, looking to overridden methods if the
+   * method itself is not annotated.
+   *
+   * @param method Method to retrieve the annotation for.
+   *
+   * @return The {@link KestrosProperty} annotation for a method, or null.
+   */
+  @Nullable
+  static KestrosProperty findKestrosProperty(@Nonnull final Method method) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    while (declaringClass != null) {
+      try {
+        final KestrosProperty property = declaringClass.getDeclaredMethod(
+                method.getName()).getAnnotation(KestrosProperty.class);
+        if (property != null) {
+          return property;
+        }
+      } catch (final NoSuchMethodException exception) {
+        // Not declared at this level, continue to the superclass.
+      }
+      declaringClass = declaringClass.getSuperclass();
+    }
+    return null;
+  }
+
+  @Nonnull
+  private static List<Method> findKestrosPropertyMethods(@Nonnull final Class<?> type) {
+    final List<Method> methods = new ArrayList<>();
+    for (final Method method : type.getMethods()) {
+      if (method.getParameterCount() == 0 && !method.isBridge()
+              && findKestrosProperty(method) != null) {
+        methods.add(method);
+      }
+    }
+    methods.sort(Comparator.comparing(Method::getName));
+    return methods;
+  }
+
+}
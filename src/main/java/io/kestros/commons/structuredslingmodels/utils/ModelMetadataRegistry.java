@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Registry of {@link ModelMetadata}, computed once per Sling Model class. Metadata is bound to the
+ * class itself, so entries are released when a bundle's classes are unloaded.
+ */
+public final class ModelMetadataRegistry {
+
+  private static final ClassValue<ModelMetadata> METADATA = new ClassValue<ModelMetadata>() {
+    @Override
+    protected ModelMetadata computeValue(final Class<?> type) {
+      return new ModelMetadata(type);
+    }
+  };
+
+  private ModelMetadataRegistry() {
+  }
+
+  /**
+   * Annotation metadata for the specified Sling Model class.
+   *
+   * @param type Sling Model class.
+   *
+   * @return Annotation metadata for the specified Sling Model class.
+   */
+  @Nonnull
+  public static ModelMetadata getMetadata(@Nonnull final Class<?> type) {
+    return METADATA.get(type);
+  }
+
+}
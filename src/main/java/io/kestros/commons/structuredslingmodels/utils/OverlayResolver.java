@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Resolves overlaid Resources (/apps over /libs) using the ResourceResolver's search paths. While
+ * caching is enabled, the effective Resource path for each lookup is cached, so resolving an
+ * overlay after warmup costs a map read and a single Resource lookup. When a Resource under /apps
+ * or /libs changes, effective paths at or below it are removed.
+ */
+final class OverlayResolver {
+
+  static final int MAX_SIZE = 10000;
+
+  static final String RESOURCE_TYPE_SYNTHETIC = "sling:syntheticResourceProviderResource";
+
+  private static final String[] DEFAULT_SEARCH_PATHS = {"/apps/", "/libs/"};
+
+  private static final char SEARCH_PATH_SEPARATOR = '\u0000';
+
+  private static final Map<String, String> EFFECTIVE_PATHS = new ConcurrentHashMap<>();
+
+  private OverlayResolver() {
+  }
+
+  /**
+   * The first non-synthetic Resource matching the path, looking under each search path in order.
+   * If the path is under a search path already, only the search paths after it are checked.
+   *
+   * @param resourcePath Relative or absolute Resource path.
+   * @param resolver ResourceResolver.
+   *
+   * @return The first non-synthetic Resource matching the path, or null.
+   */
+  @Nullable
+  static Resource getEffectiveResource(@Nonnull final String resourcePath,
+          @Nonnull final ResourceResolver resolver) {
+    final String[] searchPaths = getSearchPaths(resolver);
+    if (resourcePath.startsWith("/")) {
+      for (int i = 0; i < searchPaths.length; i++) {
+        if (resourcePath.startsWith(searchPaths[i])) {
+          return resolve(resourcePath.substring(searchPaths[i].length()), searchPaths, i + 1,
+                         resolver);
+        }
+      }
+      return resolve(resourcePath.substring(1), searchPaths, 0, resolver);
+    }
+    return resolve(resourcePath, searchPaths, 0, resolver);
+  }
+
+  /**
+   * The Resource overlaid by the Resource at the specified path, found under the search paths that
+   * come after the one the path belongs to. For example, /libs/my-app/component for
+   * /apps/my-app/component.
+   *
+   * @param resourcePath Absolute path of an overlaying Resource.
+   * @param resolver ResourceResolver.
+   *
+   * @return The overlaid Resource, or null if the path is not under a search path, or no overlaid
+   *         Resource exists.
+   */
+  @Nullable
+  static Resource getOverlaidResource(@Nonnull final String resourcePath,
+          @Nonnull final ResourceResolver resolver) {
+    final String[] searchPaths = getSearchPaths(resolver);
+    for (int i = 0; i < searchPaths.length; i++) {
+      if (resourcePath.startsWith(searchPaths[i])) {
+        return resolve(resourcePath.substring(searchPaths[i].length()), searchPaths, i + 1,
+                       resolver);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Number of cached effective paths.
+   *
+   * @return Number of cached effective paths.
+   */
+  static int size() {
+    return EFFECTIVE_PATHS.size();
+  }
+
+  /**
+   * Removes cached effective paths for relative paths at or below the specified path.
+   *
+   * @param relativePath Path (relative to the search paths) that was added, changed or removed.
+   */
+  static void invalidate(@Nonnull final String relativePath) {
+    EFFECTIVE_PATHS.keySet().removeIf(key -> SlingModelCacheUtils.isResourceTypeAtOrBelow(
+            key.substring(0, key.indexOf(SEARCH_PATH_SEPARATOR)), relativePath));
+  }
+
+  /**
+   * Removes all cached effective paths.
+   */
+  static void clear() {
+    EFFECTIVE_PATHS.clear();
+  }
+
+  @Nullable
+  private static Resource resolve(@Nonnull final String relativePath,
+          @Nonnull final String[] searchPaths, final int firstSearchPath,
+          @Nonnull final ResourceResolver resolver) {
+    if (firstSearchPath >= searchPaths.length) {
+      return null;
+    }
+    String key = null;
+    if (SlingModelCacheUtils.isCachingEnabled()) {
+      key = getKey(relativePath, searchPaths, firstSearchPath);
+      final String effectivePath = EFFECTIVE_PATHS.get(key);
+      if (effectivePath != null) {
+        final Resource resource = resolver.getResource(effectivePath);
+        if (isNonSynthetic(resource)) {
+          return resource;
+        }
+        EFFECTIVE_PATHS.remove(key);
+      }
+    }
+    for (int i = firstSearchPath; i < searchPaths.length; i++) {
+      final Resource resource = SlingModelUtils.getResource(searchPaths[i] + relativePath,
+                                                            resolver);
+      if (isNonSynthetic(resource)) {
+        if (key != null) {
+          if (EFFECTIVE_PATHS.size() >= MAX_SIZE) {
+            EFFECTIVE_PATHS.clear();
+          }
+          EFFECTIVE_PATHS.put(key, resource.getPath());
+        }
+        return resource;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isNonSynthetic(@Nullable final Resource resource) {
+    return resource != null && !RESOURCE_TYPE_SYNTHETIC.equals(resource.getResourceType());
+  }
+
+  /**
+   * The ResourceResolver's search paths, or /apps/ and /libs/ if it does not have any.
+   *
+   * @param resolver ResourceResolver to retrieve search paths from.
+   *
+   * @return The ResourceResolver's search paths, or /apps/ and /libs/ if it does not have any.
+   */
+  @Nonnull
+  static String[] getSearchPaths(@Nonnull final ResourceResolver resolver) {
+    final String[] searchPaths = resolver.getSearchPath();
+    if (searchPaths == null || searchPaths.length == 0) {
+      return DEFAULT_SEARCH_PATHS;
+    }
+    return searchPaths;
+  }
+
+  @Nonnull
+  private static String getKey(@Nonnull final String relativePath,
+          @Nonnull final String[] searchPaths, final int firstSearchPath) {
+    final StringBuilder key = new StringBuilder(relativePath).append(SEARCH_PATH_SEPARATOR);
+    for (int i = firstSearchPath; i < searchPaths.length; i++) {
+      key.append(searchPaths[i]).append(',');
+    }
+    return key.toString();
+  }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Fork/join task that finds the adaptable descendants of the Resource at a path. Each child
+ * subtree is forked as its own task, and results are joined in child order, so the Models are
+ * returned in the same order as {@link DescendantIterator} traversal. Once the pool already has
+ * enough queued work, the remaining subtree is traversed on the current thread. All tasks of a
+ * traversal share one {@link TraversalBudget}, which is checked before each child is adapted and
+ * before each subtree is forked, so tasks stop as soon as a limit is reached. When the maximum
+ * number of Models is reached, the Models are the first ones found by any task, in traversal
+ * order, rather than the first ones in traversal order.
+ *
+ * <p>
+ * ResourceResolvers are not thread-safe, so each worker thread looks Resources up through its own
+ * clone of the ResourceResolver, provided by {@link WorkerResourceResolvers}.
+ * </p>
+ *
+ * @param <T> Model type returned by the adapter function.
+ */
+final class ParallelDescendantTask<T extends BaseResource> extends RecursiveTask<List<T>> {
+
+  private static final long serialVersionUID = 1L;
+
+  static final int SURPLUS_QUEUED_TASK_THRESHOLD = 3;
+
+  private final String path;
+  private final int depth;
+  private final transient Function<Resource, Optional<T>> adapter;
+  private final transient WorkerResourceResolvers resolvers;
+  private final transient TraversalBudget budget;
+
+  ParallelDescendantTask(@Nonnull final String path, final int depth,
+          @Nonnull final Function<Resource, Optional<T>> adapter,
+          @Nonnull final WorkerResourceResolvers resolvers, @Nonnull final TraversalBudget budget) {
+    this.path = path;
+    this.depth = depth;
+    this.adapter = adapter;
+    this.resolvers = resolvers;
+    this.budget = budget;
+  }
+
+  @Override
+  protected List<T> compute() {
+    if (budget.isFull()) {
+      budget.truncate();
+      return Collections.emptyList();
+    }
+    final Resource resource = resolvers.get().getResource(path);
+    if (resource == null) {
+      return Collections.emptyList();
+    }
+    final List<T> models = new ArrayList<>();
+    if (getSurplusQueuedTaskCount() > SURPLUS_QUEUED_TASK_THRESHOLD) {
+      new DescendantIterator<>(resource, adapter, null, budget, depth).forEachRemaining(
+              models::add);
+      return models;
+    }
+
+    final Iterator<Resource> children = resource.listChildren();
+    if (!children.hasNext() || !budget.isWithinDepth(depth + 1)) {
+      return models;
+    }
+    final List<ParallelDescendantTask<T>> subtasks = new ArrayList<>();
+    while (children.hasNext() && budget.visit()) {
+      final Resource child = children.next();
+      final Optional<T> model = adapter.apply(child);
+      if (model.isPresent() && budget.addResult()) {
+        models.add(model.get());
+      }
+      if (!child.hasChildren()) {
+        continue;
+      }
+      if (budget.isFull()) {
+        budget.truncate();
+        break;
+      }
+      if (model.isPresent() || SlingModelUtils.tryAdaptTo(child, BaseResource.class).isPresent()) {
+        subtasks.add(new ParallelDescendantTask<>(child.getPath(), depth + 1, adapter, resolvers,
+                                                  budget));
+      }
+    }
+    invokeAll(subtasks);
+    for (final ParallelDescendantTask<T> subtask : subtasks) {
+      models.addAll(subtask.join());
+    }
+    return models;
+  }
+
+  /**
+   * Clones of a ResourceResolver, one per worker thread, created the first time a thread asks for
+   * one.
+   */
+  static final class WorkerResourceResolvers {
+
+    private final ResourceResolver resolver;
+    private final Queue<ResourceResolver> unassigned = new ConcurrentLinkedQueue<>();
+    private final Map<Thread, ResourceResolver> assigned = new ConcurrentHashMap<>();
+
+    /**
+     * Clones of the specified ResourceResolver.
+     *
+     * @param resolver ResourceResolver to clone.
+     * @param firstClone Clone that has already been made, and will be assigned to the first
+     *         worker thread.
+     */
+    WorkerResourceResolvers(@Nonnull final ResourceResolver resolver,
+            @Nonnull final ResourceResolver firstClone) {
+      this.resolver = resolver;
+      this.unassigned.add(firstClone);
+    }
+
+    /**
+     * The current thread's ResourceResolver.
+     *
+     * @return The current thread's ResourceResolver.
+     * @throws IllegalStateException if the ResourceResolver cannot be cloned.
+     */
+    @Nonnull
+    ResourceResolver get() {
+      return assigned.computeIfAbsent(Thread.currentThread(), thread -> {
+        final ResourceResolver clone = unassigned.poll();
+        if (clone != null) {
+          return clone;
+        }
+        try {
+          return resolver.clone(null);
+        } catch (final LoginException exception) {
+          throw new IllegalStateException("Unable to clone ResourceResolver.", exception);
+        }
+      });
+    }
+
+    /**
+     * All ResourceResolvers that were cloned.
+     *
+     * @return All ResourceResolvers that were cloned.
+     */
+    @Nonnull
+    Collection<ResourceResolver> getAll() {
+      final List<ResourceResolver> clones = new ArrayList<>(assigned.values());
+      clones.addAll(unassigned);
+      return clones;
+    }
+
+    /**
+     * Closes all ResourceResolvers that were cloned.
+     */
+    void close() {
+      for (final ResourceResolver clone : getAll()) {
+        if (clone.isLive()) {
+          clone.close();
+        }
+      }
+    }
+
+  }
+
+}
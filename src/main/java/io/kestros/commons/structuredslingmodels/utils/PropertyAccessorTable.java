@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiled getters for the {@link io.kestros.commons.structuredslingmodels.annotation.KestrosProperty}
+ * methods of a Sling Model class, built once per class from {@link ModelMetadata}.  Getters are
+ * compiled with {@link LambdaMetafactory} when the model class is visible to this bundle, and fall
+ * back to {@link MethodHandle} or reflective calls when it is not.
+ */
+final class PropertyAccessorTable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PropertyAccessorTable.class);
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static final ClassValue<PropertyAccessorTable> TABLES
+          = new ClassValue<PropertyAccessorTable>() {
+            @Override
+            protected PropertyAccessorTable computeValue(final Class<?> type) {
+              return new PropertyAccessorTable(ModelMetadataRegistry.getMetadata(type));
+            }
+          };
+
+  private final List<PropertyAccessor> accessors;
+
+  private PropertyAccessorTable(@Nonnull final ModelMetadata metadata) {
+    final List<PropertyAccessor> compiledAccessors = new ArrayList<>();
+    for (final Method method : metadata.getKestrosPropertyMethods()) {
+      final JsonIgnore jsonIgnore = findAnnotation(method, JsonIgnore.class);
+      if (jsonIgnore == null || !jsonIgnore.value()) {
+        compiledAccessors.add(new PropertyAccessor(getPropertyName(method), compile(method)));
+      }
+    }
+    this.accessors = Collections.unmodifiableList(compiledAccessors);
+  }
+
+  /**
+   * Accessor table for the specified Sling Model class.
+   *
+   * @param type Sling Model class.
+   *
+   * @return Accessor table for the specified Sling Model class.
+   */
+  @Nonnull
+  static PropertyAccessorTable getTable(@Nonnull final Class<?> type) {
+    return TABLES.get(type);
+  }
+
+  /**
+   * Compiled property accessors, sorted by method name.
+   *
+   * @return Compiled property accessors, sorted by method name.
+   */
+  @Nonnull
+  List<PropertyAccessor> getAccessors() {
+    return accessors;
+  }
+
+  /**
+   * JSON property name for a getter.  Uses the {@link JsonProperty} value when set on the getter or
+   * a method it overrides, otherwise the bean property name.
+   */
+  @Nonnull
+  static String getPropertyName(@Nonnull final Method method) {
+    final JsonProperty jsonProperty = findAnnotation(method, JsonProperty.class);
+    if (jsonProperty != null && StringUtils.isNotEmpty(jsonProperty.value())) {
+      return jsonProperty.value();
+    }
+    final String methodName = method.getName();
+    if (methodName.startsWith("get") && methodName.length() > 3) {
+      return StringUtils.uncapitalize(methodName.substring(3));
+    }
+    if (methodName.startsWith("is") && methodName.length() > 2) {
+      return StringUtils.uncapitalize(methodName.substring(2));
+    }
+    return methodName;
+  }
+
+  /**
+   * Finds an annotation on a getter, or on the closest superclass method it overrides, so
+   * overriding a getter without repeating its Jackson annotations keeps them in effect.
+   */
+  @Nullable
+  static <A extends Annotation> A findAnnotation(@Nonnull final Method method,
+          @Nonnull final Class<A> annotationType) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    while (declaringClass != null) {
+      try {
+        final A annotation = declaringClass.getDeclaredMethod(method.getName()).getAnnotation(
+                annotationType);
+        if (annotation != null) {
+          return annotation;
+        }
+      } catch (final NoSuchMethodException exception) {
+        // Not declared at this level, continue to the superclass.
+      }
+      declaringClass = declaringClass.getSuperclass();
+    }
+    return null;
+  }
+
+  @Nonnull
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> compile(@Nonnull final Method method) {
+    final MethodHandle handle;
+    try {
+      handle = LOOKUP.unreflect(method);
+    } catch (final IllegalAccessException exception) {
+      return model -> invokeReflectively(method, model);
+    }
+    if (isVisible(method.getDeclaringClass())) {
+      try {
+        return (Function<Object, Object>) LambdaMetafactory.metafactory(LOOKUP, "apply",
+                MethodType.methodType(Function.class), GETTER_TYPE, handle,
+                MethodType.methodType(handle.type().wrap().returnType(),
+                                      method.getDeclaringClass())).getTarget().invokeExact();
+      } catch (final Throwable exception) {
+        LOG.debug("Unable to compile accessor for {}. Falling back to MethodHandle. {}", method,
+                  exception.getMessage());
+      }
+    }
+    final MethodHandle genericHandle = handle.asType(GETTER_TYPE);
+    return model -> invokeHandle(genericHandle, model);
+  }
+
+  /**
+   * Whether a class can be linked from this bundle's class loader, which generated lambda classes
+   * are defined in.
+   */
+  private static boolean isVisible(@Nonnull final Class<?> type) {
+    try {
+      return Class.forName(type.getName(), false, PropertyAccessorTable.class.getClassLoader())
+             == type;
+    } catch (final ClassNotFoundException | LinkageError exception) {
+      return false;
+    }
+  }
+
+  @Nullable
+  private static Object invokeHandle(@Nonnull final MethodHandle handle,
+          @Nonnull final Object model) {
+    try {
+      return handle.invokeExact(model);
+    } catch (final RuntimeException | Error exception) {
+      throw exception;
+    } catch (final Throwable exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  @Nullable
+  private static Object invokeReflectively(@Nonnull final Method method,
+          @Nonnull final Object model) {
+    try {
+      return method.invoke(model);
+    } catch (final InvocationTargetException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw new IllegalStateException(exception.getCause());
+    } catch (final IllegalAccessException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  /**
+   * A JSON property name and the compiled getter that reads it from a model.
+   */
+  static final class PropertyAccessor {
+
+    private final String name;
+    private final Function<Object, Object> getter;
+
+    private PropertyAccessor(@Nonnull final String name,
+            @Nonnull final Function<Object, Object> getter) {
+      this.name = name;
+      this.getter = getter;
+    }
+
+    @Nonnull
+    String getName() {
+      return name;
+    }
+
+    @Nullable
+    Object getValue(@Nonnull final Object model) {
+      return getter.apply(model);
+    }
+  }
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jackrabbit.util.ISO9075;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Index of resourceType to ordered sling:resourceSuperType chains. Chains are resolved with plain
+ * ResourceResolver lookups (no Sling Model adaption), and are held in memory while {@link
+ * SlingModelCacheUtils} caching is enabled. Entries are keyed by resourceType and ResourceResolver
+ * user, since a user who cannot read part of /apps or /libs resolves a shorter hierarchy than one
+ * who can. Once full, the cache is cleared rather than evicting individual entries, like {@link
+ * ResourceTypeValidityCache}. When a Resource under /apps or /libs changes, hierarchies that include
+ * it are removed (see {@link #invalidate(String)}).
+ */
+final class ResourceTypeHierarchy {
+
+  static final int MAX_SIZE = 10000;
+
+  private static final String SLING_RESOURCE_SUPER_TYPE = "sling:resourceSuperType";
+
+  private static final char USER_SEPARATOR = '\u0000';
+
+  private static final Map<String, List<String>> CACHE = new ConcurrentHashMap<>();
+  private static final Map<String, Set<String>> SUBTYPE_CACHE = new ConcurrentHashMap<>();
+
+  private ResourceTypeHierarchy() {
+  }
+
+  /**
+   * Ordered resourceType hierarchy for the specified resourceType. Starts with the resourceType
+   * itself (relative to /apps or /libs), followed by each sling:resourceSuperType (both as
+   * declared, and relative to /apps or /libs once resolved). Empty if the resourceType Resource
+   * cannot be found.
+   *
+   * @param resourceType resourceType to retrieve the hierarchy of.
+   * @param resolver ResourceResolver used to look up resourceType Resources.
+   *
+   * @return Ordered resourceType hierarchy for the specified resourceType.
+   */
+  @Nonnull
+  static List<String> getHierarchy(@Nonnull final String resourceType,
+          @Nonnull final ResourceResolver resolver) {
+    if (!SlingModelCacheUtils.isCachingEnabled()) {
+      return buildHierarchy(resourceType, resolver);
+    }
+    final String key = getKey(resolver, resourceType);
+    List<String> hierarchy = CACHE.get(key);
+    if (hierarchy == null) {
+      hierarchy = buildHierarchy(resourceType, resolver);
+      put(CACHE, key, hierarchy);
+    }
+    return hierarchy;
+  }
+
+  /**
+   * Whether the specified resourceType, or any of its sling:resourceSuperTypes, is one of the
+   * specified resourceTypes.
+   *
+   * @param resourceType resourceType to check.
+   * @param resourceTypes resourceTypes to look for.
+   * @param resolver ResourceResolver used to look up resourceType Resources.
+   *
+   * @return Whether the resourceType, or any of its sling:resourceSuperTypes, is one of the
+   *         specified resourceTypes.
+   */
+  static boolean isResourceTypeOrSubtypeOf(@Nonnull final String resourceType,
+          @Nonnull final Collection<String> resourceTypes,
+          @Nonnull final ResourceResolver resolver) {
+    for (final String hierarchyResourceType : getHierarchy(resourceType, resolver)) {
+      if (resourceTypes.contains(hierarchyResourceType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * resourceTypes that declare one of the specified resourceTypes as their sling:resourceSuperType,
+   * directly or through other resourceTypes. Found by querying the ResourceResolver's search paths,
+   * so the result is empty if the ResourceResolver does not support queries.
+   *
+   * @param resourceTypes resourceTypes to find subtypes of.
+   * @param resolver ResourceResolver used to query for resourceType Resources.
+   *
+   * @return resourceTypes (relative to the search paths) that extend the specified resourceTypes,
+   *         not including the specified resourceTypes themselves.
+   */
+  @Nonnull
+  static Set<String> getSubtypes(@Nonnull final Collection<String> resourceTypes,
+          @Nonnull final ResourceResolver resolver) {
+    final Set<String> subtypes = new LinkedHashSet<>();
+    for (final String resourceType : resourceTypes) {
+      if (SlingModelCacheUtils.isCachingEnabled()) {
+        final String key = getKey(resolver, resourceType);
+        Set<String> cachedSubtypes = SUBTYPE_CACHE.get(key);
+        if (cachedSubtypes == null) {
+          cachedSubtypes = findSubtypes(resourceType, resolver);
+          put(SUBTYPE_CACHE, key, cachedSubtypes);
+        }
+        subtypes.addAll(cachedSubtypes);
+      } else {
+        subtypes.addAll(findSubtypes(resourceType, resolver));
+      }
+    }
+    subtypes.removeAll(resourceTypes);
+    return subtypes;
+  }
+
+  /**
+   * Number of cached hierarchies.
+   *
+   * @return Number of cached hierarchies.
+   */
+  static int size() {
+    return CACHE.size();
+  }
+
+  /**
+   * Removes cached hierarchies for resourceTypes at or below the specified resourceType, and for
+   * resourceTypes that extend a resourceType at or below it. Cached subtypes are all removed, since
+   * a changed sling:resourceSuperType can add a subtype to any cached resourceType.
+   *
+   * @param resourceType resourceType (relative to /apps or /libs) that was added, changed or
+   *         removed.
+   *
+   * @return resourceTypes whose cached hierarchy was removed, for any user.
+   */
+  @Nonnull
+  static Set<String> invalidate(@Nonnull final String resourceType) {
+    final Set<String> invalidatedResourceTypes = new HashSet<>();
+    for (final Map.Entry<String, List<String>> entry : CACHE.entrySet()) {
+      final String key = entry.getKey();
+      final String cachedResourceType = key.substring(0, key.indexOf(USER_SEPARATOR));
+      if (isAffected(cachedResourceType, entry.getValue(), resourceType)
+          && CACHE.remove(key, entry.getValue())) {
+        invalidatedResourceTypes.add(cachedResourceType);
+      }
+    }
+    SUBTYPE_CACHE.clear();
+    return invalidatedResourceTypes;
+  }
+
+  /**
+   * Removes all cached hierarchies.
+   */
+  static void clear() {
+    CACHE.clear();
+    SUBTYPE_CACHE.clear();
+  }
+
+  /**
+   * Adds an entry, first clearing the cache if it is full.
+   */
+  private static <V> void put(@Nonnull final Map<String, V> cache, @Nonnull final String key,
+          @Nonnull final V value) {
+    if (cache.size() >= MAX_SIZE) {
+      cache.clear();
+    }
+    cache.put(key, value);
+  }
+
+  private static boolean isAffected(@Nonnull final String cachedResourceType,
+          @Nonnull final List<String> hierarchy, @Nonnull final String changedResourceType) {
+    if (SlingModelCacheUtils.isResourceTypeAtOrBelow(cachedResourceType, changedResourceType)) {
+      return true;
+    }
+    for (final String hierarchyResourceType : hierarchy) {
+      if (SlingModelCacheUtils.isResourceTypeAtOrBelow(hierarchyResourceType,
+                                                       changedResourceType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Nonnull
+  private static String getKey(@Nonnull final ResourceResolver resolver,
+          @Nonnull final String resourceType) {
+    return resourceType + USER_SEPARATOR + resolver.getUserID();
+  }
+
+  @Nonnull
+  private static Set<String> findSubtypes(@Nonnull final String resourceType,
+          @Nonnull final ResourceResolver resolver) {
+    final Set<String> subtypes = new LinkedHashSet<>();
+    if (resourceType.contains(":")) {
+      return subtypes;
+    }
+    final String[] searchPaths = OverlayResolver.getSearchPaths(resolver);
+    List<String> superTypes = Collections.singletonList(resourceType);
+    try {
+      while (!superTypes.isEmpty()) {
+        final List<String> foundTypes = new ArrayList<>();
+        final Iterator<Resource> resources = resolver.findResources(
+                buildSubtypeQuery(superTypes, searchPaths), "xpath");
+        while (resources.hasNext()) {
+          final String subtype = SlingModelUtils.getResourceTypePath(resources.next().getPath());
+          if (!subtype.equals(resourceType) && subtypes.add(subtype)) {
+            foundTypes.add(subtype);
+          }
+        }
+        superTypes = foundTypes;
+      }
+    } catch (final UnsupportedOperationException exception) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(subtypes);
+  }
+
+  @Nonnull
+  private static String buildSubtypeQuery(@Nonnull final List<String> superTypes,
+          @Nonnull final String[] searchPaths) {
+    final List<String> constraints = new ArrayList<>();
+    for (final String superType : superTypes) {
+      constraints.add(SlingModelUtils.getPropertyConstraint(SLING_RESOURCE_SUPER_TYPE, superType));
+      for (final String searchPath : searchPaths) {
+        constraints.add(SlingModelUtils.getPropertyConstraint(SLING_RESOURCE_SUPER_TYPE,
+                                                              searchPath + superType));
+      }
+    }
+    final List<String> roots = new ArrayList<>();
+    for (final String searchPath : searchPaths) {
+      roots.add(ISO9075.encodePath("/jcr:root" + StringUtils.removeEnd(searchPath, "/")) + "//*["
+                + String.join(" or ", constraints) + "]");
+    }
+    return String.join(" | ", roots);
+  }
+
+  @Nonnull
+  private static List<String> buildHierarchy(@Nonnull final String resourceType,
+          @Nonnull final ResourceResolver resolver) {
+    if (StringUtils.isBlank(resourceType)) {
+      return Collections.emptyList();
+    }
+    final Set<String> hierarchy = new LinkedHashSet<>();
+    final Set<String> visitedPaths = new HashSet<>();
+
+    Resource current = SlingModelUtils.findResource(resourceType, resolver);
+    while (current != null && visitedPaths.add(current.getPath())) {
+      hierarchy.add(SlingModelUtils.getResourceTypePath(current.getPath()));
+
+      final String resourceSuperType = current.getResourceSuperType();
+      if (StringUtils.isEmpty(resourceSuperType)) {
+        break;
+      }
+      hierarchy.add(resourceSuperType);
+      current = SlingModelUtils.findResource(resourceSuperType, resolver);
+    }
+    return Collections.unmodifiableList(new ArrayList<>(hierarchy));
+  }
+
+}
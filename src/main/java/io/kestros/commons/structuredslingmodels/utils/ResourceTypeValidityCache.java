@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Bounded cache of resourceType validity decisions, keyed by sling:resourceType, jcr:primaryType,
+ * Sling Model class and ResourceResolver user. Decisions are kept per user since they are built from
+ * per-user resourceType hierarchies, which access control can cut short. Once the cache is full it is cleared rather than evicting individual
+ * entries, since the number of distinct (resourceType, model) pairs on an instance is small.
+ * Decisions for a resourceType are removed when it, or a resourceType in its hierarchy, changes.
+ */
+final class ResourceTypeValidityCache {
+
+  static final int MAX_SIZE = 10000;
+
+  private static final Map<Key, Boolean> CACHE = new ConcurrentHashMap<>();
+
+  private ResourceTypeValidityCache() {
+  }
+
+  /**
+   * Cached validity decision, or null if none has been cached.
+   *
+   * @param resolver ResourceResolver the Resource was validated with.
+   * @param resourceType sling:resourceType of the Resource.
+   * @param primaryType jcr:primaryType of the Resource.
+   * @param type Sling Model class the Resource was validated against.
+   *
+   * @return Cached validity decision, or null if none has been cached.
+   */
+  @Nullable
+  static Boolean get(@Nonnull final ResourceResolver resolver, @Nonnull final String resourceType,
+          @Nonnull final String primaryType, @Nonnull final Class<?> type) {
+    return CACHE.get(new Key(resourceType, primaryType, type, resolver.getUserID()));
+  }
+
+  /**
+   * Caches a validity decision.
+   *
+   * @param resolver ResourceResolver the Resource was validated with.
+   * @param resourceType sling:resourceType of the Resource.
+   * @param primaryType jcr:primaryType of the Resource.
+   * @param type Sling Model class the Resource was validated against.
+   * @param valid Whether the Resource is valid for the Sling Model class.
+   */
+  static void put(@Nonnull final ResourceResolver resolver, @Nonnull final String resourceType,
+          @Nonnull final String primaryType, @Nonnull final Class<?> type, final boolean valid) {
+    if (CACHE.size() >= MAX_SIZE) {
+      CACHE.clear();
+    }
+    CACHE.put(new Key(resourceType, primaryType, type, resolver.getUserID()), valid);
+  }
+
+  /**
+   * Number of cached decisions.
+   *
+   * @return Number of cached decisions.
+   */
+  static int size() {
+    return CACHE.size();
+  }
+
+  /**
+   * Removes decisions for resourceTypes at or below the specified resourceType, and for the
+   * specified affected resourceTypes.
+   *
+   * @param resourceType resourceType (relative to /apps or /libs) that was added, changed or
+   *         removed.
+   * @param affectedResourceTypes resourceTypes whose hierarchy includes the changed resourceType.
+   *
+   * @return Whether any decisions were removed.
+   */
+  static boolean invalidate(@Nonnull final String resourceType,
+          @Nonnull final Collection<String> affectedResourceTypes) {
+    boolean invalidated = false;
+    final Iterator<Key> keys = CACHE.keySet().iterator();
+    while (keys.hasNext()) {
+      final String cachedResourceType = keys.next().resourceType;
+      if (affectedResourceTypes.contains(cachedResourceType)
+          || SlingModelCacheUtils.isResourceTypeAtOrBelow(cachedResourceType, resourceType)) {
+        keys.remove();
+        invalidated = true;
+      }
+    }
+    return invalidated;
+  }
+
+  /**
+   * Removes all cached decisions.
+   */
+  static void clear() {
+    CACHE.clear();
+  }
+
+  private static final class Key {
+
+    private final String resourceType;
+    private final String primaryType;
+    private final Class<?> type;
+    private final String userId;
+    private final int hash;
+
+    private Key(@Nonnull final String resourceType, @Nonnull final String primaryType,
+            @Nonnull final Class<?> type, @Nullable final String userId) {
+      this.resourceType = resourceType;
+      this.primaryType = primaryType;
+      this.type = type;
+      this.userId = userId;
+      this.hash = Objects.hash(resourceType, primaryType, type, userId);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (!(object instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) object;
+      return type == key.type && resourceType.equals(key.resourceType) && primaryType.equals(
+              key.primaryType) && Objects.equals(userId, key.userId);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import javax.annotation.Nonnull;
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Callback for {@link SlingModelUtils#visitDescendants(Resource, ResourceVisitor)}. Called once
+ * for each visited descendant Resource, and decides whether the traversal continues into the
+ * Resource's descendants.
+ */
+@FunctionalInterface
+public interface ResourceVisitor {
+
+  /**
+   * Visits a descendant Resource.
+   *
+   * @param resource Descendant Resource being visited.
+   *
+   * @return How the traversal should continue.
+   */
+  @Nonnull
+  VisitResult visit(@Nonnull Resource resource);
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Controls the shared caches used by {@link SlingModelUtils}. Caching is disabled by default, and
+ * is only enabled while something is listening for repository changes and passing them to {@link
+ * #invalidate(String)} (see
+ * {@link io.kestros.commons.structuredslingmodels.services.SlingModelCacheInvalidationListener}).
+ * This keeps cached results from going stale when the utilities are used outside of OSGi.
+ *
+ * <p>
+ * Missing Resource and ancestor lookups are keyed by content path, so they are only cached for
+ * paths under the roots passed to {@link #enableCaching(String...)}, which should match the paths
+ * the caller is observing.
+ * </p>
+ */
+public final class SlingModelCacheUtils {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SlingModelCacheUtils.class);
+
+  private static final String PREFIX_LIBS = "/libs";
+  private static final String PREFIX_APPS = "/apps";
+
+  private static final String[] ALL_PATHS = {"/"};
+
+  private static volatile boolean cachingEnabled = false;
+
+  private static volatile String[] observedPaths = ALL_PATHS;
+
+  private SlingModelCacheUtils() {
+  }
+
+  /**
+   * Whether the shared SlingModelUtils caches are currently enabled.
+   *
+   * @return Whether the shared SlingModelUtils caches are currently enabled.
+   */
+  public static boolean isCachingEnabled() {
+    return cachingEnabled;
+  }
+
+  /**
+   * Enables the shared SlingModelUtils caches, for changes anywhere in the repository. Should only
+   * be called by a component that will pass all repository changes to {@link
+   * #invalidate(String)}.
+   */
+  public static void enableCaching() {
+    enableCaching(ALL_PATHS);
+  }
+
+  /**
+   * Enables the shared SlingModelUtils caches. Should only be called by a component that will pass
+   * repository changes at or below the observed paths to {@link #invalidate(String)}. Paths outside
+   * of the observed paths are never cached by content path.
+   *
+   * @param paths Absolute paths the caller passes changes for.
+   */
+  public static void enableCaching(@Nonnull final String... paths) {
+    final List<String> absolutePaths = new ArrayList<>();
+    for (final String path : paths) {
+      if (path != null && path.startsWith("/")) {
+        absolutePaths.add(path);
+      }
+    }
+    clearCaches();
+    observedPaths = absolutePaths.toArray(new String[0]);
+    cachingEnabled = true;
+    LOG.info("Enabled Sling Model caching for {}.", absolutePaths);
+  }
+
+  /**
+   * Disables and clears the shared SlingModelUtils caches.
+   */
+  public static void disableCaching() {
+    cachingEnabled = false;
+    observedPaths = ALL_PATHS;
+    clearCaches();
+    LOG.info("Disabled Sling Model caching.");
+  }
+
+  /**
+   * Clears all shared SlingModelUtils caches.
+   */
+  public static void clearCaches() {
+    ResourceTypeValidityCache.clear();
+    ResourceTypeHierarchy.clear();
+    OverlayResolver.clear();
+    MissingResourceCache.clear();
+    AncestorTypeCache.clear();
+  }
+
+  /**
+   * Invalidates cached values that could be affected by a change to the specified Resource path.
+   * Changes under /apps or /libs remove the hierarchies, validity decisions and overlays of
+   * resourceTypes at or below the changed resourceType, and of resourceTypes that extend it.
+   * Ancestor lookups are only cleared when one of those decisions was cached, since they depend on
+   * resourceType validity.
+   *
+   * @param path Absolute path of the Resource that was added, changed or removed.
+   */
+  public static void invalidate(@Nonnull final String path) {
+    final String resourceType = getChangedResourceType(path);
+    if (resourceType != null) {
+      LOG.trace("Invalidating resourceType caches due to change at {}.",
+                path.replaceAll("[\r\n]", ""));
+      final Set<String> affectedResourceTypes = ResourceTypeHierarchy.invalidate(resourceType);
+      final boolean validityChanged = ResourceTypeValidityCache.invalidate(resourceType,
+                                                                           affectedResourceTypes);
+      OverlayResolver.invalidate(resourceType);
+      if (validityChanged || !affectedResourceTypes.isEmpty()) {
+        AncestorTypeCache.clear();
+      }
+    }
+    MissingResourceCache.invalidate(path);
+    AncestorTypeCache.invalidate(path);
+  }
+
+  /**
+   * Whether changes to the specified path are passed to {@link #invalidate(String)}.
+   *
+   * @param path Absolute Resource path.
+   *
+   * @return Whether changes to the specified path are passed to {@link #invalidate(String)}.
+   */
+  static boolean isObserved(@Nonnull final String path) {
+    for (final String observedPath : observedPaths) {
+      if ("/".equals(observedPath) ? path.startsWith("/") : isAtOrBelow(path, observedPath)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Whether a resourceType (relative, or absolute under /apps or /libs) is at or below another,
+   * relative resourceType. Every resourceType is at or below an empty resourceType.
+   *
+   * @param resourceType resourceType to check.
+   * @param root Relative resourceType.
+   *
+   * @return Whether the resourceType is at or below the root resourceType.
+   */
+  static boolean isResourceTypeAtOrBelow(@Nonnull final String resourceType,
+          @Nonnull final String root) {
+    if (root.isEmpty()) {
+      return true;
+    }
+    String relativeResourceType = getChangedResourceType(resourceType);
+    if (relativeResourceType == null) {
+      relativeResourceType = resourceType;
+    }
+    return isAtOrBelow(relativeResourceType, root);
+  }
+
+  /**
+   * resourceType (relative to /apps or /libs) of a changed path, an empty String if /apps or /libs
+   * itself changed, or null if the path is not under /apps or /libs.
+   */
+  @Nullable
+  private static String getChangedResourceType(@Nonnull final String path) {
+    for (final String prefix : new String[]{PREFIX_APPS, PREFIX_LIBS}) {
+      if (path.equals(prefix)) {
+        return "";
+      }
+      if (path.startsWith(prefix + "/")) {
+        return path.substring(prefix.length() + 1);
+      }
+    }
+    return null;
+  }
+
+  private static boolean isAtOrBelow(@Nonnull final String path, @Nonnull final String root) {
+    return path.equals(root) || path.startsWith(root + "/");
+  }
+
+}
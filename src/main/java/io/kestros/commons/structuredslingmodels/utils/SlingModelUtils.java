@@ -22,6 +22,7 @@ package io.kestros.commons.structuredslingmodels.utils;
 import static org.apache.jackrabbit.JcrConstants.JCR_CONTENT;
 import static org.apache.jackrabbit.JcrConstants.JCR_PRIMARYTYPE;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.kestros.commons.structuredslingmodels.BaseResource;
 import io.kestros.commons.structuredslingmodels.BaseSlingModel;
@@ -32,14 +33,37 @@ import io.kestros.commons.structuredslingmodels.exceptions.ModelAdaptionExceptio
 import io.kestros.commons.structuredslingmodels.exceptions.NoParentResourceException;
 import io.kestros.commons.structuredslingmodels.exceptions.NoValidAncestorException;
 import io.kestros.commons.structuredslingmodels.exceptions.ResourceNotFoundException;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
-import org.apache.commons.collections.IteratorUtils;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jackrabbit.JcrConstants;
 import org.apache.jackrabbit.util.ISO9075;
+import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.annotations.Model;
@@ -58,7 +82,13 @@ public final class SlingModelUtils {
 
   private static final String PREFIX_LIBS = "/libs/";
   private static final String PREFIX_APPS = "/apps/";
-  private static final String RESOURCE_TYPE_SYNTHETIC = "sling:syntheticResourceProviderResource";
+  private static final String SLING_RESOURCE_TYPE = "sling:resourceType";
+
+  /**
+   * Field holding the children of each object written by {@link #writeSubtreeAsJson(Resource,
+   * ModelFactory, JsonGenerator)}.
+   */
+  public static final String JSON_CHILDREN_FIELD = ":children";
 
   /**
    * Default Constructor.
@@ -82,46 +112,76 @@ public final class SlingModelUtils {
   @Nonnull
   public static <T extends BaseResource> T adaptTo(@Nonnull final Resource resource,
           @Nonnull final Class<T> type) throws InvalidResourceTypeException {
-    final String resourcePath = resource.getPath();
+    final Optional<T> model = tryAdaptTo(resource, type);
+    if (model.isPresent()) {
+      return model.get();
+    }
 
-    if (isValidResourceType(resource, type)) {
-      final T model = resource.adaptTo(type);
+    Resource invalidResource = resource;
+    Resource jcrContent = resource.getChild(JCR_CONTENT);
+    while (jcrContent != null) {
+      invalidResource = jcrContent;
+      jcrContent = jcrContent.getChild(JCR_CONTENT);
+    }
+    throw new InvalidResourceTypeException(invalidResource.getPath(), type);
+  }
 
-      if (model != null) {
-        return model;
-      } else {
-        LOG.debug("Unable to adapt {} to {} due to null response. "
-                          + " checking jcr:content resource, if it exists.",
-                  resourcePath.replaceAll("[\r\n]", ""),
-                  type.getSimpleName().replaceAll("[\r\n]", ""));
+  /**
+   * Adapts the passed Resource to the specified type, if it is valid. Functionally the same as
+   * {@link #adaptTo(Resource, Class)}, but returns an empty Optional instead of throwing an
+   * Exception, so it is suited to loops where most Resources are expected not to match.
+   *
+   * @param resource Resource to adapt.
+   * @param type Class to adapt the Resource to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the Resource to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return The current Resource adapted to the specified type, or an empty Optional if it cannot
+   *         be adapted.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Optional<T> tryAdaptTo(@Nonnull final Resource resource,
+          @Nonnull final Class<T> type) {
+    final AdaptedModelCache cache = AdaptedModelCache.get(resource.getResourceResolver());
+    if (cache != null) {
+      final T cachedModel = cache.getModel(resource.getPath(), type);
+      if (cachedModel != null) {
+        return Optional.of(cachedModel);
       }
     }
-
-    LOG.trace("Unable to adapt {} to {} due InvalidResourceType. Attempting to adapt jcr:content "
-                      + "resource, if it exists", resourcePath.replaceAll("[\r\n]", ""),
-              type.getSimpleName().replaceAll("[\r\n]", ""));
-
-    try {
-      // Calling getChildAsType to catch exception if jcr:content is not found.
-      getChildAsType(JCR_CONTENT, resource, type);
+    if (isValidResourceTypeOrJcrContent(resource, type)) {
       final T model = resource.adaptTo(type);
       if (model != null) {
-        return model;
-      } else {
-        LOG.trace("Unable to adapt {} jcr:content to {} due to null response.",
-                  resourcePath.replaceAll("[\r\n]", ""),
-                  type.getSimpleName().replaceAll("[\r\n]", ""));
+        if (cache != null) {
+          cache.putModel(resource.getPath(), type, model);
+        }
+        return Optional.of(model);
       }
-
-    } catch (final ChildResourceNotFoundException exception) {
-      LOG.trace(
-              "Unable to find jcr:content resource to fall back to while adapting {} to {}, "
-                      + "throwing InvalidResourceTypeException",
-              resourcePath.replaceAll("[\r\n]", ""),
-              type.getSimpleName().replaceAll("[\r\n]", ""));
+      LOG.debug("Unable to adapt {} to {} due to null response.",
+                resource.getPath().replaceAll("[\r\n]", ""),
+                type.getSimpleName().replaceAll("[\r\n]", ""));
     }
+    return Optional.empty();
+  }
 
-    throw new InvalidResourceTypeException(resourcePath, type);
+  /**
+   * This method is functionally the same as {@link #tryAdaptTo(Resource, Class)} but accepts
+   * {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to adapt.
+   * @param type Class to adapt the Resource to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the Resource to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return The current Resource adapted to the specified type, or an empty Optional if it cannot
+   *         be adapted.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Optional<T> tryAdaptTo(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return tryAdaptTo(baseResource.getResource(), type);
   }
 
   /**
@@ -146,6 +206,32 @@ public final class SlingModelUtils {
     return adaptTo(baseResource.getResource(), type);
   }
 
+  /**
+   * Whether the Resource, or its jcr:content Resource (or a nested jcr:content Resource), is valid
+   * for the specified type. Only checks resourceTypes, so no Sling Model is instantiated.
+   */
+  private static <T extends BaseResource> boolean isValidResourceTypeOrJcrContent(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type) {
+    return isValidResourceType(resource, type) || hasValidJcrContent(resource, type);
+  }
+
+  /**
+   * Whether the Resource's jcr:content Resource (or a nested jcr:content Resource) is valid for the
+   * specified type. Only checks resourceTypes, so no Sling Model is instantiated while deciding
+   * whether to fall back to jcr:content.
+   */
+  private static <T extends BaseResource> boolean hasValidJcrContent(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type) {
+    Resource jcrContent = getChild(resource, JCR_CONTENT);
+    while (jcrContent != null) {
+      if (isValidResourceType(jcrContent, type)) {
+        return true;
+      }
+      jcrContent = getChild(jcrContent, JCR_CONTENT);
+    }
+    return false;
+  }
+
   /**
    * Adapts the passed Resource to a BaseResource Model.  Use this instead of adaptTo when adapting
    * to BaseResource to avoid impossible InvalidResourceType exceptions.
@@ -157,8 +243,18 @@ public final class SlingModelUtils {
    */
   @Nonnull
   public static BaseResource adaptToBaseResource(@Nonnull final Resource resource) {
+    final AdaptedModelCache cache = AdaptedModelCache.get(resource.getResourceResolver());
+    if (cache != null) {
+      final BaseResource cachedModel = cache.getModel(resource.getPath(), BaseResource.class);
+      if (cachedModel != null) {
+        return cachedModel;
+      }
+    }
     BaseResource baseResource = resource.adaptTo(BaseResource.class);
     if (baseResource != null) {
+      if (cache != null) {
+        cache.putModel(resource.getPath(), BaseResource.class, baseResource);
+      }
       return baseResource;
     }
     throw new IllegalStateException("Unable to adapt " + resource.getPath()
@@ -239,6 +335,59 @@ public final class SlingModelUtils {
     return getChildAsType(childName, baseResource.getResource(), type);
   }
 
+  /**
+   * The specified child Resource adapted to the specified type, if it exists and is valid.
+   * Functionally the same as {@link #getChildAsType(String, Resource, Class)}, but returns an empty
+   * Optional instead of throwing an Exception.
+   *
+   * @param childName Name of child Resource to retrieve.
+   * @param resource Resource to retrieve child from.
+   * @param type Class to adapt the child to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the child to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return The specified child Resource adapted to the specified type, or an empty Optional if
+   *         the child cannot be found or adapted.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Optional<T> tryGetChildAsType(
+          @Nonnull final String childName, @Nonnull final Resource resource,
+          @Nonnull final Class<T> type) {
+    if (StringUtils.isNotBlank(childName)) {
+      Resource parent = resource;
+      while (parent != null) {
+        final Resource child = getChild(parent, childName);
+        if (child != null) {
+          return tryAdaptTo(child, type);
+        }
+        parent = getChild(parent, JCR_CONTENT);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * This method is functionally the same as {@link #tryGetChildAsType(String, Resource, Class)} but
+   * accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param childName Name of child Resource to retrieve.
+   * @param baseResource Resource to retrieve child from.
+   * @param type Class to adapt the child to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the child to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return The specified child Resource adapted to the specified type, or an empty Optional if
+   *         the child cannot be found or adapted.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Optional<T> tryGetChildAsType(
+          @Nonnull final String childName, @Nonnull final BaseResource baseResource,
+          @Nonnull final Class<T> type) {
+    return tryGetChildAsType(childName, baseResource.getResource(), type);
+  }
+
   /**
    * Specified child Resource, as a BaseResource.
    *
@@ -253,11 +402,11 @@ public final class SlingModelUtils {
           @Nonnull final Resource resource) throws ChildResourceNotFoundException {
 
     if (StringUtils.isNotBlank(childName)) {
-      final Resource child = resource.getChild(childName);
+      final Resource child = getChild(resource, childName);
       if (child != null) {
         return adaptToBaseResource(child);
       } else {
-        final Resource jcrContent = resource.getChild(JCR_CONTENT);
+        final Resource jcrContent = getChild(resource, JCR_CONTENT);
         if (jcrContent != null) {
           return getChildAsBaseResource(childName, jcrContent);
         }
@@ -331,19 +480,18 @@ public final class SlingModelUtils {
 
     final List<T> children = new ArrayList<>();
     for (final Resource child : resource.getChildren()) {
-      try {
-        T adaptedChild = adaptTo(child, type);
-        if (!adaptedChild.getPath().equals(resource.getPath())) {
-          children.add(adaptedChild);
+      final Optional<T> adaptedChild = tryAdaptTo(child, type);
+      if (adaptedChild.isPresent()) {
+        if (!adaptedChild.get().getPath().equals(resource.getPath())) {
+          children.add(adaptedChild.get());
         }
-      } catch (final InvalidResourceTypeException exception) {
+      } else {
         LOG.debug("Unable to adapt resource {} to {} due to "
                           + "InvalidResourceType while getting children" + " of {}",
                   child.getPath().replaceAll("[\r\n]", ""),
                   type.getSimpleName().replaceAll("[\r\n]", ""),
                   resource.getPath().replaceAll("[\r\n]", ""));
       }
-
     }
     return children;
   }
@@ -368,7 +516,9 @@ public final class SlingModelUtils {
   }
 
   /**
-   * Retrieves a filtered list of children, of a specified SlingModel type.
+   * Retrieves a filtered list of children, of a specified SlingModel type. Each allowed child is
+   * looked up by name, so only the allowed children are adapted. When the Resource has fewer
+   * children than there are allowed names, its children are scanned instead.
    *
    * @param resource Resource to retrieve children from.
    * @param allowedChildNames List of names that are allowed.
@@ -377,19 +527,85 @@ public final class SlingModelUtils {
    * @param <T> Class to adapt the children to. Class must extend BaseResource and
    *         have the
    *
-   * @return List of all allowed and valid children, adapted to the specified type. Resources that
-   *         fail adaption will not be added to the List.
+   * @return List of all allowed and valid children, adapted to the specified type, in the order of
+   *         the allowed names. Resources that fail adaption will not be added to the List.
    */
   @Nonnull
   public static <T extends BaseResource> List<T> getChildrenOfType(@Nonnull final Resource resource,
           @Nonnull final List<String> allowedChildNames, @Nonnull final Class<T> type) {
-    final List<T> filteredChildren = new ArrayList<>();
-    for (final T child : getChildrenOfType(resource, type)) {
-      if (allowedChildNames.contains(child.getName())) {
-        filteredChildren.add(child);
+    final Set<String> childNames = new LinkedHashSet<>(allowedChildNames);
+    if (hasFewerChildrenThan(resource, childNames.size())) {
+      return getAllowedChildrenOfTypeByScan(resource, childNames, type);
+    }
+    final List<T> children = new ArrayList<>();
+    for (final String childName : childNames) {
+      if (!isChildName(childName)) {
+        continue;
+      }
+      final Resource child = getChild(resource, childName);
+      if (child != null) {
+        final Optional<T> adaptedChild = tryAdaptTo(child, type);
+        if (adaptedChild.isPresent()) {
+          children.add(adaptedChild.get());
+        } else {
+          LOG.debug("Unable to adapt resource {} to {} due to InvalidResourceType while getting "
+                    + "children of {}", child.getPath().replaceAll("[\r\n]", ""),
+                    type.getSimpleName().replaceAll("[\r\n]", ""),
+                    resource.getPath().replaceAll("[\r\n]", ""));
+        }
+      }
+    }
+    return children;
+  }
+
+  /**
+   * Adapts the allowed children found while listing all of the Resource's children, ordered by the
+   * allowed names. Only used when the Resource has fewer children than there are allowed names.
+   */
+  @Nonnull
+  private static <T extends BaseResource> List<T> getAllowedChildrenOfTypeByScan(
+          @Nonnull final Resource resource, @Nonnull final Set<String> childNames,
+          @Nonnull final Class<T> type) {
+    final Map<String, T> adaptedChildren = new HashMap<>();
+    for (final Resource child : resource.getChildren()) {
+      if (childNames.contains(child.getName())) {
+        final Optional<T> adaptedChild = tryAdaptTo(child, type);
+        if (adaptedChild.isPresent()) {
+          adaptedChildren.put(child.getName(), adaptedChild.get());
+        }
       }
     }
-    return filteredChildren;
+    final List<T> children = new ArrayList<>();
+    for (final String childName : childNames) {
+      final T child = adaptedChildren.get(childName);
+      if (child != null) {
+        children.add(child);
+      }
+    }
+    return children;
+  }
+
+  /**
+   * Whether the Resource has fewer children than the specified count. Stops listing children once
+   * the count is reached.
+   */
+  private static boolean hasFewerChildrenThan(@Nonnull final Resource resource, final int count) {
+    final Iterator<Resource> children = resource.listChildren();
+    for (int i = 0; i < count; i++) {
+      if (!children.hasNext()) {
+        return true;
+      }
+      children.next();
+    }
+    return false;
+  }
+
+  /**
+   * Whether the name can only refer to an immediate child, rather than a relative path.
+   */
+  private static boolean isChildName(@Nullable final String childName) {
+    return StringUtils.isNotBlank(childName) && !childName.contains("/") && !".".equals(childName)
+           && !"..".equals(childName);
   }
 
   /**
@@ -413,6 +629,86 @@ public final class SlingModelUtils {
     return getChildrenOfType(baseResource.getResource(), allowedChildNames, type);
   }
 
+  /**
+   * Number of children that are valid for the specified type. Only resourceTypes are checked, so
+   * no Sling Model is instantiated.
+   *
+   * @param resource Resource to count children of.
+   * @param type Class to check the children against. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to check the children against. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Number of children that are valid for the specified type.
+   */
+  public static <T extends BaseResource> int countChildrenOfType(@Nonnull final Resource resource,
+          @Nonnull final Class<T> type) {
+    int count = 0;
+    final Iterator<Resource> children = resource.listChildren();
+    while (children.hasNext()) {
+      if (isValidResourceTypeOrJcrContent(children.next(), type)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * This method is functionally the same as {@link #countChildrenOfType(Resource, Class)} but
+   * accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to count children of.
+   * @param type Class to check the children against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to check the children against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Number of children that are valid for the specified type.
+   */
+  public static <T extends BaseResource> int countChildrenOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return countChildrenOfType(baseResource.getResource(), type);
+  }
+
+  /**
+   * Whether any child is valid for the specified type. Stops at the first valid child, and only
+   * checks resourceTypes, so no Sling Model is instantiated.
+   *
+   * @param resource Resource to check the children of.
+   * @param type Class to check the children against. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to check the children against. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether any child is valid for the specified type.
+   */
+  public static <T extends BaseResource> boolean hasChildOfType(@Nonnull final Resource resource,
+          @Nonnull final Class<T> type) {
+    final Iterator<Resource> children = resource.listChildren();
+    while (children.hasNext()) {
+      if (isValidResourceTypeOrJcrContent(children.next(), type)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * This method is functionally the same as {@link #hasChildOfType(Resource, Class)} but accepts
+   * {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to check the children of.
+   * @param type Class to check the children against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to check the children against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether any child is valid for the specified type.
+   */
+  public static <T extends BaseResource> boolean hasChildOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return hasChildOfType(baseResource.getResource(), type);
+  }
 
   /**
    * Retrieves a specified Resource as a BaseResource.
@@ -430,18 +726,8 @@ public final class SlingModelUtils {
           @Nonnull final ResourceResolver resolver) throws ResourceNotFoundException {
 
     if (StringUtils.isNotEmpty(resourcePath)) {
-      Resource resource = resolver.getResource(resourcePath);
-
+      final Resource resource = findResource(resourcePath, resolver);
       if (resource != null) {
-        if (RESOURCE_TYPE_SYNTHETIC.equals(resource.getResourceType())) {
-          resource = resolver.getResource(PREFIX_APPS + resourcePath);
-          if (resource == null || RESOURCE_TYPE_SYNTHETIC.equals(resource.getResourceType())) {
-            resource = resolver.getResource(PREFIX_LIBS + resourcePath);
-          }
-          if (resource == null || RESOURCE_TYPE_SYNTHETIC.equals(resource.getResourceType())) {
-            throw new ResourceNotFoundException(resourcePath);
-          }
-        }
         return adaptToBaseResource(resource);
       }
       throw new ResourceNotFoundException(resourcePath);
@@ -449,6 +735,92 @@ public final class SlingModelUtils {
     throw new ResourceNotFoundException(resourcePath, "Resource path not specified.");
   }
 
+  /**
+   * Looks up the specified Resource. If a synthetic Resource is found, the first matching Resource
+   * under the ResourceResolver's search paths (/apps, then /libs) is returned instead.
+   *
+   * @param resourcePath Path to the resource to retrieve.
+   * @param resolver ResourceResolver
+   *
+   * @return The specified Resource, or null if no non-synthetic Resource could be found.
+   */
+  @Nullable
+  static Resource findResource(@Nonnull final String resourcePath,
+          @Nonnull final ResourceResolver resolver) {
+    final Resource resource = getResource(resourcePath, resolver);
+
+    if (resource != null && OverlayResolver.RESOURCE_TYPE_SYNTHETIC.equals(
+            resource.getResourceType())) {
+      return OverlayResolver.getEffectiveResource(resourcePath, resolver);
+    }
+    return resource;
+  }
+
+  /**
+   * Retrieves a child Resource, answering from {@link MissingResourceCache} when the child is
+   * already known to be missing.
+   */
+  @Nullable
+  private static Resource getChild(@Nonnull final Resource resource,
+          @Nonnull final String childName) {
+    final String parentPath = resource.getPath();
+    final String childPath;
+    if ("/".equals(parentPath)) {
+      childPath = parentPath + childName;
+    } else {
+      childPath = parentPath + "/" + childName;
+    }
+    if (!isPathCacheUsable(resource.getResourceResolver(), childPath)) {
+      return resource.getChild(childName);
+    }
+    return getResource(childPath, resource.getResourceResolver(), () -> resource.getChild(
+            childName));
+  }
+
+  /**
+   * Retrieves a Resource, answering from {@link MissingResourceCache} when the path is already
+   * known to be missing.
+   *
+   * @param resourcePath Path to the resource to retrieve.
+   * @param resolver ResourceResolver
+   *
+   * @return The specified Resource, or null if it could not be found.
+   */
+  @Nullable
+  static Resource getResource(@Nonnull final String resourcePath,
+          @Nonnull final ResourceResolver resolver) {
+    if (!isPathCacheUsable(resolver, resourcePath)) {
+      return resolver.getResource(resourcePath);
+    }
+    return getResource(resourcePath, resolver, () -> resolver.getResource(resourcePath));
+  }
+
+  @Nullable
+  private static Resource getResource(@Nonnull final String resourcePath,
+          @Nonnull final ResourceResolver resolver, @Nonnull final Supplier<Resource> lookup) {
+    if (MissingResourceCache.isMissing(resolver, resourcePath)) {
+      return null;
+    }
+    final Resource resource = lookup.get();
+    if (resource == null) {
+      MissingResourceCache.putMissing(resolver, resourcePath);
+    }
+    return resource;
+  }
+
+  /**
+   * Missing Resources and ancestor lookups are only cached while caching is enabled, for paths
+   * whose changes are observed (/apps, /libs, /content and /conf unless the
+   * {@link io.kestros.commons.structuredslingmodels.services.SlingModelCacheInvalidationListener}
+   * paths are configured otherwise), and never for a ResourceResolver with uncommitted changes,
+   * since those changes have not been sent as change events yet.
+   */
+  private static boolean isPathCacheUsable(@Nullable final ResourceResolver resolver,
+          @Nonnull final String path) {
+    return SlingModelCacheUtils.isCachingEnabled() && SlingModelCacheUtils.isObserved(path)
+           && resolver != null && !resolver.hasChanges();
+  }
+
   /**
    * The specified Resource, adapted to the specified type.
    *
@@ -517,16 +889,23 @@ public final class SlingModelUtils {
 
     final List<T> models = new ArrayList<>();
     for (final String path : resourcePaths) {
-      try {
-        models.add(getResourceAsType(path, resolver, type));
-      } catch (final InvalidResourceTypeException exception) {
+      Resource resource = null;
+      if (StringUtils.isNotEmpty(path)) {
+        resource = findResource(path, resolver);
+      }
+      if (resource == null) {
         LOG.warn("Unable to adapt {} to {} while adapting list of paths to {} due to "
-                         + "InvalidResourceTypeException", path.replaceAll("[\r\n]", ""),
+                         + "ResourceNotFoundException", path.replaceAll("[\r\n]", ""),
                  type.getSimpleName().replaceAll("[\r\n]", ""),
                  type.getSimpleName().replaceAll("[\r\n]", ""));
-      } catch (final ResourceNotFoundException exception) {
+        continue;
+      }
+      final Optional<T> model = tryAdaptTo(resource, type);
+      if (model.isPresent()) {
+        models.add(model.get());
+      } else {
         LOG.warn("Unable to adapt {} to {} while adapting list of paths to {} due to "
-                         + "ResourceNotFoundException", path.replaceAll("[\r\n]", ""),
+                         + "InvalidResourceTypeException", path.replaceAll("[\r\n]", ""),
                  type.getSimpleName().replaceAll("[\r\n]", ""),
                  type.getSimpleName().replaceAll("[\r\n]", ""));
       }
@@ -534,6 +913,119 @@ public final class SlingModelUtils {
     return models;
   }
 
+  /**
+   * Adapts a List of Resource paths to the specified SlingModel type, spreading the work across
+   * up to {@code parallelism} tasks on the passed Executor. ResourceResolvers are not thread-safe,
+   * so each task uses its own clone of the passed ResourceResolver. Models are returned in the
+   * order their paths were requested, and paths that could not be adapted are reported as
+   * failures. When fewer than two tasks would be used, or the ResourceResolver cannot be cloned,
+   * paths are adapted sequentially on the calling thread.
+   *
+   * @param resourcePaths Resources to lookup and adapt.
+   * @param resolver Resource Resolver
+   * @param type Class to adapt the specified Resource to. Class must extend BaseResource
+   *         and have the {@link Model} annotation, with the resourceType value set.
+   * @param executor Executor to run the adaption tasks on. A bounded pool, or a virtual thread
+   *         executor where the runtime supports it.
+   * @param parallelism Maximum number of concurrent adaption tasks.
+   * @param <T> Class to adapt the specified Resource to. Class must extend BaseResource
+   *         and have the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Adapted Models and per-path failures. Must be closed once the Models are no longer
+   *         needed, to release the cloned ResourceResolvers.
+   */
+  @Nonnull
+  public static <T extends BaseResource> ModelAdaptionResults<T> getResourcesAsType(
+          @Nonnull final List<String> resourcePaths, @Nonnull final ResourceResolver resolver,
+          @Nonnull final Class<T> type, @Nonnull final Executor executor, final int parallelism) {
+    final List<String> paths = new ArrayList<>(resourcePaths);
+    final int workerCount = Math.min(parallelism, paths.size());
+    final List<ResourceResolver> workerResolvers = cloneResourceResolvers(resolver, workerCount);
+    final ModelAdaptionResults<T> results = new ModelAdaptionResults<>(paths, workerResolvers);
+
+    if (workerResolvers.isEmpty()) {
+      for (int index = 0; index < paths.size(); index++) {
+        adaptResourcePath(paths, index, resolver, type, results);
+      }
+      return results;
+    }
+
+    final AtomicInteger nextIndex = new AtomicInteger();
+    final List<CompletableFuture<Void>> workers = new ArrayList<>();
+    try {
+      for (final ResourceResolver workerResolver : workerResolvers) {
+        workers.add(CompletableFuture.runAsync(() -> {
+          int index = nextIndex.getAndIncrement();
+          while (index < paths.size()) {
+            adaptResourcePath(paths, index, workerResolver, type, results);
+            index = nextIndex.getAndIncrement();
+          }
+        }, executor));
+      }
+      CompletableFuture.allOf(workers.toArray(new CompletableFuture<?>[0])).join();
+    } catch (final RuntimeException exception) {
+      results.close();
+      throw exception;
+    }
+    return results;
+  }
+
+  @Nonnull
+  private static List<ResourceResolver> cloneResourceResolvers(
+          @Nonnull final ResourceResolver resolver, final int count) {
+    final List<ResourceResolver> clones = new ArrayList<>();
+    if (count < 2) {
+      return clones;
+    }
+    try {
+      for (int i = 0; i < count; i++) {
+        clones.add(resolver.clone(null));
+      }
+    } catch (final LoginException | UnsupportedOperationException exception) {
+      LOG.warn("Unable to clone ResourceResolver for bulk adaption, adapting sequentially. {}",
+               exception.getMessage());
+      for (final ResourceResolver clone : clones) {
+        clone.close();
+      }
+      clones.clear();
+    }
+    return clones;
+  }
+
+  private static <T extends BaseResource> void adaptResourcePath(
+          @Nonnull final List<String> resourcePaths, final int index,
+          @Nonnull final ResourceResolver resolver, @Nonnull final Class<T> type,
+          @Nonnull final ModelAdaptionResults<T> results) {
+    final String path = resourcePaths.get(index);
+    try {
+      if (StringUtils.isEmpty(path)) {
+        results.setFailure(index,
+                           new ResourceNotFoundException(String.valueOf(path),
+                                                         "Resource path not specified."));
+        return;
+      }
+      final Resource resource = findResource(path, resolver);
+      if (resource == null) {
+        results.setFailure(index, new ResourceNotFoundException(path));
+        return;
+      }
+      final Optional<T> model = tryAdaptTo(resource, type);
+      if (model.isPresent()) {
+        results.setModel(index, model.get());
+      } else {
+        results.setFailure(index, new InvalidResourceTypeException(path, type));
+      }
+    } catch (final RuntimeException exception) {
+      String message = exception.getMessage();
+      if (message == null) {
+        message = exception.getClass().getSimpleName();
+      }
+      results.setFailure(index,
+                         new ModelAdaptionException(String.valueOf(path), type, message,
+                                                    exception));
+    }
+  }
+
   /**
    * Retrieves the specified Resource's parent Resource as a BaseResource, if one exists.
    *
@@ -623,7 +1115,8 @@ public final class SlingModelUtils {
   }
 
   /**
-   * The first ancestor Resource that can be adapted to the specified type.
+   * The first ancestor Resource that can be adapted to the specified type. Ancestors are checked
+   * iteratively, and an Exception is only built if none of them are valid.
    *
    * @param resource Resource to look for ancestors of
    * @param type Class to attempt to adapt the ancestor Resource to. Class must extend
@@ -640,20 +1133,11 @@ public final class SlingModelUtils {
   @Nonnull
   public static <T extends BaseResource> T getFirstAncestorOfType(@Nonnull final Resource resource,
           @Nonnull final Class<T> type) throws NoValidAncestorException {
-
-    try {
-      return getParentResourceAsType(resource, type);
-    } catch (final InvalidResourceTypeException exception) {
-      try {
-        return getFirstAncestorOfType(getParentResourceAsBaseResource(resource), type);
-      } catch (final NoParentResourceException e1) {
-        throw new NoValidAncestorException(resource.getPath(), type, exception);
-      } catch (NoValidAncestorException e1) {
-        throw new NoValidAncestorException(resource.getPath(), type, exception);
-      }
-    } catch (final NoParentResourceException exception) {
-      throw new NoValidAncestorException(resource.getPath(), type, exception);
+    final Optional<T> ancestor = tryGetFirstAncestorOfType(resource, type);
+    if (ancestor.isPresent()) {
+      return ancestor.get();
     }
+    throw new NoValidAncestorException(resource.getPath(), type);
   }
 
   /**
@@ -675,30 +1159,37 @@ public final class SlingModelUtils {
   @Nonnull
   public static <T extends BaseResource> T getFirstAncestorOfType(@Nonnull final Resource resource,
           @Nonnull final Class<T> type, boolean resolveToLibs) throws NoValidAncestorException {
-    try {
-      return getFirstAncestorOfType(resource, type);
-    } catch (NoValidAncestorException exception) {
-      if (resolveToLibs) {
-        String libsPath;
-        Resource parentResource = resource.getParent();
-        Resource libsResource = null;
-        while (libsResource == null && parentResource != null) {
-          libsPath = parentResource.getPath().replaceFirst("/apps/", "/libs/");
-          libsResource = resource.getResourceResolver().getResource(libsPath);
-          if (libsResource == null) {
-            parentResource = parentResource.getParent();
-          }
-        }
-        if (libsResource != null) {
-          try {
-            return adaptTo(libsResource, type);
-          } catch (InvalidResourceTypeException e) {
-            return getFirstAncestorOfType(libsResource, type);
-          }
+    Optional<T> ancestor = tryGetFirstAncestorOfType(resource, type);
+    if (!ancestor.isPresent() && resolveToLibs) {
+      ancestor = tryGetFirstOverlaidAncestorOfType(resource, type);
+    }
+    if (ancestor.isPresent()) {
+      return ancestor.get();
+    }
+    throw new NoValidAncestorException(resource.getPath(), type);
+  }
+
+  /**
+   * Finds the nearest ancestor that overlays a /libs Resource, then returns the first Resource of
+   * the specified type from that /libs Resource upwards.
+   */
+  @Nonnull
+  private static <T extends BaseResource> Optional<T> tryGetFirstOverlaidAncestorOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type) {
+    Resource parentResource = resource.getParent();
+    while (parentResource != null) {
+      final Resource libsResource = OverlayResolver.getOverlaidResource(
+              parentResource.getPath(), resource.getResourceResolver());
+      if (libsResource != null) {
+        final Optional<T> model = tryAdaptTo(libsResource, type);
+        if (model.isPresent()) {
+          return model;
         }
+        return tryGetFirstAncestorOfType(libsResource, type);
       }
+      parentResource = parentResource.getParent();
     }
-    throw new NoValidAncestorException(resource.getPath(), type);
+    return Optional.empty();
   }
 
 
@@ -748,6 +1239,189 @@ public final class SlingModelUtils {
     return getFirstAncestorOfType(baseResource.getResource(), type);
   }
 
+  /**
+   * The first ancestor Resource that can be adapted to the specified type, if one exists.
+   * Functionally the same as {@link #getFirstAncestorOfType(Resource, Class)}, but returns an empty
+   * Optional instead of throwing an Exception.
+   *
+   * @param resource Resource to look for ancestors of
+   * @param type Class to attempt to adapt the ancestor Resource to. Class must extend
+   *         BaseResource and have the {@link Model} annotation, with the resourceType
+   *         value set.
+   * @param <T> Class to attempt to adapt the ancestor Resource to. Class must extend
+   *         BaseResource and have the {@link Model} annotation, with the resourceType
+   *         value set.
+   *
+   * @return The first ancestor Resource that can be adapted to the specified type, or an empty
+   *         Optional if ancestry ends without having found a valid Resource.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Optional<T> tryGetFirstAncestorOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type) {
+    return tryGetFirstAncestorOfType(resource, type, TraversalOptions.unbounded());
+  }
+
+  /**
+   * Walks the parent chain until a valid ancestor, or an ancestor with a cached result in {@link
+   * AncestorTypeCache}, is found, then caches the result for every ancestor that was walked. A
+   * cached ancestor that can no longer be adapted is ignored, and the walk continues from the
+   * ancestor it was cached for. Nothing is cached if a traversal limit ends the walk, and a cached
+   * ancestor beyond the depth limit is not returned.
+   */
+  @Nonnull
+  private static <T extends BaseResource> Optional<T> tryGetFirstCachedAncestorOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalBudget budget) {
+    final ResourceResolver resolver = resource.getResourceResolver();
+    final List<String> walkedPaths = new ArrayList<>();
+    Optional<T> model = Optional.empty();
+    String ancestorPath = AncestorTypeCache.NO_ANCESTOR;
+    Resource ancestor = resource.getParent();
+    int depth = 1;
+    while (ancestor != null) {
+      if (!budget.isWithinDepth(depth) || !budget.visit()) {
+        return Optional.empty();
+      }
+      final String cachedPath = AncestorTypeCache.get(resolver, ancestor.getPath(), type);
+      if (AncestorTypeCache.NO_ANCESTOR.equals(cachedPath)) {
+        break;
+      }
+      if (cachedPath != null) {
+        final Resource cachedAncestor = resolver.getResource(cachedPath);
+        if (cachedAncestor != null) {
+          model = tryAdaptTo(cachedAncestor, type);
+          if (model.isPresent()) {
+            ancestorPath = cachedPath;
+            break;
+          }
+        }
+      }
+      walkedPaths.add(ancestor.getPath());
+      model = tryAdaptTo(ancestor, type);
+      if (model.isPresent()) {
+        ancestorPath = ancestor.getPath();
+        break;
+      }
+      ancestor = ancestor.getParent();
+      depth++;
+    }
+    for (final String walkedPath : walkedPaths) {
+      AncestorTypeCache.put(resolver, walkedPath, type, ancestorPath);
+    }
+    if (model.isPresent() && !budget.isWithinDepth(getAncestorDepth(resource, ancestorPath))) {
+      return Optional.empty();
+    }
+    return model;
+  }
+
+  /**
+   * Number of levels between a Resource and one of its descendants.
+   */
+  private static int getDescendantDepth(@Nonnull final Resource resource,
+          @Nonnull final Resource descendant) {
+    final String relativePath = descendant.getPath().substring(resource.getPath().length());
+    if ("/".equals(resource.getPath())) {
+      return StringUtils.countMatches(relativePath, '/') + 1;
+    }
+    return StringUtils.countMatches(relativePath, '/');
+  }
+
+  /**
+   * Number of levels between a Resource and one of its ancestors.
+   */
+  private static int getAncestorDepth(@Nonnull final Resource resource,
+          @Nonnull final String ancestorPath) {
+    final int depth = StringUtils.countMatches(resource.getPath(), '/');
+    if ("/".equals(ancestorPath)) {
+      return depth;
+    }
+    return depth - StringUtils.countMatches(ancestorPath, '/');
+  }
+
+  /**
+   * This method is functionally the same as {@link #tryGetFirstAncestorOfType(Resource, Class)} but
+   * accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to look for ancestors of
+   * @param type Class to attempt to adapt the ancestor Resource to. Class must extend
+   *         BaseResource and have the {@link Model} annotation, with the resourceType
+   *         value set.
+   * @param <T> Class to attempt to adapt the ancestor Resource to. Class must extend
+   *         BaseResource and have the {@link Model} annotation, with the resourceType
+   *         value set.
+   *
+   * @return The first ancestor Resource that can be adapted to the specified type, or an empty
+   *         Optional if ancestry ends without having found a valid Resource.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Optional<T> tryGetFirstAncestorOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return tryGetFirstAncestorOfType(baseResource.getResource(), type);
+  }
+
+  /**
+   * The first ancestor Resource that can be adapted to the specified type, looking no further than
+   * the traversal limits allow. The depth limit is the number of levels above the Resource. Cached
+   * ancestor lookups are shared with {@link #tryGetFirstAncestorOfType(Resource, Class)}.
+   *
+   * @param resource Resource to look for ancestors of
+   * @param type Class to attempt to adapt the ancestor Resource to. Class must extend
+   *         BaseResource and have the {@link Model} annotation, with the resourceType
+   *         value set.
+   * @param options Limits for the traversal.
+   * @param <T> Class to attempt to adapt the ancestor Resource to. Class must extend
+   *         BaseResource and have the {@link Model} annotation, with the resourceType
+   *         value set.
+   *
+   * @return The first ancestor Resource that can be adapted to the specified type, or an empty
+   *         Optional if ancestry ends, or a limit is reached, without having found a valid
+   *         Resource.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Optional<T> tryGetFirstAncestorOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalOptions options) {
+    final TraversalBudget budget = new TraversalBudget(options);
+    if (isPathCacheUsable(resource.getResourceResolver(), resource.getPath())) {
+      return tryGetFirstCachedAncestorOfType(resource, type, budget);
+    }
+    Resource ancestor = resource.getParent();
+    int depth = 1;
+    while (ancestor != null && budget.isWithinDepth(depth) && budget.visit()) {
+      final Optional<T> model = tryAdaptTo(ancestor, type);
+      if (model.isPresent()) {
+        return model;
+      }
+      ancestor = ancestor.getParent();
+      depth++;
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * This method is functionally the same as {@link #tryGetFirstAncestorOfType(Resource, Class,
+   * TraversalOptions)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to look for ancestors of
+   * @param type Class to attempt to adapt the ancestor Resource to. Class must extend
+   *         BaseResource and have the {@link Model} annotation, with the resourceType
+   *         value set.
+   * @param options Limits for the traversal.
+   * @param <T> Class to attempt to adapt the ancestor Resource to. Class must extend
+   *         BaseResource and have the {@link Model} annotation, with the resourceType
+   *         value set.
+   *
+   * @return The first ancestor Resource that can be adapted to the specified type, or an empty
+   *         Optional if ancestry ends, or a limit is reached, without having found a valid
+   *         Resource.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Optional<T> tryGetFirstAncestorOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalOptions options) {
+    return tryGetFirstAncestorOfType(baseResource.getResource(), type, options);
+  }
+
   /**
    * Traverses the JCR (using the passed Resource as the origin) to find all Resources that can be
    * adapted to the specified type.
@@ -764,61 +1438,1008 @@ public final class SlingModelUtils {
   @Nonnull
   public static <T extends BaseResource> List<T> getAllDescendantsOfType(
           @Nonnull final Resource resource, @Nonnull final Class<T> type) {
-    List<T> adaptedDescendants = new ArrayList<>();
+    return getAllDescendantsOfType(resource, type, false);
+  }
 
-    try {
-      final List<Resource> descendants = new ArrayList<>();
+  /**
+   * Traverses the JCR (using the passed Resource as the origin) to find all Resources that can be
+   * adapted to the specified type. When the ResourceResolver supports queries, descendants are
+   * found with a single query covering all of the Model's resourceTypes.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param includeSubtypes Whether the query should also match resourceTypes that extend the
+   *         Model's resourceTypes through sling:resourceSuperType.
+   *
+   * @return List of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> List<T> getAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          final boolean includeSubtypes) {
+    return toList(iterateAllDescendantsOfType(resource, type, includeSubtypes));
+  }
 
-      for (String resourceType : getResourceTypesForSlingModel(type)) {
-        String property = "sling:resourceType";
-        if (resourceType.contains(":")) {
-          property = "jcr:primaryType";
-        }
-        String pathQuery = ISO9075.encodePath("/jcr:root" + resource.getPath());
-        String query = String.format("%s//*[@%s='%s']", pathQuery, property, resourceType);
-        descendants.addAll(IteratorUtils.toList(
-                resource.getResourceResolver().findResources(query, "xpath")));
-      }
-      for (Resource descendant : descendants) {
-        try {
-          adaptedDescendants.add(adaptTo(descendant, type));
-        } catch (InvalidResourceTypeException e) {
-          // do nothing
-        }
-      }
-    } catch (UnsupportedOperationException e) {
-      for (Resource child : resource.getChildren()) {
-        try {
-          adaptedDescendants.add(adaptTo(child, type));
-        } catch (InvalidResourceTypeException exception) {
-          // do nothing
-        }
+  /**
+   * This method is functionally the same as {@link #getAllDescendantsOfType(Resource, Class)} but
+   * accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return List of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> List<T> getAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return getAllDescendantsOfType(baseResource.getResource(), type);
+  }
+
+  /**
+   * This method is functionally the same as {@link #getAllDescendantsOfType(Resource, Class,
+   * boolean)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param includeSubtypes Whether the query should also match resourceTypes that extend the
+   *         Model's resourceTypes through sling:resourceSuperType.
+   *
+   * @return List of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> List<T> getAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          final boolean includeSubtypes) {
+    return getAllDescendantsOfType(baseResource.getResource(), type, includeSubtypes);
+  }
+
+  /**
+   * Lazily iterates all descendant Resources that can be adapted to the specified type, in the same
+   * order as {@link #getAllDescendantsOfType(Resource, Class)}. Descendants are only found and
+   * adapted as the Iterator is advanced, so callers that only need the first few matches do not
+   * pay for the whole tree.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Iterator of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Iterator<T> iterateAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type) {
+    return iterateAllDescendantsOfType(resource, type, false);
+  }
+
+  /**
+   * Lazily iterates all descendant Resources that can be adapted to the specified type, in the same
+   * order as {@link #getAllDescendantsOfType(Resource, Class, boolean)}.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param includeSubtypes Whether the query should also match resourceTypes that extend the
+   *         Model's resourceTypes through sling:resourceSuperType.
+   *
+   * @return Iterator of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Iterator<T> iterateAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          final boolean includeSubtypes) {
+    final Set<String> resourceTypes = new LinkedHashSet<>(
+            ModelMetadataRegistry.getMetadata(type).getResourceTypes());
+    if (resourceTypes.isEmpty()) {
+      return Collections.emptyIterator();
+    }
+    if (includeSubtypes) {
+      resourceTypes.addAll(
+              ResourceTypeHierarchy.getSubtypes(resourceTypes, resource.getResourceResolver()));
+    }
+    return new DescendantIterator<>(resource, descendant -> tryAdaptTo(descendant, type),
+                                    getDescendantQuery(resource, resourceTypes));
+  }
+
+  /**
+   * This method is functionally the same as {@link #iterateAllDescendantsOfType(Resource, Class)}
+   * but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Iterator of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Iterator<T> iterateAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return iterateAllDescendantsOfType(baseResource.getResource(), type);
+  }
+
+  /**
+   * This method is functionally the same as {@link #iterateAllDescendantsOfType(Resource, Class,
+   * boolean)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param includeSubtypes Whether the query should also match resourceTypes that extend the
+   *         Model's resourceTypes through sling:resourceSuperType.
+   *
+   * @return Iterator of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Iterator<T> iterateAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          final boolean includeSubtypes) {
+    return iterateAllDescendantsOfType(baseResource.getResource(), type, includeSubtypes);
+  }
+
+  /**
+   * Lazily streams all descendant Resources that can be adapted to the specified type, in the same
+   * order as {@link #getAllDescendantsOfType(Resource, Class)}. Short-circuiting operations such as
+   * {@code limit} and {@code findFirst} stop the traversal.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Stream of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type) {
+    return streamAllDescendantsOfType(resource, type, false);
+  }
+
+  /**
+   * Lazily streams all descendant Resources that can be adapted to the specified type, in the same
+   * order as {@link #getAllDescendantsOfType(Resource, Class, boolean)}.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param includeSubtypes Whether the query should also match resourceTypes that extend the
+   *         Model's resourceTypes through sling:resourceSuperType.
+   *
+   * @return Stream of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          final boolean includeSubtypes) {
+    return toStream(iterateAllDescendantsOfType(resource, type, includeSubtypes));
+  }
+
+  /**
+   * This method is functionally the same as {@link #streamAllDescendantsOfType(Resource, Class)}
+   * but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Stream of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return streamAllDescendantsOfType(baseResource.getResource(), type);
+  }
+
+  /**
+   * This method is functionally the same as {@link #streamAllDescendantsOfType(Resource, Class,
+   * boolean)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param includeSubtypes Whether the query should also match resourceTypes that extend the
+   *         Model's resourceTypes through sling:resourceSuperType.
+   *
+   * @return Stream of all descendant Resources that can be adapted to the specified type, as the
+   *         specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          final boolean includeSubtypes) {
+    return streamAllDescendantsOfType(baseResource.getResource(), type, includeSubtypes);
+  }
+
+  /**
+   * Lazily streams the descendant Resources that can be adapted to the specified type, in the same
+   * order as {@link #getAllDescendantsOfType(Resource, Class, TraversalOptions)}. The stream ends
+   * once a traversal limit is reached.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param options Limits for the traversal.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Stream of the descendant Resources within the traversal limits that can be adapted to
+   *         the specified type, as the specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalOptions options) {
+    final Set<String> resourceTypes = ModelMetadataRegistry.getMetadata(type).getResourceTypes();
+    if (resourceTypes.isEmpty()) {
+      return Stream.empty();
+    }
+    return toStream(new DescendantIterator<>(resource, descendant -> tryAdaptTo(descendant, type),
+                                             getDescendantQuery(resource, resourceTypes),
+                                             new TraversalBudget(options), 0));
+  }
+
+  /**
+   * This method is functionally the same as {@link #streamAllDescendantsOfType(Resource, Class,
+   * TraversalOptions)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param options Limits for the traversal.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Stream of the descendant Resources within the traversal limits that can be adapted to
+   *         the specified type, as the specified type.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalOptions options) {
+    return streamAllDescendantsOfType(baseResource.getResource(), type, options);
+  }
+
+  /**
+   * Traverses the JCR (using the passed Resource as the origin) on a ForkJoinPool to find all
+   * Resources that can be adapted to the specified type. Child subtrees are split into tasks, each
+   * worker thread uses its own clone of the Resource's ResourceResolver, and the Models are
+   * returned in the same order as the traversal used by
+   * {@link #getAllDescendantsOfType(Resource, Class)} when queries are not supported. Intended for
+   * offline jobs over large subtrees. If the ResourceResolver cannot be cloned, the subtree is
+   * traversed on the calling thread.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param pool ForkJoinPool to run the traversal on.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return All descendant Resources that can be adapted to the specified type. Must be closed
+   *         once the Models are no longer needed, to release the cloned ResourceResolvers.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final ForkJoinPool pool) {
+    return getAllDescendantsOfType(resource, type, pool, TraversalOptions.unbounded());
+  }
+
+  /**
+   * This method is functionally the same as {@link #getAllDescendantsOfType(Resource, Class,
+   * ForkJoinPool)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param pool ForkJoinPool to run the traversal on.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return All descendant Resources that can be adapted to the specified type. Must be closed
+   *         once the Models are no longer needed, to release the cloned ResourceResolvers.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final ForkJoinPool pool) {
+    return getAllDescendantsOfType(baseResource.getResource(), type, pool);
+  }
+
+  /**
+   * This method is functionally the same as {@link #getAllDescendantsOfType(Resource, Class,
+   * ForkJoinPool)}, but stops once a traversal limit is reached. Limits are shared by all worker
+   * threads.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param pool ForkJoinPool to run the traversal on.
+   * @param options Limits for the traversal.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Descendant Resources that can be adapted to the specified type, flagged as truncated
+   *         if a limit was reached. Must be closed once the Models are no longer needed, to release
+   *         the cloned ResourceResolvers.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final ForkJoinPool pool, @Nonnull final TraversalOptions options) {
+    return getAllDescendantsInParallel(resource, descendant -> tryAdaptTo(descendant, type), pool,
+                                       options);
+  }
+
+  /**
+   * Traverses the JCR (using the passed Resource as the origin) to find Resources that can be
+   * adapted to the specified type, stopping once a traversal limit is reached. When the
+   * ResourceResolver supports queries, descendants are found with a single query, and the limits
+   * apply to the query results.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param options Limits for the traversal.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Descendant Resources that can be adapted to the specified type, flagged as truncated
+   *         if a limit was reached.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalOptions options) {
+    final Set<String> resourceTypes = ModelMetadataRegistry.getMetadata(type).getResourceTypes();
+    if (resourceTypes.isEmpty()) {
+      return new TraversalResults<>(Collections.emptyList(), Collections.emptyList(), false);
+    }
+    return getAllDescendants(new DescendantIterator<>(resource,
+                                                      descendant -> tryAdaptTo(descendant, type),
+                                                      getDescendantQuery(resource, resourceTypes),
+                                                      new TraversalBudget(options), 0));
+  }
+
+  /**
+   * This method is functionally the same as {@link #getAllDescendantsOfType(Resource, Class,
+   * TraversalOptions)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param options Limits for the traversal.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Descendant Resources that can be adapted to the specified type, flagged as truncated
+   *         if a limit was reached.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalOptions options) {
+    return getAllDescendantsOfType(baseResource.getResource(), type, options);
+  }
+
+  /**
+   * Visits the descendants of a Resource depth-first, in the same order as the children are listed.
+   * The visitor decides, for each descendant, whether the traversal continues into its descendants
+   * ({@link VisitResult#CONTINUE}), skips them ({@link VisitResult#SKIP_SUBTREE}), or stops
+   * ({@link VisitResult#TERMINATE}), so large subtrees can be pruned instead of fully walked.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param visitor Called for each visited descendant.
+   *
+   * @return Whether every Resource the visitor asked for was visited, or false if the visitor
+   *         terminated the traversal.
+   */
+  public static boolean visitDescendants(@Nonnull final Resource resource,
+          @Nonnull final ResourceVisitor visitor) {
+    return visitDescendants(resource, visitor, TraversalOptions.unbounded());
+  }
+
+  /**
+   * Visits the descendants of a Resource depth-first, as {@link #visitDescendants(Resource,
+   * ResourceVisitor)} does, stopping once a traversal limit is reached. The maximum number of
+   * results is not used, since no Models are returned.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param visitor Called for each visited descendant.
+   * @param options Limits for the traversal.
+   *
+   * @return Whether every Resource the visitor asked for was visited, or false if the visitor
+   *         terminated the traversal or a limit was reached.
+   */
+  public static boolean visitDescendants(@Nonnull final Resource resource,
+          @Nonnull final ResourceVisitor visitor, @Nonnull final TraversalOptions options) {
+    return visitDescendants(resource, visitor, new TraversalBudget(options));
+  }
+
+  /**
+   * This method is functionally the same as {@link #visitDescendants(Resource, ResourceVisitor,
+   * TraversalOptions)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param visitor Called for each visited descendant.
+   * @param options Limits for the traversal.
+   *
+   * @return Whether every Resource the visitor asked for was visited, or false if the visitor
+   *         terminated the traversal or a limit was reached.
+   */
+  public static boolean visitDescendants(@Nonnull final BaseResource baseResource,
+          @Nonnull final ResourceVisitor visitor, @Nonnull final TraversalOptions options) {
+    return visitDescendants(baseResource.getResource(), visitor, options);
+  }
+
+  private static boolean visitDescendants(@Nonnull final Resource resource,
+          @Nonnull final ResourceVisitor visitor, @Nonnull final TraversalBudget budget) {
+    final Deque<Iterator<Resource>> unvisitedChildren = new ArrayDeque<>();
+    unvisitedChildren.push(resource.listChildren());
+    while (!unvisitedChildren.isEmpty()) {
+      final Iterator<Resource> children = unvisitedChildren.peek();
+      if (!children.hasNext()) {
+        unvisitedChildren.pop();
+        continue;
+      }
+      if (!budget.visit()) {
+        return false;
+      }
+      final Resource child = children.next();
+      final VisitResult result = visitor.visit(child);
+      if (result == VisitResult.TERMINATE) {
+        return false;
+      }
+      if (result == VisitResult.CONTINUE) {
+        final Iterator<Resource> grandchildren = child.listChildren();
+        if (grandchildren.hasNext() && budget.isWithinDepth(unvisitedChildren.size() + 1)) {
+          unvisitedChildren.push(grandchildren);
+        }
+      }
+    }
+    return !budget.isTruncated();
+  }
+
+  /**
+   * This method is functionally the same as {@link #visitDescendants(Resource, ResourceVisitor)}
+   * but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param visitor Called for each visited descendant.
+   *
+   * @return Whether every Resource the visitor asked for was visited, or false if the visitor
+   *         terminated the traversal.
+   */
+  public static boolean visitDescendants(@Nonnull final BaseResource baseResource,
+          @Nonnull final ResourceVisitor visitor) {
+    return visitDescendants(baseResource.getResource(), visitor);
+  }
+
+  /**
+   * Visits the descendants of a Resource depth-first, passing each descendant that can be adapted
+   * to the specified type to the visitor. The descendants of Resources that cannot be adapted are
+   * always visited.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param visitor Called for each visited descendant that can be adapted to the specified type.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether every Resource the visitor asked for was visited, or false if the visitor
+   *         terminated the traversal.
+   */
+  public static <T extends BaseResource> boolean visitDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final ModelVisitor<T> visitor) {
+    return visitDescendantsOfType(resource, type, visitor, descendant -> VisitResult.CONTINUE);
+  }
+
+  /**
+   * Visits the descendants of a Resource depth-first, passing each descendant that can be adapted
+   * to the specified type to the Model visitor, and every other descendant to the unmatched
+   * visitor. Both visitors can prune the traversal, so branches such as nt:folder Resources can be
+   * skipped even though they do not match the specified type.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param visitor Called for each visited descendant that can be adapted to the specified type.
+   * @param unmatchedVisitor Called for each visited descendant that cannot be adapted to the
+   *         specified type.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether every Resource the visitors asked for was visited, or false if a visitor
+   *         terminated the traversal.
+   */
+  public static <T extends BaseResource> boolean visitDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final ModelVisitor<T> visitor, @Nonnull final ResourceVisitor unmatchedVisitor) {
+    return visitDescendants(resource, descendant -> {
+      final Optional<T> model = tryAdaptTo(descendant, type);
+      if (model.isPresent()) {
+        return visitor.visit(model.get());
+      }
+      return unmatchedVisitor.visit(descendant);
+    });
+  }
+
+  /**
+   * This method is functionally the same as {@link #visitDescendantsOfType(Resource, Class,
+   * ModelVisitor)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param visitor Called for each visited descendant that can be adapted to the specified type.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether every Resource the visitor asked for was visited, or false if the visitor
+   *         terminated the traversal.
+   */
+  public static <T extends BaseResource> boolean visitDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final ModelVisitor<T> visitor) {
+    return visitDescendantsOfType(baseResource.getResource(), type, visitor);
+  }
+
+  /**
+   * This method is functionally the same as {@link #visitDescendantsOfType(Resource, Class,
+   * ModelVisitor, ResourceVisitor)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param visitor Called for each visited descendant that can be adapted to the specified type.
+   * @param unmatchedVisitor Called for each visited descendant that cannot be adapted to the
+   *         specified type.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether every Resource the visitors asked for was visited, or false if a visitor
+   *         terminated the traversal.
+   */
+  public static <T extends BaseResource> boolean visitDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final ModelVisitor<T> visitor, @Nonnull final ResourceVisitor unmatchedVisitor) {
+    return visitDescendantsOfType(baseResource.getResource(), type, visitor, unmatchedVisitor);
+  }
+
+  /**
+   * Visits the descendants of a Resource depth-first, as {@link #visitDescendantsOfType(Resource,
+   * Class, ModelVisitor)} does, stopping once a traversal limit is reached. Each Model passed to
+   * the visitor counts towards the maximum number of results.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param visitor Called for each visited descendant that can be adapted to the specified type.
+   * @param options Limits for the traversal.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether every Resource the visitor asked for was visited, or false if the visitor
+   *         terminated the traversal or a limit was reached.
+   */
+  public static <T extends BaseResource> boolean visitDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final ModelVisitor<T> visitor, @Nonnull final TraversalOptions options) {
+    final TraversalBudget budget = new TraversalBudget(options);
+    return visitDescendants(resource, descendant -> {
+      final Optional<T> model = tryAdaptTo(descendant, type);
+      if (!model.isPresent()) {
+        return VisitResult.CONTINUE;
+      }
+      if (!budget.addResult()) {
+        return VisitResult.TERMINATE;
+      }
+      return visitor.visit(model.get());
+    }, budget);
+  }
+
+  /**
+   * This method is functionally the same as {@link #visitDescendantsOfType(Resource, Class,
+   * ModelVisitor, TraversalOptions)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param visitor Called for each visited descendant that can be adapted to the specified type.
+   * @param options Limits for the traversal.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether every Resource the visitor asked for was visited, or false if the visitor
+   *         terminated the traversal or a limit was reached.
+   */
+  public static <T extends BaseResource> boolean visitDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final ModelVisitor<T> visitor, @Nonnull final TraversalOptions options) {
+    return visitDescendantsOfType(baseResource.getResource(), type, visitor, options);
+  }
+
+  /**
+   * Number of descendants that are valid for the specified type. Only resourceTypes are checked,
+   * so no Sling Model is instantiated. When the ResourceResolver supports queries, descendants are
+   * counted from a single query covering all of the Model's resourceTypes, otherwise the whole
+   * subtree is traversed.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to check the descendants against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to check the descendants against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Number of descendants that are valid for the specified type.
+   */
+  public static <T extends BaseResource> int countDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type) {
+    return countDescendantsOfType(resource, type, TraversalOptions.unbounded());
+  }
+
+  /**
+   * Number of descendants that are valid for the specified type, as {@link
+   * #countDescendantsOfType(Resource, Class)} counts them, counting only the descendants found
+   * before a traversal limit is reached. The count never exceeds the maximum number of results.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to check the descendants against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param options Limits for the traversal.
+   * @param <T> Class to check the descendants against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Number of descendants within the traversal limits that are valid for the specified
+   *         type.
+   */
+  public static <T extends BaseResource> int countDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalOptions options) {
+    final ModelMetadata metadata = ModelMetadataRegistry.getMetadata(type);
+    if (metadata.getResourceTypes().isEmpty()) {
+      return 0;
+    }
+    final TraversalBudget budget = new TraversalBudget(options);
+    int count = 0;
+    final Iterator<Resource> queryResults = findDescendantsByQuery(resource, metadata);
+    if (queryResults != null) {
+      while (queryResults.hasNext() && budget.visit()) {
+        final Resource descendant = queryResults.next();
+        if (budget.isWithinDepth(getDescendantDepth(resource, descendant))
+            && isValidResourceTypeOrJcrContent(descendant, type) && budget.addResult()) {
+          count++;
+        }
+      }
+      return count;
+    }
+    final AtomicInteger descendantCount = new AtomicInteger();
+    visitDescendants(resource, descendant -> {
+      if (isValidResourceTypeOrJcrContent(descendant, type) && budget.addResult()) {
+        descendantCount.incrementAndGet();
+      }
+      return VisitResult.CONTINUE;
+    }, budget);
+    return descendantCount.get();
+  }
+
+  /**
+   * This method is functionally the same as {@link #countDescendantsOfType(Resource, Class)} but
+   * accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to check the descendants against. Class must extend BaseResource and
+   *         have the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to check the descendants against. Class must extend BaseResource and
+   *         have the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Number of descendants that are valid for the specified type.
+   */
+  public static <T extends BaseResource> int countDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return countDescendantsOfType(baseResource.getResource(), type);
+  }
+
+  /**
+   * This method is functionally the same as {@link #countDescendantsOfType(Resource, Class,
+   * TraversalOptions)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to check the descendants against. Class must extend BaseResource and
+   *         have the {@link Model} annotation, with the resourceType value set.
+   * @param options Limits for the traversal.
+   * @param <T> Class to check the descendants against. Class must extend BaseResource and
+   *         have the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Number of descendants within the traversal limits that are valid for the specified
+   *         type.
+   */
+  public static <T extends BaseResource> int countDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final TraversalOptions options) {
+    return countDescendantsOfType(baseResource.getResource(), type, options);
+  }
+
+  /**
+   * Whether any descendant is valid for the specified type. Stops at the first valid descendant,
+   * and only checks resourceTypes, so no Sling Model is instantiated. When the ResourceResolver
+   * supports queries, only the first matching query result is read.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to check the descendants against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to check the descendants against. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether any descendant is valid for the specified type.
+   */
+  public static <T extends BaseResource> boolean hasDescendantOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type) {
+    final ModelMetadata metadata = ModelMetadataRegistry.getMetadata(type);
+    if (metadata.getResourceTypes().isEmpty()) {
+      return false;
+    }
+    final Iterator<Resource> queryResults = findDescendantsByQuery(resource, metadata);
+    if (queryResults != null) {
+      while (queryResults.hasNext()) {
+        if (isValidResourceTypeOrJcrContent(queryResults.next(), type)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return !visitDescendants(resource, descendant -> {
+      if (isValidResourceTypeOrJcrContent(descendant, type)) {
+        return VisitResult.TERMINATE;
+      }
+      return VisitResult.CONTINUE;
+    });
+  }
+
+  /**
+   * This method is functionally the same as {@link #hasDescendantOfType(Resource, Class)} but
+   * accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to check the descendants against. Class must extend BaseResource and
+   *         have the {@link Model} annotation, with the resourceType value set.
+   * @param <T> Class to check the descendants against. Class must extend BaseResource and
+   *         have the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Whether any descendant is valid for the specified type.
+   */
+  public static <T extends BaseResource> boolean hasDescendantOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
+    return hasDescendantOfType(baseResource.getResource(), type);
+  }
+
+  /**
+   * Runs the descendant query for a Model's resourceTypes.
+   *
+   * @return Query results, or null if the Model matches all resourceTypes or the ResourceResolver
+   *         does not support queries.
+   */
+  @Nullable
+  private static Iterator<Resource> findDescendantsByQuery(@Nonnull final Resource resource,
+          @Nonnull final ModelMetadata metadata) {
+    if (metadata.isMatchesAllResourceTypes()) {
+      return null;
+    }
+    try {
+      return resource.getResourceResolver().findResources(
+              getDescendantQuery(resource, metadata.getResourceTypes()), "xpath");
+    } catch (final UnsupportedOperationException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * The first descendants that can be adapted to the specified type, in the order of the passed
+   * Comparator. Only the best {@code limit} Models are held while the subtree is traversed, so
+   * memory use depends on the limit rather than the size of the subtree. Models that compare as
+   * equal are returned in traversal order.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param comparator Order to return the Models in.
+   * @param limit Maximum number of Models to return.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Up to {@code limit} descendants, adapted to the specified type and sorted by the
+   *         Comparator.
+   */
+  @Nonnull
+  public static <T extends BaseResource> List<T> getTopDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final Comparator<? super T> comparator, final int limit) {
+    return SlingModelUtils.<T, T>getTopModels(iterateAllDescendantsOfType(resource, type),
+                                              model -> model, comparator, limit);
+  }
+
+  /**
+   * This method is functionally the same as {@link #getTopDescendantsOfType(Resource, Class,
+   * Comparator, int)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param comparator Order to return the Models in.
+   * @param limit Maximum number of Models to return.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Up to {@code limit} descendants, adapted to the specified type and sorted by the
+   *         Comparator.
+   */
+  @Nonnull
+  public static <T extends BaseResource> List<T> getTopDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final Comparator<? super T> comparator, final int limit) {
+    return getTopDescendantsOfType(baseResource.getResource(), type, comparator, limit);
+  }
+
+  /**
+   * The descendants that can be adapted to the specified type with the highest values for a
+   * property, such as the most recently modified descendants for jcr:lastModified. Descendants
+   * without the property are returned last. When the ResourceResolver supports queries, the
+   * query is ordered by the property and only read until enough Models are found. The query
+   * matches the Model's resourceTypes and the resourceTypes that extend them, so it finds the same
+   * descendants as a traversal. Otherwise only the best {@code limit} Models are held while the
+   * subtree is traversed, and each descendant's property value is read once.
+   *
+   * @param resource Resource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   * @param propertyName Property to order the descendants by, highest value first.
+   * @param limit Maximum number of Models to return.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have the
+   *         {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Up to {@code limit} descendants, adapted to the specified type, with the highest
+   *         values for the property first.
+   */
+  @Nonnull
+  public static <T extends BaseResource> List<T> getTopDescendantsOfType(
+          @Nonnull final Resource resource, @Nonnull final Class<T> type,
+          @Nonnull final String propertyName, final int limit) {
+    final ModelMetadata metadata = ModelMetadataRegistry.getMetadata(type);
+    if (limit <= 0 || metadata.getResourceTypes().isEmpty()) {
+      return new ArrayList<>();
+    }
+    if (!metadata.isMatchesAllResourceTypes()) {
+      final Set<String> resourceTypes = new LinkedHashSet<>(metadata.getResourceTypes());
+      resourceTypes.addAll(
+              ResourceTypeHierarchy.getSubtypes(resourceTypes, resource.getResourceResolver()));
+      try {
+        final Iterator<Resource> queryResults = resource.getResourceResolver().findResources(
+                getDescendantQuery(resource, resourceTypes) + String.format(
+                        " order by @%s descending", ISO9075.encode(propertyName)), "xpath");
+        final List<T> models = new ArrayList<>();
+        while (queryResults.hasNext() && models.size() < limit) {
+          tryAdaptTo(queryResults.next(), type).ifPresent(models::add);
+        }
+        return models;
+      } catch (final UnsupportedOperationException exception) {
+        LOG.trace("Queries are not supported, traversing {} to find top descendants.",
+                  resource.getPath().replaceAll("[\r\n]", ""));
+      }
+    }
+    final Iterator<T> descendants = new DescendantIterator<>(resource,
+                                                             descendant -> tryAdaptTo(descendant,
+                                                                                      type));
+    return getTopModels(descendants, model -> model.getResource().getValueMap().get(propertyName),
+                        SlingModelUtils::comparePropertyValues, limit);
+  }
+
+  /**
+   * This method is functionally the same as {@link #getTopDescendantsOfType(Resource, Class,
+   * String, int)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource BaseResource to originate JCR traversal from.
+   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   * @param propertyName Property to order the descendants by, highest value first.
+   * @param limit Maximum number of Models to return.
+   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
+   *         the {@link Model} annotation, with the resourceType value set.
+   *
+   * @return Up to {@code limit} descendants, adapted to the specified type, with the highest
+   *         values for the property first.
+   */
+  @Nonnull
+  public static <T extends BaseResource> List<T> getTopDescendantsOfType(
+          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type,
+          @Nonnull final String propertyName, final int limit) {
+    return getTopDescendantsOfType(baseResource.getResource(), type, propertyName, limit);
+  }
+
+  /**
+   * Keeps the first {@code limit} Models in Comparator order in a bounded heap, breaking ties by
+   * iteration order. Each Model's sort key is extracted once, before it is added to the heap.
+   */
+  @Nonnull
+  private static <T extends BaseResource, K> List<T> getTopModels(
+          @Nonnull final Iterator<T> models, @Nonnull final Function<T, K> sortKey,
+          @Nonnull final Comparator<? super K> comparator, final int limit) {
+    if (limit <= 0) {
+      return new ArrayList<>();
+    }
+    final Comparator<RankedModel<T, K>> rankedComparator = (first, second) -> {
+      final int comparison = comparator.compare(first.key, second.key);
+      if (comparison != 0) {
+        return comparison;
       }
-      for (final BaseResource child : getChildrenOfType(resource, BaseResource.class)) {
-        adaptedDescendants.addAll(getAllDescendantsOfType(child.getResource(), type));
+      return Long.compare(first.index, second.index);
+    };
+    final PriorityQueue<RankedModel<T, K>> heap = new PriorityQueue<>(
+            rankedComparator.reversed());
+    long index = 0;
+    while (models.hasNext()) {
+      final T model = models.next();
+      heap.add(new RankedModel<>(model, sortKey.apply(model), index++));
+      if (heap.size() > limit) {
+        heap.poll();
       }
     }
-
-    return adaptedDescendants;
+    final List<RankedModel<T, K>> rankedModels = new ArrayList<>(heap);
+    rankedModels.sort(rankedComparator);
+    final List<T> topModels = new ArrayList<>();
+    for (final RankedModel<T, K> rankedModel : rankedModels) {
+      topModels.add(rankedModel.model);
+    }
+    return topModels;
   }
 
   /**
-   * This method is functionally the same as {@link #getAllDescendantsOfType(Resource, Class)} but
-   * accepts {@link BaseResource} instead of {@link Resource}.
-   *
-   * @param baseResource BaseResource to originate JCR traversal from.
-   * @param type Class to adapt the descendants to. Class must extend BaseResource and have
-   *         the {@link Model} annotation, with the resourceType value set.
-   * @param <T> Class to adapt the descendants to. Class must extend BaseResource and have
-   *         the {@link Model} annotation, with the resourceType value set.
-   *
-   * @return List of all descendant Resources that can be adapted to the specified type, as the
-   *         specified type.
+   * Orders property values highest first, with missing values last. Values of different types are
+   * compared as Strings.
    */
-  @Nonnull
-  public static <T extends BaseResource> List<T> getAllDescendantsOfType(
-          @Nonnull final BaseResource baseResource, @Nonnull final Class<T> type) {
-    return getAllDescendantsOfType(baseResource.getResource(), type);
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int comparePropertyValues(@Nullable final Object firstValue,
+          @Nullable final Object secondValue) {
+    if (firstValue == null || secondValue == null) {
+      return Boolean.compare(firstValue == null, secondValue == null);
+    }
+    if (firstValue instanceof Comparable && firstValue.getClass().isInstance(secondValue)) {
+      return ((Comparable) secondValue).compareTo(firstValue);
+    }
+    return String.valueOf(secondValue).compareTo(String.valueOf(firstValue));
   }
 
   /**
@@ -833,34 +2454,13 @@ public final class SlingModelUtils {
    * @throws MatchingResourceTypeNotFoundException Thrown when the passed Resource cannot be
    *         dynamically adapted to a Model type.
    */
-  @SuppressWarnings("unchecked")
   @Nonnull
   public static <T extends BaseResource> T getResourceAsClosestType(
           @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory)
           throws MatchingResourceTypeNotFoundException {
-    Object model = null;
-    try {
-      model = modelFactory.getModelFromResource(resource);
-
-    } catch (final Exception exception) {
-      LOG.debug("Unable to retrieve adapted model for resource {}.",
-                resource.getPath().replaceAll("[\r\n]", ""));
-    }
-    if (model instanceof BaseResource) {
-      try {
-        final BaseResource contentResource = getChildAsBaseResource(JCR_CONTENT, resource);
-        if (modelFactory.isModelAvailableForResource(contentResource.getResource())) {
-          final T contentResourceModel = (T) modelFactory.getModelFromResource(
-                  contentResource.getResource());
-          model = adaptTo(contentResourceModel, contentResourceModel.getClass());
-        }
-      } catch (final InvalidResourceTypeException | ChildResourceNotFoundException exception) {
-        if (resource.getPath().endsWith(JCR_CONTENT)) {
-          throw new MatchingResourceTypeNotFoundException(resource.getPath(), exception);
-        }
-      }
-
-      return (T) model;
+    final Optional<T> model = findResourceAsClosestType(resource, modelFactory);
+    if (model.isPresent()) {
+      return model.get();
     }
     throw new MatchingResourceTypeNotFoundException(resource.getPath());
   }
@@ -902,9 +2502,10 @@ public final class SlingModelUtils {
     final List<T> children = new ArrayList<>();
 
     for (final BaseResource child : getChildrenOfType(resource, BaseResource.class)) {
-      try {
-        children.add(getResourceAsClosestType(child.getResource(), modelFactory));
-      } catch (final InvalidResourceTypeException exception) {
+      final Optional<T> childModel = findResourceAsClosestType(child.getResource(), modelFactory);
+      if (childModel.isPresent()) {
+        children.add(childModel.get());
+      } else {
         LOG.debug("Unable to retrieve adapted model for resource {} while retrieving "
                           + "children for {}, this resource will not be included.",
                   child.getName().replaceAll("[\r\n]", ""),
@@ -945,14 +2546,7 @@ public final class SlingModelUtils {
   @Nonnull
   public static <T extends BaseResource> List<T> getAllDescendantsAsClosestType(
           @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory) {
-
-    final List<T> descendants = getChildrenAsClosestTypes(resource, modelFactory);
-
-    for (final BaseResource child : getChildrenOfType(resource, BaseResource.class)) {
-      descendants.addAll(getAllDescendantsAsClosestType(child.getResource(), modelFactory));
-    }
-
-    return descendants;
+    return toList(iterateAllDescendantsAsClosestType(resource, modelFactory));
   }
 
   /**
@@ -972,39 +2566,448 @@ public final class SlingModelUtils {
     return getAllDescendantsAsClosestType(baseResource.getResource(), modelFactory);
   }
 
+  /**
+   * Lazily iterates all descendant Resources as their closest matching Sling Model, in the same
+   * order as {@link #getAllDescendantsAsClosestType(Resource, ModelFactory)}.
+   *
+   * @param resource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Iterator of all descendant resources, as their closest matching Sling Model.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Iterator<T> iterateAllDescendantsAsClosestType(
+          @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory) {
+    return new DescendantIterator<>(resource,
+                                    descendant -> tryGetResourceAsClosestType(descendant,
+                                                                              modelFactory));
+  }
 
-  private static boolean isValidResourceTypeBasedOnSuperTypes(@Nonnull final Resource resource,
-          @Nonnull final List<String> validResourceTypes) {
+  /**
+   * This method is functionally the same as {@link #iterateAllDescendantsAsClosestType(Resource,
+   * ModelFactory)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Iterator of all descendant resources, as their closest matching Sling Model.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Iterator<T> iterateAllDescendantsAsClosestType(
+          @Nonnull final BaseResource baseResource, @Nonnull final ModelFactory modelFactory) {
+    return iterateAllDescendantsAsClosestType(baseResource.getResource(), modelFactory);
+  }
 
-    final Resource resourceTypeResource = resource.getResourceResolver().getResource(
-            resource.getResourceType());
+  /**
+   * Writes a Resource and its descendants as nested JSON objects, adapting each Resource to its
+   * closest matching Sling Model and writing it as soon as it is adapted.  Each object holds the
+   * Model's {@link io.kestros.commons.structuredslingmodels.annotation.KestrosProperty} values (see
+   * {@link ModelJsonUtils#writeModel(BaseResource, JsonGenerator)}) and a
+   * {@value #JSON_CHILDREN_FIELD} array of its children.  Children that cannot be adapted are left
+   * out, along with their descendants.  Models are not retained once written, so memory use does
+   * not grow with the size of the subtree.
+   *
+   * @param resource Resource to export.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param generator Generator to write to.
+   *
+   * @throws IOException Generator failed to write.
+   * @throws MatchingResourceTypeNotFoundException Thrown when the passed Resource cannot be
+   *         dynamically adapted to a Model type.
+   */
+  public static void writeSubtreeAsJson(@Nonnull final Resource resource,
+          @Nonnull final ModelFactory modelFactory, @Nonnull final JsonGenerator generator)
+          throws IOException, MatchingResourceTypeNotFoundException {
+    writeModelStart(getResourceAsClosestType(resource, modelFactory), generator);
+    final Deque<Iterator<Resource>> unwrittenChildren = new ArrayDeque<>();
+    unwrittenChildren.push(resource.listChildren());
+    while (!unwrittenChildren.isEmpty()) {
+      final Iterator<Resource> children = unwrittenChildren.peek();
+      if (!children.hasNext()) {
+        unwrittenChildren.pop();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        continue;
+      }
+      final Resource child = children.next();
+      final Optional<BaseResource> childModel = tryGetResourceAsClosestType(child, modelFactory);
+      if (childModel.isPresent()) {
+        writeModelStart(childModel.get(), generator);
+        unwrittenChildren.push(child.listChildren());
+      }
+    }
+  }
 
-    if (resourceTypeResource != null) {
-      BaseResource currentResourceTypeResource = adaptToBaseResource(resourceTypeResource);
+  /**
+   * This method is functionally the same as {@link #writeSubtreeAsJson(Resource, ModelFactory,
+   * JsonGenerator)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to export.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param generator Generator to write to.
+   *
+   * @throws IOException Generator failed to write.
+   * @throws MatchingResourceTypeNotFoundException Thrown when the passed Resource cannot be
+   *         dynamically adapted to a Model type.
+   */
+  public static void writeSubtreeAsJson(@Nonnull final BaseResource baseResource,
+          @Nonnull final ModelFactory modelFactory, @Nonnull final JsonGenerator generator)
+          throws IOException, MatchingResourceTypeNotFoundException {
+    writeSubtreeAsJson(baseResource.getResource(), modelFactory, generator);
+  }
 
-      while (currentResourceTypeResource != null) {
+  /**
+   * Lazily streams all descendant Resources as their closest matching Sling Model, in the same
+   * order as {@link #getAllDescendantsAsClosestType(Resource, ModelFactory)}.
+   *
+   * @param resource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Stream of all descendant resources, as their closest matching Sling Model.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsAsClosestType(
+          @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory) {
+    return toStream(iterateAllDescendantsAsClosestType(resource, modelFactory));
+  }
 
-        if (validResourceTypes.contains(getResourceTypePath(currentResourceTypeResource))
-                || validResourceTypes.contains(
-                currentResourceTypeResource.getResourceSuperType())) {
-          return true;
-        }
+  /**
+   * This method is functionally the same as {@link #streamAllDescendantsAsClosestType(Resource,
+   * ModelFactory)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Stream of all descendant resources, as their closest matching Sling Model.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsAsClosestType(
+          @Nonnull final BaseResource baseResource, @Nonnull final ModelFactory modelFactory) {
+    return streamAllDescendantsAsClosestType(baseResource.getResource(), modelFactory);
+  }
 
-        try {
-          currentResourceTypeResource = getResourceAsType(
-                  currentResourceTypeResource.getResourceSuperType(),
-                  resource.getResourceResolver(),
-                  BaseResource.class);
-        } catch (final ModelAdaptionException exception) {
-          LOG.debug("Resource {} not found while checking if it is a valid resourceType based on "
-                            + "superTypes. Returning false.",
-                    resource.getPath().replaceAll("[\r\n]", ""));
-          currentResourceTypeResource = null;
+  /**
+   * Lazily streams the descendant Resources as their closest matching Sling Model, in the same
+   * order as {@link #getAllDescendantsAsClosestType(Resource, ModelFactory, TraversalOptions)}.
+   * The stream ends once a traversal limit is reached.
+   *
+   * @param resource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param options Limits for the traversal.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Stream of the descendant resources within the traversal limits, as their closest
+   *         matching Sling Model.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsAsClosestType(
+          @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory,
+          @Nonnull final TraversalOptions options) {
+    final Function<Resource, Optional<T>> adapter = descendant -> tryGetResourceAsClosestType(
+            descendant, modelFactory);
+    return toStream(new DescendantIterator<>(resource, adapter, null, new TraversalBudget(options),
+                                             0));
+  }
+
+  /**
+   * This method is functionally the same as {@link #streamAllDescendantsAsClosestType(Resource,
+   * ModelFactory, TraversalOptions)} but accepts {@link BaseResource} instead of {@link
+   * Resource}.
+   *
+   * @param baseResource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param options Limits for the traversal.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Stream of the descendant resources within the traversal limits, as their closest
+   *         matching Sling Model.
+   */
+  @Nonnull
+  public static <T extends BaseResource> Stream<T> streamAllDescendantsAsClosestType(
+          @Nonnull final BaseResource baseResource, @Nonnull final ModelFactory modelFactory,
+          @Nonnull final TraversalOptions options) {
+    return streamAllDescendantsAsClosestType(baseResource.getResource(), modelFactory, options);
+  }
+
+  /**
+   * Traverses the descendant resources (using the passed Resource as the origin) on a
+   * ForkJoinPool, and returns them as their closest matching Sling Model. Each worker thread uses
+   * its own clone of the Resource's ResourceResolver, and the Models are returned in the same
+   * order as {@link #getAllDescendantsAsClosestType(Resource, ModelFactory)}. If the
+   * ResourceResolver cannot be cloned, the subtree is traversed on the calling thread.
+   *
+   * @param resource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param pool ForkJoinPool to run the traversal on.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return All descendant resources, as their closest matching Sling Model. Must be closed once
+   *         the Models are no longer needed, to release the cloned ResourceResolvers.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsAsClosestType(
+          @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory,
+          @Nonnull final ForkJoinPool pool) {
+    return getAllDescendantsAsClosestType(resource, modelFactory, pool,
+                                          TraversalOptions.unbounded());
+  }
+
+  /**
+   * This method is functionally the same as {@link #getAllDescendantsAsClosestType(Resource,
+   * ModelFactory, ForkJoinPool)} but accepts {@link BaseResource} instead of {@link Resource}.
+   *
+   * @param baseResource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param pool ForkJoinPool to run the traversal on.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return All descendant resources, as their closest matching Sling Model. Must be closed once
+   *         the Models are no longer needed, to release the cloned ResourceResolvers.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsAsClosestType(
+          @Nonnull final BaseResource baseResource, @Nonnull final ModelFactory modelFactory,
+          @Nonnull final ForkJoinPool pool) {
+    return getAllDescendantsAsClosestType(baseResource.getResource(), modelFactory, pool);
+  }
+
+  /**
+   * This method is functionally the same as {@link #getAllDescendantsAsClosestType(Resource,
+   * ModelFactory, ForkJoinPool)}, but stops once a traversal limit is reached. Limits are shared by
+   * all worker threads.
+   *
+   * @param resource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param pool ForkJoinPool to run the traversal on.
+   * @param options Limits for the traversal.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Descendant resources, as their closest matching Sling Model, flagged as truncated if
+   *         a limit was reached. Must be closed once the Models are no longer needed, to release
+   *         the cloned ResourceResolvers.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsAsClosestType(
+          @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory,
+          @Nonnull final ForkJoinPool pool, @Nonnull final TraversalOptions options) {
+    return getAllDescendantsInParallel(resource,
+                                       descendant -> tryGetResourceAsClosestType(descendant,
+                                                                                 modelFactory),
+                                       pool, options);
+  }
+
+  /**
+   * Traverses the descendant resources (using the passed Resource as the origin) and returns them
+   * as their closest matching Sling Model, stopping once a traversal limit is reached.
+   *
+   * @param resource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param options Limits for the traversal.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Descendant resources, as their closest matching Sling Model, flagged as truncated if
+   *         a limit was reached.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsAsClosestType(
+          @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory,
+          @Nonnull final TraversalOptions options) {
+    return getAllDescendants(new DescendantIterator<>(resource,
+                                                      descendant -> tryGetResourceAsClosestType(
+                                                              descendant, modelFactory), null,
+                                                      new TraversalBudget(options), 0));
+  }
+
+  /**
+   * This method is functionally the same as {@link #getAllDescendantsAsClosestType(Resource,
+   * ModelFactory, TraversalOptions)} but accepts {@link BaseResource} instead of {@link
+   * Resource}.
+   *
+   * @param baseResource Resource to retrieve descendants from.
+   * @param modelFactory modelFactory used to match model types to the Resource's resourceType.
+   * @param options Limits for the traversal.
+   * @param <T> Generic class that extends BaseResource.
+   *
+   * @return Descendant resources, as their closest matching Sling Model, flagged as truncated if
+   *         a limit was reached.
+   */
+  @Nonnull
+  public static <T extends BaseResource> TraversalResults<T> getAllDescendantsAsClosestType(
+          @Nonnull final BaseResource baseResource, @Nonnull final ModelFactory modelFactory,
+          @Nonnull final TraversalOptions options) {
+    return getAllDescendantsAsClosestType(baseResource.getResource(), modelFactory, options);
+  }
+
+  @Nonnull
+  private static <T extends BaseResource> TraversalResults<T> getAllDescendantsInParallel(
+          @Nonnull final Resource resource, @Nonnull final Function<Resource, Optional<T>> adapter,
+          @Nonnull final ForkJoinPool pool, @Nonnull final TraversalOptions options) {
+    final ResourceResolver clone;
+    try {
+      clone = resource.getResourceResolver().clone(null);
+    } catch (final LoginException | UnsupportedOperationException exception) {
+      LOG.warn("Unable to clone ResourceResolver for parallel traversal of {}, traversing "
+               + "sequentially. {}", resource.getPath().replaceAll("[\r\n]", ""),
+               exception.getMessage());
+      return getAllDescendants(new DescendantIterator<>(resource, adapter, null,
+                                                        new TraversalBudget(options), 0));
+    }
+    final ParallelDescendantTask.WorkerResourceResolvers resolvers
+            = new ParallelDescendantTask.WorkerResourceResolvers(resource.getResourceResolver(),
+                                                                 clone);
+    final TraversalBudget budget = new TraversalBudget(options);
+    try {
+      final List<T> models = pool.invoke(
+              new ParallelDescendantTask<>(resource.getPath(), 0, adapter, resolvers, budget));
+      return new TraversalResults<>(models, resolvers.getAll(), budget.isTruncated());
+    } catch (final RuntimeException exception) {
+      resolvers.close();
+      throw exception;
+    }
+  }
+
+  @Nonnull
+  private static <T extends BaseResource> TraversalResults<T> getAllDescendants(
+          @Nonnull final DescendantIterator<T> iterator) {
+    return new TraversalResults<>(toList(iterator), Collections.emptyList(),
+                                  iterator.isTruncated());
+  }
+
+  /**
+   * Starts the JSON object for a Model, writing its properties and opening its children array.
+   */
+  private static void writeModelStart(@Nonnull final BaseResource model,
+          @Nonnull final JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    ModelJsonUtils.writeModelFields(model, generator);
+    generator.writeArrayFieldStart(JSON_CHILDREN_FIELD);
+  }
+
+  @Nonnull
+  private static <T extends BaseResource> Optional<T> tryGetResourceAsClosestType(
+          @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory) {
+    final Optional<T> model = findResourceAsClosestType(resource, modelFactory);
+    if (!model.isPresent()) {
+      LOG.debug("Unable to retrieve adapted model for resource {}, this resource will not be "
+                + "included.", resource.getPath().replaceAll("[\r\n]", ""));
+    }
+    return model;
+  }
+
+  /**
+   * Adapts a Resource to its closest matching Sling Model type that extends BaseResource, without
+   * building Exceptions when it cannot be adapted. The jcr:content child is looked up directly and
+   * checked with {@link ModelFactory#isModelAvailableForResource(Resource)}, and is adapted once if
+   * a Model is available. When the jcr:content Model matches its resourceTypes it is returned, and
+   * the Resource itself is not adapted. Otherwise the Resource is adapted once. Used by {@link
+   * #getResourceAsClosestType(Resource, ModelFactory)}, and by list and traversal methods where many
+   * Resources may not match.
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  private static <T extends BaseResource> Optional<T> findResourceAsClosestType(
+          @Nonnull final Resource resource, @Nonnull final ModelFactory modelFactory) {
+    final Resource contentResource = getChild(resource, JCR_CONTENT);
+    if (contentResource != null) {
+      if (modelFactory.isModelAvailableForResource(contentResource)) {
+        final Object contentResourceModel = getModelFromResource(contentResource, modelFactory);
+        if (contentResourceModel instanceof BaseResource && isValidResourceTypeOrJcrContent(
+                ((BaseResource) contentResourceModel).getResource(),
+                (Class<T>) contentResourceModel.getClass())) {
+          return Optional.of((T) contentResourceModel);
+        }
+        if (resource.getPath().endsWith(JCR_CONTENT)) {
+          return Optional.empty();
         }
       }
+    } else if (resource.getPath().endsWith(JCR_CONTENT)) {
+      return Optional.empty();
+    }
+    final Object model = getModelFromResource(resource, modelFactory);
+    if (model instanceof BaseResource) {
+      return Optional.of((T) model);
     }
+    return Optional.empty();
+  }
 
-    return false;
+  /**
+   * Model the ModelFactory adapts a Resource to, or null if it cannot be adapted.
+   */
+  @Nullable
+  private static Object getModelFromResource(@Nonnull final Resource resource,
+          @Nonnull final ModelFactory modelFactory) {
+    try {
+      return modelFactory.getModelFromResource(resource);
+    } catch (final Exception exception) {
+      LOG.debug("Unable to retrieve adapted model for resource {}.",
+                resource.getPath().replaceAll("[\r\n]", ""));
+    }
+    return null;
+  }
+
+  /**
+   * XPath query for descendants of a Resource that match any of the specified resourceTypes.
+   * resourceTypes containing ':' are matched against jcr:primaryType, all others against
+   * sling:resourceType.
+   *
+   * @param resource Resource to find descendants of.
+   * @param resourceTypes resourceTypes to match.
+   *
+   * @return XPath query for descendants of a Resource that match any of the resourceTypes.
+   */
+  @Nonnull
+  static String getDescendantQuery(@Nonnull final Resource resource,
+          @Nonnull final Collection<String> resourceTypes) {
+    final List<String> constraints = new ArrayList<>();
+    for (final String resourceType : resourceTypes) {
+      if (resourceType.contains(":")) {
+        constraints.add(getPropertyConstraint(JCR_PRIMARYTYPE, resourceType));
+      } else {
+        constraints.add(getPropertyConstraint(SLING_RESOURCE_TYPE, resourceType));
+      }
+    }
+    return String.format("%s//*[%s]", ISO9075.encodePath("/jcr:root" + resource.getPath()),
+                         String.join(" or ", constraints));
+  }
+
+  /**
+   * XPath property equality constraint, with the value's single quotes escaped.
+   *
+   * @param property Property name.
+   * @param value Value the property must equal.
+   *
+   * @return XPath property equality constraint.
+   */
+  @Nonnull
+  static String getPropertyConstraint(@Nonnull final String property,
+          @Nonnull final String value) {
+    return String.format("@%s='%s'", property, value.replace("'", "''"));
+  }
+
+  @Nonnull
+  private static <T> List<T> toList(@Nonnull final Iterator<T> iterator) {
+    final List<T> list = new ArrayList<>();
+    iterator.forEachRemaining(list::add);
+    return list;
+  }
+
+  @Nonnull
+  private static <T> Stream<T> toStream(@Nonnull final Iterator<T> iterator) {
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false);
+  }
+
+
+  private static boolean isValidResourceTypeBasedOnSuperTypes(@Nonnull final Resource resource,
+          @Nonnull final Collection<String> validResourceTypes) {
+    return ResourceTypeHierarchy.isResourceTypeOrSubtypeOf(resource.getResourceType(),
+                                                           validResourceTypes,
+                                                           resource.getResourceResolver());
   }
 
   /**
@@ -1017,9 +3020,7 @@ public final class SlingModelUtils {
   @Nonnull
   static List<String> getResourceTypesForSlingModel(
           @Nonnull final Class<? extends BaseSlingModel> type) {
-    final List<String> resourceTypes = new ArrayList<>();
-    resourceTypes.addAll(Arrays.asList(type.getAnnotation(Model.class).resourceType()));
-    return resourceTypes;
+    return new ArrayList<>(ModelMetadataRegistry.getMetadata(type).getResourceTypes());
   }
 
   /**
@@ -1035,26 +3036,50 @@ public final class SlingModelUtils {
    * @return Whether the passed BaseResource is valid, based on the `resourceType` value of the
    *         type's {@link Model} annotation.
    */
-  static <T extends BaseSlingModel> boolean isValidResourceType(@Nonnull Resource resource,
+  static <T extends BaseSlingModel> boolean isValidResourceType(@Nonnull final Resource resource,
           @Nonnull final Class<T> type) {
-    final List<String> validResourceTypes = Arrays.asList(
-            type.getAnnotation(Model.class).resourceType());
+    final ModelMetadata metadata = ModelMetadataRegistry.getMetadata(type);
+    if (metadata.isMatchesAllResourceTypes()) {
+      return true;
+    }
+    final ResourceResolver resolver = resource.getResourceResolver();
+    if (!SlingModelCacheUtils.isCachingEnabled() || resolver == null || isAppsFolder(resource)) {
+      return isValidResourceTypeUncached(resource, metadata.getResourceTypes());
+    }
+    final String resourceType = resource.getResourceType();
+    final String primaryType = resource.getValueMap().get(JCR_PRIMARYTYPE, StringUtils.EMPTY);
 
-    if (resource.getPath().startsWith(PREFIX_APPS) && JcrConstants.NT_FOLDER.equals(
-            resource.getResourceType())) {
-      final String libsResourcePath = resource.getPath().replaceFirst(PREFIX_APPS, PREFIX_LIBS);
-      try {
-        resource = getResourceAsBaseResource(libsResourcePath,
-                                             resource.getResourceResolver()).getResource();
-      } catch (final ResourceNotFoundException e) {
+    final Boolean cachedValidity = ResourceTypeValidityCache.get(resolver, resourceType,
+                                                                 primaryType, type);
+    if (cachedValidity != null) {
+      return cachedValidity;
+    }
+    final boolean valid = isValidResourceTypeUncached(resource, metadata.getResourceTypes());
+    ResourceTypeValidityCache.put(resolver, resourceType, primaryType, type, valid);
+    return valid;
+  }
+
+  /**
+   * Whether the Resource is an nt:folder under /apps. Validity for these Resources depends on their
+   * path (the matching /libs Resource is checked instead), so decisions are not cached.
+   */
+  private static boolean isAppsFolder(@Nonnull final Resource resource) {
+    return resource.getPath().startsWith(PREFIX_APPS) && JcrConstants.NT_FOLDER.equals(
+            resource.getResourceType());
+  }
+
+  private static boolean isValidResourceTypeUncached(@Nonnull Resource resource,
+          @Nonnull final Set<String> validResourceTypes) {
+    if (isAppsFolder(resource)) {
+      final Resource overlaidResource = OverlayResolver.getOverlaidResource(
+              resource.getPath(), resource.getResourceResolver());
+      if (overlaidResource != null) {
+        resource = overlaidResource;
+      } else {
         LOG.trace("Attempted to retrieve /libs resource matching {}, but none could be found.",
                   resource.getPath().replaceAll("[\r\n]", ""));
       }
     }
-    if (validResourceTypes.contains("sling/servlet/default")) {
-      return true;
-    }
-
     if (validResourceTypes.contains(resource.getResourceType())) {
       return true;
     }
@@ -1068,14 +3093,31 @@ public final class SlingModelUtils {
 
   @Nonnull
   static String getResourceTypePath(@Nonnull final BaseResource resourceTypeResource) {
-    String resourceType = resourceTypeResource.getPath();
-    if (resourceType.startsWith(PREFIX_APPS)) {
-      resourceType = resourceType.split(PREFIX_APPS)[1];
+    return getResourceTypePath(resourceTypeResource.getPath());
+  }
+
+  @Nonnull
+  static String getResourceTypePath(@Nonnull final String resourceTypeResourcePath) {
+    if (resourceTypeResourcePath.startsWith(PREFIX_APPS)) {
+      return resourceTypeResourcePath.substring(PREFIX_APPS.length());
+    }
+    if (resourceTypeResourcePath.startsWith(PREFIX_LIBS)) {
+      return resourceTypeResourcePath.substring(PREFIX_LIBS.length());
     }
-    if (resourceType.startsWith(PREFIX_LIBS)) {
-      resourceType = resourceType.split(PREFIX_LIBS)[1];
+    return resourceTypeResourcePath;
+  }
+
+  private static final class RankedModel<T, K> {
+
+    private final T model;
+    private final K key;
+    private final long index;
+
+    private RankedModel(@Nonnull final T model, @Nullable final K key, final long index) {
+      this.model = model;
+      this.key = key;
+      this.index = index;
     }
-    return resourceType;
   }
 
 }
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+/**
+ * Tracks a single traversal against its {@link TraversalOptions}, and remembers whether any limit
+ * cut the traversal short. Thread-safe, so parallel traversal tasks can share a budget.
+ */
+final class TraversalBudget {
+
+  private final TraversalOptions options;
+  private final long deadline;
+  private final AtomicInteger visitedNodes = new AtomicInteger();
+  private final AtomicInteger results = new AtomicInteger();
+  private volatile boolean stopped;
+  private volatile boolean truncated;
+
+  /**
+   * Starts tracking a traversal. The timeout, if any, is measured from now.
+   *
+   * @param options Limits for the traversal.
+   */
+  TraversalBudget(@Nonnull final TraversalOptions options) {
+    this.options = options;
+    if (options.getTimeout() != null) {
+      this.deadline = System.nanoTime() + options.getTimeout().toNanos();
+    } else {
+      this.deadline = 0;
+    }
+  }
+
+  /**
+   * Records a visit to a Resource, if the visit is within the visited node limit and deadline.
+   *
+   * @return Whether the Resource can be visited. Once false, the traversal is truncated and every
+   *         later visit is refused.
+   */
+  boolean visit() {
+    if (stopped || visitedNodes.incrementAndGet() > options.getMaxVisitedNodes()
+        || options.getTimeout() != null && System.nanoTime() - deadline >= 0) {
+      stopped = true;
+      truncated = true;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Whether Resources at the specified depth can be traversed. If not, the traversal is
+   * truncated, so this should only be checked for Resources that exist.
+   *
+   * @param depth Number of levels from the origin Resource.
+   *
+   * @return Whether Resources at the specified depth can be traversed.
+   */
+  boolean isWithinDepth(final int depth) {
+    if (depth > options.getMaxDepth()) {
+      truncated = true;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Records a Model found by the traversal, if it is within the maximum number of Models. Once the
+   * maximum is reached, every later visit is refused.
+   *
+   * @return Whether the Model can be returned. If not, the traversal is truncated.
+   */
+  boolean addResult() {
+    final int resultCount = results.incrementAndGet();
+    if (resultCount > options.getMaxResults()) {
+      stopped = true;
+      truncated = true;
+      return false;
+    }
+    if (resultCount == options.getMaxResults()) {
+      stopped = true;
+    }
+    return true;
+  }
+
+  /**
+   * Whether the maximum number of Models has been found.
+   *
+   * @return Whether the maximum number of Models has been found.
+   */
+  boolean isFull() {
+    return results.get() >= options.getMaxResults();
+  }
+
+  /**
+   * Flags the traversal as truncated.
+   */
+  void truncate() {
+    truncated = true;
+  }
+
+  /**
+   * Whether any limit cut the traversal short.
+   *
+   * @return Whether any limit cut the traversal short.
+   */
+  boolean isTruncated() {
+    return truncated;
+  }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import java.time.Duration;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Limits for a {@link SlingModelUtils} traversal. Options are immutable, and each {@code with}
+ * method returns a copy with one limit changed, so a configured instance can be shared. A
+ * traversal that stops because of one of these limits returns the Models it found so far, flagged
+ * with {@link TraversalResults#isTruncated()}.
+ */
+public final class TraversalOptions {
+
+  private static final TraversalOptions UNBOUNDED = new TraversalOptions(Integer.MAX_VALUE,
+                                                                         Integer.MAX_VALUE,
+                                                                         Integer.MAX_VALUE, null);
+
+  private final int maxDepth;
+  private final int maxVisitedNodes;
+  private final int maxResults;
+  private final Duration timeout;
+
+  private TraversalOptions(final int maxDepth, final int maxVisitedNodes, final int maxResults,
+          @Nullable final Duration timeout) {
+    this.maxDepth = maxDepth;
+    this.maxVisitedNodes = maxVisitedNodes;
+    this.maxResults = maxResults;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Options without any limits.
+   *
+   * @return Options without any limits.
+   */
+  @Nonnull
+  public static TraversalOptions unbounded() {
+    return UNBOUNDED;
+  }
+
+  /**
+   * Copy of these options, limited to the specified number of levels from the origin Resource.
+   * Children (or the parent, for ancestor traversals) are one level away.
+   *
+   * @param maxDepth Maximum number of levels to traverse.
+   *
+   * @return Copy of these options, limited to the specified number of levels.
+   */
+  @Nonnull
+  public TraversalOptions withMaxDepth(final int maxDepth) {
+    return new TraversalOptions(requirePositive(maxDepth, "maxDepth"), maxVisitedNodes, maxResults,
+                                timeout);
+  }
+
+  /**
+   * Copy of these options, limited to visiting the specified number of Resources.
+   *
+   * @param maxVisitedNodes Maximum number of Resources to visit.
+   *
+   * @return Copy of these options, limited to visiting the specified number of Resources.
+   */
+  @Nonnull
+  public TraversalOptions withMaxVisitedNodes(final int maxVisitedNodes) {
+    return new TraversalOptions(maxDepth, requirePositive(maxVisitedNodes, "maxVisitedNodes"),
+                                maxResults, timeout);
+  }
+
+  /**
+   * Copy of these options, limited to returning the specified number of Models.
+   *
+   * @param maxResults Maximum number of Models to return.
+   *
+   * @return Copy of these options, limited to returning the specified number of Models.
+   */
+  @Nonnull
+  public TraversalOptions withMaxResults(final int maxResults) {
+    return new TraversalOptions(maxDepth, maxVisitedNodes, requirePositive(maxResults,
+                                                                           "maxResults"), timeout);
+  }
+
+  /**
+   * Copy of these options, limited to running for the specified amount of time. The deadline is
+   * measured from the start of each traversal.
+   *
+   * @param timeout Maximum amount of time a traversal can run for.
+   *
+   * @return Copy of these options, limited to running for the specified amount of time.
+   */
+  @Nonnull
+  public TraversalOptions withTimeout(@Nonnull final Duration timeout) {
+    if (timeout.isNegative()) {
+      throw new IllegalArgumentException("timeout must not be negative.");
+    }
+    return new TraversalOptions(maxDepth, maxVisitedNodes, maxResults, timeout);
+  }
+
+  /**
+   * Maximum number of levels to traverse.
+   *
+   * @return Maximum number of levels to traverse, or Integer.MAX_VALUE if unlimited.
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Maximum number of Resources to visit.
+   *
+   * @return Maximum number of Resources to visit, or Integer.MAX_VALUE if unlimited.
+   */
+  public int getMaxVisitedNodes() {
+    return maxVisitedNodes;
+  }
+
+  /**
+   * Maximum number of Models to return.
+   *
+   * @return Maximum number of Models to return, or Integer.MAX_VALUE if unlimited.
+   */
+  public int getMaxResults() {
+    return maxResults;
+  }
+
+  /**
+   * Maximum amount of time a traversal can run for.
+   *
+   * @return Maximum amount of time a traversal can run for, or null if unlimited.
+   */
+  @Nullable
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  private static int requirePositive(final int value, @Nonnull final String name) {
+    if (value < 1) {
+      throw new IllegalArgumentException(name + " must be greater than 0.");
+    }
+    return value;
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Models found by a traversal, in the same order the sequential traversal methods of {@link
+ * SlingModelUtils} would return them, and whether a {@link TraversalOptions} limit cut the
+ * traversal short.
+ *
+ * <p>
+ * Models found by parallel traversals belong to ResourceResolvers cloned for the worker threads.
+ * These ResourceResolvers stay open until {@link #close()} is called, so the results should be
+ * closed once the Models are no longer needed.
+ * </p>
+ *
+ * @param <T> Model type the Resources were adapted to.
+ */
+public final class TraversalResults<T extends BaseResource> implements AutoCloseable {
+
+  private final List<T> models;
+  private final Collection<ResourceResolver> resourceResolvers;
+  private final boolean truncated;
+
+  TraversalResults(@Nonnull final List<T> models,
+          @Nonnull final Collection<ResourceResolver> resourceResolvers, final boolean truncated) {
+    this.models = Collections.unmodifiableList(models);
+    this.resourceResolvers = new ArrayList<>(resourceResolvers);
+    this.truncated = truncated;
+  }
+
+  /**
+   * Models found by the traversal, in traversal order.
+   *
+   * @return Models found by the traversal, in traversal order.
+   */
+  @Nonnull
+  public List<T> getModels() {
+    return models;
+  }
+
+  /**
+   * Whether a traversal limit stopped the traversal before every Resource was visited, in which
+   * case the Models are only the ones found before the limit was reached.
+   *
+   * @return Whether a traversal limit stopped the traversal before every Resource was visited.
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  /**
+   * Closes the ResourceResolvers cloned to find the Models. Models should not be used after the
+   * results are closed.
+   */
+  @Override
+  public void close() {
+    for (final ResourceResolver resourceResolver : resourceResolvers) {
+      if (resourceResolver.isLive()) {
+        resourceResolver.close();
+      }
+    }
+  }
+
+}
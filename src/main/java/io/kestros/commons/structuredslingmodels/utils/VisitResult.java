@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+/**
+ * Returned by {@link ResourceVisitor} and {@link ModelVisitor} callbacks, to control how a
+ * {@link SlingModelUtils} visitor traversal continues.
+ */
+public enum VisitResult {
+
+  /**
+   * Continue the traversal, including the descendants of the visited Resource.
+   */
+  CONTINUE,
+
+  /**
+   * Continue the traversal, but do not visit the descendants of the visited Resource.
+   */
+  SKIP_SUBTREE,
+
+  /**
+   * Stop the traversal. No further Resources are visited.
+   */
+  TERMINATE
+
+}
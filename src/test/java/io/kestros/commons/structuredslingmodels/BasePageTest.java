@@ -19,19 +19,26 @@
 
 package io.kestros.commons.structuredslingmodels;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.kestros.commons.structuredslingmodels.utils.ModelJsonUtils;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.wrappers.CompositeValueMap;
 import org.apache.sling.testing.mock.sling.junit.SlingContext;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -198,4 +205,92 @@ public class BasePageTest {
         verify(basePage, times(1)).getPath();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testGetPropertiesResolvesJcrContentOnce() {
+        properties.put("jcr:title", "Page Title");
+
+        resource = spy(context.create().resource("/content/page-with-properties"));
+        context.create().resource("/content/page-with-properties/jcr:content", properties);
+
+        basePage = resource.adaptTo(BasePage.class);
+
+        assertEquals("Page Title", Objects.requireNonNull(basePage).getProperties().get("jcr:title"));
+        clearInvocations(resource);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Page Title", basePage.getProperties().get("jcr:title"));
+            assertEquals("page-with-properties", basePage.getName());
+            assertEquals("/content/page-with-properties", basePage.getPath());
+        }
+        verify(resource, never()).getChild(any());
+        verify(resource, never()).getChildren();
+        verify(resource, never()).listChildren();
+        verify(resource, never()).getResourceResolver();
+    }
+
+    @Test
+    public void testGetResourceWhenAdaptedFromJcrContentResolvesParentOnce() {
+        context.create().resource("/content/page");
+        resource = spy(context.create().resource("/content/page/jcr:content"));
+
+        basePage = resource.adaptTo(BasePage.class);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("page", Objects.requireNonNull(basePage).getName());
+            assertEquals("/content/page", basePage.getPath());
+        }
+        verify(resource, times(1)).getParent();
+    }
+
+    @Test
+    public void testGetMergedProperties() {
+        properties.put("jcr:title", "Page Title");
+        properties.put("contentProperty", "content");
+
+        Map<String, Object> pageProperties = new HashMap<>();
+        pageProperties.put("jcr:title", "Root Title");
+        pageProperties.put("pageProperty", "page");
+
+        resource = context.create().resource("/content/page-with-properties", pageProperties);
+        context.create().resource("/content/page-with-properties/jcr:content", properties);
+
+        basePage = resource.adaptTo(BasePage.class);
+
+        assertEquals("Page Title", Objects.requireNonNull(basePage).getMergedProperties().get("jcr:title"));
+        assertEquals("content", basePage.getMergedProperties().get("contentProperty"));
+        assertEquals("page", basePage.getMergedProperties().get("pageProperty"));
+        assertNull(basePage.getProperties().get("pageProperty"));
+        assertSame(basePage.getMergedProperties(), basePage.getMergedProperties());
+    }
+
+    @Test
+    public void testGetMergedPropertiesWhenNoJcrContent() {
+        properties.put("jcr:title", "Page Title");
+
+        resource = context.create().resource("/content/page-with-properties", properties);
+
+        basePage = resource.adaptTo(BasePage.class);
+
+        assertEquals("Page Title", Objects.requireNonNull(basePage).getMergedProperties().get("jcr:title"));
+        assertSame(basePage.getProperties(), basePage.getMergedProperties());
+        assertFalse(basePage.getMergedProperties() instanceof CompositeValueMap);
+    }
+
+    @Test
+    public void testGetMergedPropertiesIsNotSerialized() throws Exception {
+        properties.put("jcr:title", "Page Title");
+
+        resource = context.create().resource("/content/page-with-properties");
+        context.create().resource("/content/page-with-properties/jcr:content", properties);
+
+        basePage = resource.adaptTo(BasePage.class);
+
+        StringWriter writer = new StringWriter();
+        ModelJsonUtils.writeModel(Objects.requireNonNull(basePage), writer);
+
+        assertTrue(writer.toString().contains("\"title\":\"Page Title\""));
+        assertFalse(writer.toString().contains("mergedProperties"));
+        assertTrue(BasePage.class.getMethod("getMergedProperties").isAnnotationPresent(
+                JsonIgnore.class));
+    }
+}
@@ -21,13 +21,25 @@ package io.kestros.commons.structuredslingmodels;
 
 import static junit.framework.TestCase.assertNotNull;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import io.kestros.commons.structuredslingmodels.exceptions.NoParentResourceException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.testing.mock.sling.junit.SlingContext;
 import org.junit.Before;
 import org.junit.Rule;
@@ -265,5 +277,156 @@ public class BaseResourceTest {
     assertEquals(new Date(0), Objects.requireNonNull(baseResource).getLastModifiedDate());
   }
 
+  @Test
+  public void testGetLastModifiedDateWhenModifyingReturnedDate() {
+    properties.put("jcr:lastModified", new Date(0));
+    resource = context.create().resource("/resource", properties);
+
+    baseResource = resource.adaptTo(BaseResource.class);
+
+    Objects.requireNonNull(baseResource).getLastModifiedDate().setTime(1000);
+
+    assertEquals(new Date(0), baseResource.getLastModifiedDate());
+  }
+
+  @Test
+  public void testGetLastModifiedDateWhenNotSet() {
+    assertNull(baseResource.getLastModifiedDate());
+  }
+
+  @Test
+  public void testGetCreatedDate() {
+    properties.put("jcr:created", new Date(0));
+    resource = context.create().resource("/resource", properties);
+
+    baseResource = resource.adaptTo(BaseResource.class);
+
+    assertEquals(new Date(0), Objects.requireNonNull(baseResource).getCreatedDate());
+  }
+
+  @Test
+  public void testGetPropertiesIsReadOnce() {
+    resource = spy(context.create().resource("/resource", properties));
+
+    baseResource = resource.adaptTo(BaseResource.class);
+
+    ValueMap valueMap = Objects.requireNonNull(baseResource).getProperties();
+    assertEquals("resource", baseResource.getTitle());
+    assertEquals("", baseResource.getDescription());
+    assertEquals("", baseResource.getSlingResourceType());
+    assertNull(baseResource.getLastModifiedDate());
+    clearInvocations(resource);
+
+    assertSame(valueMap, baseResource.getProperties());
+    assertEquals("resource", baseResource.getTitle());
+    assertEquals("", baseResource.getDescription());
+    assertEquals("", baseResource.getSlingResourceType());
+    assertNull(baseResource.getLastModifiedDate());
+    verify(resource, never()).getValueMap();
+    verify(resource, never()).getChild(anyString());
+  }
+
+  @Test
+  public void testGetPropertiesDoesNotConvertOtherProperties() {
+    resource = spy(context.create().resource("/resource", properties));
+
+    baseResource = Objects.requireNonNull(resource.adaptTo(BaseResource.class));
+    clearInvocations(resource);
+
+    baseResource.getProperties();
+    verify(resource, times(1)).getValueMap();
+    verify(resource, never()).getChild(anyString());
+  }
+
+  @Test
+  public void testGetTypedProperties() {
+    properties.put("longProperty", 5L);
+    properties.put("intProperty", 3);
+    properties.put("stringLongProperty", "7");
+    properties.put("booleanProperty", true);
+    properties.put("stringBooleanProperty", "true");
+    properties.put("dateProperty", new Date(1000));
+    resource = context.create().resource("/resource", properties);
 
-}
\ No newline at end of file
+    baseResource = Objects.requireNonNull(resource.adaptTo(BaseResource.class));
+
+    assertEquals(5L, baseResource.getLong("longProperty", 0L));
+    assertEquals(7L, baseResource.getLong("stringLongProperty", 0L));
+    assertEquals(3, baseResource.getInt("intProperty", 0));
+    assertTrue(baseResource.getBoolean("booleanProperty", false));
+    assertTrue(baseResource.getBoolean("stringBooleanProperty", false));
+    assertEquals(1000L, baseResource.getInstantEpochMillis("dateProperty", 0L));
+  }
+
+  @Test
+  public void testGetTypedPropertiesWhenMissingOrNotConvertible() {
+    properties.put("stringProperty", "value");
+    resource = context.create().resource("/resource", properties);
+
+    baseResource = Objects.requireNonNull(resource.adaptTo(BaseResource.class));
+
+    assertEquals(-1L, baseResource.getLong("stringProperty", -1L));
+    assertEquals(-1L, baseResource.getLong("missing", -1L));
+    assertEquals(-1, baseResource.getInt("missing", -1));
+    assertTrue(baseResource.getBoolean("missing", true));
+    assertEquals(-1L, baseResource.getInstantEpochMillis("stringProperty", -1L));
+    assertEquals(-1L, baseResource.getInstantEpochMillis("missing", -1L));
+  }
+
+  @Test
+  public void testGetTypedPropertiesAreConvertedOnce() {
+    properties.put("longProperty", 5L);
+    resource = context.create().resource("/resource", properties);
+
+    baseResource = Objects.requireNonNull(resource.adaptTo(BaseResource.class));
+    ValueMap valueMap = spy(baseResource.getProperties());
+    baseResource = spy(baseResource);
+    doReturn(valueMap).when(baseResource).getProperties();
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(5L, baseResource.getLong("longProperty", 0L));
+      assertEquals(0L, baseResource.getLong("missing", 0L));
+    }
+    verify(valueMap, times(1)).get("longProperty", Long.class);
+    verify(valueMap, times(1)).get("missing", Long.class);
+  }
+
+  @Test
+  public void testGetTypedPropertiesAreConvertedOncePerType() {
+    properties.put("numberProperty", "7");
+    resource = context.create().resource("/resource", properties);
+
+    baseResource = Objects.requireNonNull(resource.adaptTo(BaseResource.class));
+    ValueMap valueMap = spy(baseResource.getProperties());
+    baseResource = spy(baseResource);
+    doReturn(valueMap).when(baseResource).getProperties();
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(7L, baseResource.getLong("numberProperty", 0L));
+      assertEquals(7, baseResource.getInt("numberProperty", 0));
+      assertEquals(-1L, baseResource.getInstantEpochMillis("numberProperty", -1L));
+    }
+    verify(valueMap, times(1)).get("numberProperty", Long.class);
+    verify(valueMap, times(1)).get("numberProperty", Integer.class);
+    verify(valueMap, times(1)).get("numberProperty", Date.class);
+  }
+
+  @Test
+  public void testGetLastModifiedAndCreated() {
+    properties.put("jcr:lastModified", new Date(1000));
+    properties.put("jcr:created", new Date(0));
+    resource = context.create().resource("/resource", properties);
+
+    baseResource = Objects.requireNonNull(resource.adaptTo(BaseResource.class));
+
+    assertEquals(Instant.ofEpochMilli(1000), baseResource.getLastModified());
+    assertEquals(Instant.EPOCH, baseResource.getCreated());
+    assertSame(baseResource.getLastModified(), baseResource.getLastModified());
+  }
+
+  @Test
+  public void testGetLastModifiedAndCreatedWhenNotSet() {
+    assertNull(baseResource.getLastModified());
+    assertNull(baseResource.getCreated());
+  }
+}
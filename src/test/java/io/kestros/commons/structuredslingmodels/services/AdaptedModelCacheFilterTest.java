@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.services;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import io.kestros.commons.structuredslingmodels.utils.AdaptedModelCache;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AdaptedModelCacheFilterTest {
+
+  @Rule
+  public final SlingContext context = new SlingContext();
+
+  private AdaptedModelCacheFilter filter;
+  private FilterChain chain;
+
+  @Before
+  public void setUp() {
+    filter = new AdaptedModelCacheFilter();
+    chain = mock(FilterChain.class);
+    AdaptedModelCache.register(context.request());
+  }
+
+  @Test
+  public void testDoFilter() throws Exception {
+    assertNotNull(AdaptedModelCache.get(context.resourceResolver()));
+
+    filter.doFilter(context.request(), context.response(), chain);
+
+    verify(chain).doFilter(context.request(), context.response());
+    assertNull(AdaptedModelCache.get(context.resourceResolver()));
+  }
+
+  @Test
+  public void testDoFilterWhenChainThrowsException() throws Exception {
+    doThrow(new ServletException()).when(chain).doFilter(any(), any());
+
+    try {
+      filter.doFilter(context.request(), context.response(), chain);
+    } catch (ServletException exception) {
+      // expected
+    }
+
+    assertNull(AdaptedModelCache.get(context.resourceResolver()));
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.services;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.kestros.commons.structuredslingmodels.utils.SlingModelCacheUtils;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SlingModelCacheInvalidationListenerTest {
+
+  private SlingModelCacheInvalidationListener listener;
+
+  private Map<String, Object> properties = new HashMap<>();
+
+  @Before
+  public void setUp() {
+    listener = new SlingModelCacheInvalidationListener();
+    properties.put(ResourceChangeListener.PATHS, new String[]{"/apps", "/libs"});
+  }
+
+  @After
+  public void tearDown() {
+    SlingModelCacheUtils.disableCaching();
+  }
+
+  @Test
+  public void testActivate() {
+    listener.activate(properties);
+
+    assertTrue(SlingModelCacheUtils.isCachingEnabled());
+  }
+
+  @Test
+  public void testDeactivate() {
+    listener.activate(properties);
+    listener.deactivate();
+
+    assertFalse(SlingModelCacheUtils.isCachingEnabled());
+  }
+
+  @Test
+  public void testOnChange() {
+    listener.activate(properties);
+    listener.onChange(Collections.singletonList(
+        new ResourceChange(ChangeType.CHANGED, "/apps/kestros/commons/component", false)));
+
+    assertTrue(SlingModelCacheUtils.isCachingEnabled());
+  }
+
+  @Test
+  public void testActivateWhenPathIsString() {
+    properties.put(ResourceChangeListener.PATHS, "/apps");
+    listener.activate(properties);
+
+    assertTrue(SlingModelCacheUtils.isCachingEnabled());
+  }
+
+  @Test
+  public void testActivateWhenPathsAreMissing() {
+    listener.activate(new HashMap<>());
+
+    assertTrue(SlingModelCacheUtils.isCachingEnabled());
+  }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import io.kestros.commons.structuredslingmodels.BaseRequestContext;
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import io.kestros.commons.structuredslingmodels.utilities.SampleResourceModel;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AdaptedModelCacheTest {
+
+  @Rule
+  public final SlingContext context = new SlingContext();
+
+  private Resource resource;
+  private Map<String, Object> properties = new HashMap<>();
+
+  @Before
+  public void setUp() throws PersistenceException {
+    context.addModelsForPackage("io.kestros");
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/parent", properties);
+    context.create().resource("/parent/child", properties);
+    context.resourceResolver().commit();
+  }
+
+  @Test
+  public void testGetWhenNotRegistered() {
+    assertNull(AdaptedModelCache.get(context.resourceResolver()));
+    assertNull(AdaptedModelCache.get(null));
+  }
+
+  @Test
+  public void testRegister() {
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
+
+    assertSame(cache, AdaptedModelCache.register(context.request()));
+    assertSame(cache, AdaptedModelCache.get(context.resourceResolver()));
+  }
+
+  @Test
+  public void testRegisterWhenAdaptingBaseRequestContext() {
+    BaseRequestContext requestContext = context.request().adaptTo(BaseRequestContext.class);
+
+    assertNotNull(requestContext);
+    assertSame(requestContext.getAdaptedModelCache(),
+        AdaptedModelCache.get(context.resourceResolver()));
+  }
+
+  @Test
+  public void testGetWhenResourceResolverHasChanges() throws PersistenceException {
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
+
+    context.create().resource("/parent/uncommitted", properties);
+
+    assertNull(AdaptedModelCache.get(context.resourceResolver()));
+    assertNotSame(SlingModelUtils.adaptToBaseResource(resource),
+        SlingModelUtils.adaptToBaseResource(resource));
+    assertEquals(0, cache.size());
+
+    context.resourceResolver().commit();
+
+    assertSame(cache, AdaptedModelCache.get(context.resourceResolver()));
+  }
+
+  @Test
+  public void testGetClearsCacheWhenResourceResolverHasChanges() throws PersistenceException {
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
+    BaseResource model = SlingModelUtils.adaptToBaseResource(resource);
+    assertEquals("parent", model.getTitle());
+    assertEquals(1, cache.size());
+
+    Resource parent = context.resourceResolver().getResource("/parent");
+    parent.adaptTo(ModifiableValueMap.class).put("jcr:title", "Updated Title");
+
+    assertNull(AdaptedModelCache.get(context.resourceResolver()));
+    assertEquals(0, cache.size());
+
+    context.resourceResolver().commit();
+
+    BaseResource updatedModel = SlingModelUtils.adaptToBaseResource(
+        context.resourceResolver().getResource("/parent"));
+    assertNotSame(model, updatedModel);
+    assertEquals("Updated Title", updatedModel.getTitle());
+  }
+
+  @Test
+  public void testUnregister() {
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
+    cache.putModel("/parent", BaseResource.class, SlingModelUtils.adaptToBaseResource(resource));
+
+    AdaptedModelCache.unregister(context.request());
+
+    assertNull(AdaptedModelCache.get(context.resourceResolver()));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testGetChildAsTypeWhenCacheIsRegistered() throws Exception {
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
+
+    SampleResourceModel child = SlingModelUtils.getChildAsType("child", resource,
+        SampleResourceModel.class);
+
+    assertSame(child,
+        SlingModelUtils.getChildAsType("child", resource, SampleResourceModel.class));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testGetChildAsTypeWhenCacheIsNotRegistered() throws Exception {
+    assertNotSame(SlingModelUtils.getChildAsType("child", resource, SampleResourceModel.class),
+        SlingModelUtils.getChildAsType("child", resource, SampleResourceModel.class));
+  }
+
+  @Test
+  public void testGetParentWhenCacheIsRegistered() throws Exception {
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
+    BaseResource child = SlingModelUtils.getResourceAsType("/parent/child",
+        context.resourceResolver(), SampleResourceModel.class);
+
+    assertSame(child.getParent(), child.getParent());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void testGetModelIsKeyedByType() {
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
+    cache.putModel("/parent", BaseResource.class, SlingModelUtils.adaptToBaseResource(resource));
+
+    assertNotNull(cache.getModel("/parent", BaseResource.class));
+    assertNull(cache.getModel("/parent", SampleResourceModel.class));
+    assertNull(cache.getModel("/parent/child", BaseResource.class));
+  }
+
+  @Test
+  public void testPutModelWhenFull() {
+    BaseResource model = SlingModelUtils.adaptToBaseResource(resource);
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
+    for (int i = 0; i < AdaptedModelCache.MAX_SIZE; i++) {
+      cache.putModel("/parent/" + i, BaseResource.class, model);
+    }
+    assertEquals(AdaptedModelCache.MAX_SIZE, cache.size());
+
+    cache.putModel("/parent", BaseResource.class, model);
+
+    assertEquals(1, cache.size());
+  }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import io.kestros.commons.structuredslingmodels.services.SlingModelCacheInvalidationListener;
+import io.kestros.commons.structuredslingmodels.utilities.SampleResourceModel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AncestorTypeCacheTest {
+
+  @Rule
+  public final SlingContext context = new SlingContext();
+
+  private ResourceResolver resolver;
+  private ResourceResolver otherResolver;
+  private Map<String, Object> properties = new HashMap<>();
+
+  @Before
+  public void setUp() {
+    context.addModelsForPackage("io.kestros");
+    SlingModelCacheUtils.enableCaching();
+
+    resolver = mock(ResourceResolver.class);
+    when(resolver.getUserID()).thenReturn("user");
+    otherResolver = mock(ResourceResolver.class);
+    when(otherResolver.getUserID()).thenReturn("other-user");
+    properties.put("sling:resourceType", "kestros/commons/component");
+  }
+
+  @After
+  public void tearDown() {
+    SlingModelCacheUtils.disableCaching();
+  }
+
+  @Test
+  public void testGet() {
+    AncestorTypeCache.put(resolver, "/content/page", SampleResourceModel.class, "/content");
+
+    assertEquals("/content",
+        AncestorTypeCache.get(resolver, "/content/page", SampleResourceModel.class));
+    assertNull(AncestorTypeCache.get(resolver, "/content/page", BaseResource.class));
+    assertNull(AncestorTypeCache.get(resolver, "/content", SampleResourceModel.class));
+    assertNull(AncestorTypeCache.get(otherResolver, "/content/page", SampleResourceModel.class));
+  }
+
+  @Test
+  public void testInvalidate() {
+    AncestorTypeCache.put(resolver, "/content/page", SampleResourceModel.class, "/content");
+    AncestorTypeCache.put(resolver, "/content/page", BaseResource.class, "/content/page");
+    AncestorTypeCache.put(otherResolver, "/content/page", SampleResourceModel.class, "/content");
+    AncestorTypeCache.put(resolver, "/content/page/child", SampleResourceModel.class, "/content");
+    AncestorTypeCache.put(resolver, "/content/page-2", SampleResourceModel.class, "/content");
+
+    AncestorTypeCache.invalidate("/content/page");
+
+    assertNull(AncestorTypeCache.get(resolver, "/content/page", SampleResourceModel.class));
+    assertNull(AncestorTypeCache.get(otherResolver, "/content/page", SampleResourceModel.class));
+    assertNull(AncestorTypeCache.get(resolver, "/content/page/child", SampleResourceModel.class));
+    assertEquals("/content",
+        AncestorTypeCache.get(resolver, "/content/page-2", SampleResourceModel.class));
+    assertEquals(1, AncestorTypeCache.size());
+  }
+
+  @Test
+  public void testInvalidateWhenJcrContentChanges() {
+    AncestorTypeCache.put(resolver, "/content/page", SampleResourceModel.class, "/content/page");
+    AncestorTypeCache.put(resolver, "/content/other", SampleResourceModel.class, "/content");
+
+    AncestorTypeCache.invalidate("/content/page/jcr:content");
+
+    assertNull(AncestorTypeCache.get(resolver, "/content/page", SampleResourceModel.class));
+    assertEquals("/content",
+        AncestorTypeCache.get(resolver, "/content/other", SampleResourceModel.class));
+  }
+
+  @Test
+  public void testInvalidateWhenAccessControlPolicyChanges() {
+    AncestorTypeCache.put(resolver, "/content/page/child", SampleResourceModel.class, "/content");
+    AncestorTypeCache.put(resolver, "/content/other", SampleResourceModel.class, "/content");
+
+    SlingModelCacheUtils.invalidate("/content/page/rep:policy/allow");
+
+    assertNull(AncestorTypeCache.get(resolver, "/content/page/child", SampleResourceModel.class));
+    assertEquals("/content",
+        AncestorTypeCache.get(resolver, "/content/other", SampleResourceModel.class));
+  }
+
+  @Test
+  public void testInvalidateWhenResourceTypeChanges() {
+    AncestorTypeCache.put(resolver, "/content/page", SampleResourceModel.class, "/content");
+
+    SlingModelCacheUtils.invalidate("/apps/kestros/commons/component");
+
+    assertEquals(0, AncestorTypeCache.size());
+  }
+
+  @Test
+  public void testPutWhenFull() {
+    for (int i = 0; i < AncestorTypeCache.MAX_SIZE; i++) {
+      AncestorTypeCache.put(resolver, "/content/" + i, SampleResourceModel.class, "/content");
+    }
+    assertEquals(AncestorTypeCache.MAX_SIZE, AncestorTypeCache.size());
+
+    AncestorTypeCache.put(resolver, "/content/page", SampleResourceModel.class, "/content");
+
+    assertEquals(1, AncestorTypeCache.size());
+  }
+
+  @Test
+  public void testGetFirstAncestorOfTypeWhenSiblingsShareWalk() throws Exception {
+    context.create().resource("/content/site", properties);
+    context.create().resource("/content/site/page/jcr:content/root");
+    Resource first = context.create().resource("/content/site/page/jcr:content/root/first");
+    Resource second = context.create().resource("/content/site/page/jcr:content/root/second");
+    context.resourceResolver().commit();
+
+    assertEquals("/content/site",
+        SlingModelUtils.getFirstAncestorOfType(first, SampleResourceModel.class).getPath());
+    assertEquals("/content/site",
+        AncestorTypeCache.get(context.resourceResolver(), "/content/site/page/jcr:content/root",
+            SampleResourceModel.class));
+    assertEquals(4, AncestorTypeCache.size());
+
+    assertEquals("/content/site",
+        SlingModelUtils.getFirstAncestorOfType(second, SampleResourceModel.class).getPath());
+    assertEquals(4, AncestorTypeCache.size());
+  }
+
+  @Test
+  public void testGetFirstAncestorOfTypeWhenNoAncestorIsCached() throws Exception {
+    context.create().resource("/content/page");
+    Resource child = context.create().resource("/content/page/child");
+    context.resourceResolver().commit();
+
+    assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(child,
+        SampleResourceModel.class).isPresent());
+    assertEquals(AncestorTypeCache.NO_ANCESTOR,
+        AncestorTypeCache.get(context.resourceResolver(), "/content/page",
+            SampleResourceModel.class));
+    assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(child,
+        SampleResourceModel.class).isPresent());
+  }
+
+  @Test
+  public void testGetFirstAncestorOfTypeWhenCachedAncestorChangesType() throws Exception {
+    context.create().resource("/content/site", properties);
+    context.create().resource("/content/site/section", properties);
+    Resource child = context.create().resource("/content/site/section/child");
+    context.resourceResolver().commit();
+
+    assertEquals("/content/site/section",
+        SlingModelUtils.getFirstAncestorOfType(child, SampleResourceModel.class).getPath());
+
+    Resource section = context.resourceResolver().getResource("/content/site/section");
+    section.adaptTo(ModifiableValueMap.class).put("sling:resourceType", "other/type");
+    context.resourceResolver().commit();
+
+    assertEquals("/content/site",
+        SlingModelUtils.getFirstAncestorOfType(child, SampleResourceModel.class).getPath());
+  }
+
+  @Test
+  public void testGetFirstAncestorOfTypeWhenResolverHasChanges() throws Exception {
+    context.create().resource("/content/site", properties);
+    Resource child = context.create().resource("/content/site/child");
+
+    assertEquals("/content/site",
+        SlingModelUtils.getFirstAncestorOfType(child, SampleResourceModel.class).getPath());
+    assertEquals(0, AncestorTypeCache.size());
+  }
+
+  @Test
+  public void testGetFirstAncestorOfTypeUnderContentWithDefaultListenerPaths() throws Exception {
+    new SlingModelCacheInvalidationListener().activate(Collections.emptyMap());
+    context.create().resource("/content/site", properties);
+    context.create().resource("/content/site/page/jcr:content/root");
+    Resource first = context.create().resource("/content/site/page/jcr:content/root/first");
+    Resource second = context.create().resource("/content/site/page/jcr:content/root/second");
+    context.resourceResolver().commit();
+
+    assertEquals("/content/site",
+        SlingModelUtils.getFirstAncestorOfType(first, SampleResourceModel.class).getPath());
+    assertEquals("/content/site",
+        AncestorTypeCache.get(context.resourceResolver(), "/content/site/page/jcr:content/root",
+            SampleResourceModel.class));
+
+    // The second lookup is answered by the cached parent, so overriding it changes the result.
+    AncestorTypeCache.put(context.resourceResolver(), "/content/site/page/jcr:content/root",
+        SampleResourceModel.class, AncestorTypeCache.NO_ANCESTOR);
+    assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(second,
+        SampleResourceModel.class).isPresent());
+  }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import io.kestros.commons.structuredslingmodels.exceptions.ChildResourceNotFoundException;
+import io.kestros.commons.structuredslingmodels.exceptions.ResourceNotFoundException;
+import io.kestros.commons.structuredslingmodels.services.SlingModelCacheInvalidationListener;
+import java.util.Collections;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class MissingResourceCacheTest {
+
+  @Rule
+  public final SlingContext context = new SlingContext();
+
+  private ResourceResolver resolver;
+  private ResourceResolver otherResolver;
+
+  @Before
+  public void setUp() {
+    context.addModelsForPackage("io.kestros");
+    SlingModelCacheUtils.enableCaching();
+
+    resolver = mock(ResourceResolver.class);
+    when(resolver.getUserID()).thenReturn("user");
+    otherResolver = mock(ResourceResolver.class);
+    when(otherResolver.getUserID()).thenReturn("other-user");
+  }
+
+  @After
+  public void tearDown() {
+    SlingModelCacheUtils.disableCaching();
+  }
+
+  @Test
+  public void testIsMissing() {
+    MissingResourceCache.putMissing(resolver, "/content/page");
+
+    assertTrue(MissingResourceCache.isMissing(resolver, "/content/page"));
+    assertFalse(MissingResourceCache.isMissing(resolver, "/content"));
+    assertFalse(MissingResourceCache.isMissing(otherResolver, "/content/page"));
+  }
+
+  @Test
+  public void testInvalidate() {
+    MissingResourceCache.putMissing(resolver, "/content/page");
+    MissingResourceCache.putMissing(otherResolver, "/content/page");
+    MissingResourceCache.putMissing(resolver, "/content/page/child");
+    MissingResourceCache.putMissing(resolver, "/content/page-2");
+
+    MissingResourceCache.invalidate("/content/page");
+
+    assertFalse(MissingResourceCache.isMissing(resolver, "/content/page"));
+    assertFalse(MissingResourceCache.isMissing(otherResolver, "/content/page"));
+    assertFalse(MissingResourceCache.isMissing(resolver, "/content/page/child"));
+    assertTrue(MissingResourceCache.isMissing(resolver, "/content/page-2"));
+    assertEquals(1, MissingResourceCache.size());
+  }
+
+  @Test
+  public void testInvalidateWhenAccessControlPolicyChanges() {
+    MissingResourceCache.putMissing(resolver, "/content/page/child");
+    MissingResourceCache.putMissing(resolver, "/content/other");
+
+    MissingResourceCache.invalidate("/content/page/rep:policy/allow");
+
+    assertFalse(MissingResourceCache.isMissing(resolver, "/content/page/child"));
+    assertTrue(MissingResourceCache.isMissing(resolver, "/content/other"));
+  }
+
+  @Test
+  public void testInvalidateWhenRoot() {
+    MissingResourceCache.putMissing(resolver, "/content/page");
+
+    MissingResourceCache.invalidate("/");
+
+    assertEquals(0, MissingResourceCache.size());
+  }
+
+  @Test
+  public void testPutMissingWhenFull() {
+    for (int i = 0; i < MissingResourceCache.MAX_SIZE; i++) {
+      MissingResourceCache.putMissing(resolver, "/content/" + i);
+    }
+    assertEquals(MissingResourceCache.MAX_SIZE, MissingResourceCache.size());
+
+    MissingResourceCache.putMissing(resolver, "/content/page");
+
+    assertEquals(1, MissingResourceCache.size());
+  }
+
+  @Test
+  public void testGetChildAsBaseResourceWhenChildIsMissing() throws Exception {
+    Resource resource = spy(context.create().resource("/resource"));
+    context.resourceResolver().commit();
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        SlingModelUtils.getChildAsBaseResource("missing", resource);
+      } catch (ChildResourceNotFoundException exception) {
+        // expected
+      }
+    }
+
+    verify(resource, times(1)).getChild("missing");
+    verify(resource, times(1)).getChild("jcr:content");
+    assertTrue(MissingResourceCache.isMissing(context.resourceResolver(), "/resource/missing"));
+  }
+
+  @Test
+  public void testGetChildAsBaseResourceWhenChildIsAddedAfterMiss() throws Exception {
+    Resource resource = context.create().resource("/resource");
+    context.resourceResolver().commit();
+
+    assertFalse(SlingModelUtils.tryGetChildAsType("child", resource,
+        BaseResource.class).isPresent());
+
+    context.create().resource("/resource/child");
+    context.resourceResolver().commit();
+    SlingModelCacheUtils.invalidate("/resource/child");
+
+    assertNotNull(SlingModelUtils.getChildAsBaseResource("child", resource));
+  }
+
+  @Test
+  public void testGetChildAsBaseResourceWhenResolverHasChanges() {
+    Resource resource = spy(context.create().resource("/resource"));
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        SlingModelUtils.getChildAsBaseResource("missing", resource);
+      } catch (ChildResourceNotFoundException exception) {
+        // expected
+      }
+    }
+
+    verify(resource, times(2)).getChild("missing");
+    assertEquals(0, MissingResourceCache.size());
+  }
+
+  @Test
+  public void testGetResourceAsBaseResourceWhenResourceIsMissing() {
+    ResourceResolver resourceResolver = spy(context.resourceResolver());
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        SlingModelUtils.getResourceAsBaseResource("/missing", resourceResolver);
+      } catch (ResourceNotFoundException exception) {
+        // expected
+      }
+    }
+
+    verify(resourceResolver, times(1)).getResource("/missing");
+  }
+
+  @Test
+  public void testGetResourceAsBaseResourceWhenCachingIsDisabled() {
+    SlingModelCacheUtils.disableCaching();
+    ResourceResolver resourceResolver = spy(context.resourceResolver());
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        SlingModelUtils.getResourceAsBaseResource("/missing", resourceResolver);
+      } catch (ResourceNotFoundException exception) {
+        // expected
+      }
+    }
+
+    verify(resourceResolver, times(2)).getResource("/missing");
+    assertEquals(0, MissingResourceCache.size());
+  }
+
+  @Test
+  public void testGetChildUnderContentAndConfWithDefaultListenerPaths() throws Exception {
+    new SlingModelCacheInvalidationListener().activate(Collections.emptyMap());
+    Resource page = spy(context.create().resource("/content/site/page"));
+    Resource config = spy(context.create().resource("/conf/site/sling:configs"));
+    context.resourceResolver().commit();
+
+    for (int i = 0; i < 2; i++) {
+      assertFalse(SlingModelUtils.tryGetChildAsType("optional", page,
+          BaseResource.class).isPresent());
+      assertFalse(SlingModelUtils.tryGetChildAsType("override", config,
+          BaseResource.class).isPresent());
+    }
+
+    verify(page, times(1)).getChild("optional");
+    verify(config, times(1)).getChild("override");
+    assertTrue(MissingResourceCache.isMissing(context.resourceResolver(),
+        "/content/site/page/optional"));
+    assertTrue(MissingResourceCache.isMissing(context.resourceResolver(),
+        "/conf/site/sling:configs/override"));
+  }
+
+  @Test
+  public void testGetChildOutsideDefaultListenerPaths() throws Exception {
+    new SlingModelCacheInvalidationListener().activate(Collections.emptyMap());
+    Resource resource = spy(context.create().resource("/var/resource"));
+    context.resourceResolver().commit();
+
+    for (int i = 0; i < 2; i++) {
+      assertFalse(SlingModelUtils.tryGetChildAsType("missing", resource,
+          BaseResource.class).isPresent());
+    }
+
+    verify(resource, times(2)).getChild("missing");
+    assertEquals(0, MissingResourceCache.size());
+  }
+
+}
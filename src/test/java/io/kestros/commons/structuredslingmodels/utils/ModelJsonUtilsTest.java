@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ModelJsonUtilsTest {
+
+  @Rule
+  public final SlingContext context = new SlingContext();
+
+  private Resource resource;
+
+  private Map<String, Object> properties = new HashMap<>();
+
+  @Before
+  public void setUp() {
+    context.addModelsForPackage("io.kestros");
+  }
+
+  @Test
+  public void testWriteModelToWriter() throws IOException {
+    properties.put("sling:resourceType", "my/type");
+    properties.put("jcr:title", "Title");
+    resource = context.create().resource("/resource", properties);
+
+    StringWriter writer = new StringWriter();
+    ModelJsonUtils.writeModel(resource.adaptTo(BaseResource.class), writer);
+
+    assertEquals("{\"description\":\"\",\"name\":\"resource\",\"path\":\"/resource\","
+                 + "\"resourceType\":\"my/type\",\"title\":\"Title\"}", writer.toString());
+  }
+
+  @Test
+  public void testWriteModelToOutputStream() throws IOException {
+    properties.put("sling:resourceType", "my/type");
+    properties.put("jcr:title", "T\u00eftle");
+    resource = context.create().resource("/resource", properties);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ModelJsonUtils.writeModel(resource.adaptTo(BaseResource.class), outputStream);
+
+    assertEquals("{\"description\":\"\",\"name\":\"resource\",\"path\":\"/resource\","
+                 + "\"resourceType\":\"my/type\",\"title\":\"T\u00eftle\"}",
+        new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testWriteModelWithTypedProperties() throws IOException {
+    properties.put("sling:resourceType", "kestros/commons/json-sample");
+    properties.put("count", 12L);
+    properties.put("enabled", true);
+    properties.put("tags", new String[]{"a", "b"});
+    properties.put("published", new Date(1000));
+    resource = context.create().resource("/resource", properties);
+
+    StringWriter writer = new StringWriter();
+    ModelJsonUtils.writeModel(resource.adaptTo(SampleJsonModel.class), writer);
+
+    assertEquals("{\"count\":12,\"description\":\"\",\"name\":\"resource\","
+                 + "\"renamed\":\"renamed-value\",\"path\":\"/resource\",\"published\":1000,"
+                 + "\"resourceType\":\"kestros/commons/json-sample\",\"tags\":[\"a\",\"b\"],"
+                 + "\"title\":\"resource\",\"enabled\":true}", writer.toString());
+  }
+
+  @Test
+  public void testWriteModelDoesNotCloseGenerator() throws IOException {
+    properties.put("sling:resourceType", "my/type");
+    resource = context.create().resource("/resource", properties);
+    BaseResource model = resource.adaptTo(BaseResource.class);
+
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = ModelJsonUtils.createGenerator(writer)) {
+      generator.writeStartArray();
+      ModelJsonUtils.writeModel(model, generator);
+      ModelJsonUtils.writeModel(model, generator);
+      generator.writeEndArray();
+    }
+
+    String json = "{\"description\":\"\",\"name\":\"resource\",\"path\":\"/resource\","
+                  + "\"resourceType\":\"my/type\",\"title\":\"resource\"}";
+    assertEquals("[" + json + "," + json + "]", writer.toString());
+  }
+
+  @Test
+  public void testGetTableIsComputedOnce() {
+    assertSame(PropertyAccessorTable.getTable(SampleJsonModel.class),
+        PropertyAccessorTable.getTable(SampleJsonModel.class));
+  }
+
+  @Test
+  public void testGetTableSkipsJsonIgnore() {
+    assertEquals(10, PropertyAccessorTable.getTable(SampleJsonModel.class).getAccessors().size());
+  }
+
+  @Test
+  public void testGetTableResolvesJsonAnnotationsOnOverriddenMethods() {
+    PropertyAccessorTable table = PropertyAccessorTable.getTable(SampleOverridingJsonModel.class);
+
+    assertEquals(10, table.getAccessors().size());
+    assertTrue(table.getAccessors().stream().anyMatch(
+        accessor -> "renamed".equals(accessor.getName())));
+    assertFalse(table.getAccessors().stream().anyMatch(
+        accessor -> "originalName".equals(accessor.getName()) || "ignored".equals(
+            accessor.getName())));
+  }
+
+  @Test
+  public void testWriteModelWritesCyclicReferenceAsPath() throws IOException {
+    properties.put("sling:resourceType", "kestros/commons/json-linked-sample");
+    properties.put("linked", "/b");
+    resource = context.create().resource("/a", properties);
+    properties.put("linked", "/a");
+    context.create().resource("/b", properties);
+
+    StringWriter writer = new StringWriter();
+    ModelJsonUtils.writeModel(resource.adaptTo(SampleLinkedJsonModel.class), writer);
+
+    assertEquals("{\"description\":\"\",\"linked\":{\"description\":\"\",\"linked\":\"/a\","
+                 + "\"name\":\"b\",\"path\":\"/b\","
+                 + "\"resourceType\":\"kestros/commons/json-linked-sample\",\"title\":\"b\"},"
+                 + "\"name\":\"a\",\"path\":\"/a\","
+                 + "\"resourceType\":\"kestros/commons/json-linked-sample\",\"title\":\"a\"}",
+        writer.toString());
+  }
+
+  @Test
+  public void testWriteModelWritesSelfReferenceAsPath() throws IOException {
+    properties.put("sling:resourceType", "kestros/commons/json-linked-sample");
+    properties.put("linked", "/a");
+    resource = context.create().resource("/a", properties);
+
+    StringWriter writer = new StringWriter();
+    ModelJsonUtils.writeModel(resource.adaptTo(SampleLinkedJsonModel.class), writer);
+
+    assertEquals("{\"description\":\"\",\"linked\":\"/a\",\"name\":\"a\",\"path\":\"/a\","
+                 + "\"resourceType\":\"kestros/commons/json-linked-sample\",\"title\":\"a\"}",
+        writer.toString());
+  }
+
+}
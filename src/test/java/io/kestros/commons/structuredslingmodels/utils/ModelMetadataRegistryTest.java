@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.kestros.commons.structuredslingmodels.BasePage;
+import io.kestros.commons.structuredslingmodels.BaseRequestContext;
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import io.kestros.commons.structuredslingmodels.utilities.SampleResourceModel;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class ModelMetadataRegistryTest {
+
+  @Test
+  public void testGetMetadataIsComputedOnce() {
+    assertSame(ModelMetadataRegistry.getMetadata(SampleResourceModel.class),
+        ModelMetadataRegistry.getMetadata(SampleResourceModel.class));
+  }
+
+  @Test
+  public void testGetResourceTypes() {
+    ModelMetadata metadata = ModelMetadataRegistry.getMetadata(SampleResourceModel.class);
+
+    assertEquals(Collections.singleton("kestros/commons/component"), metadata.getResourceTypes());
+    assertFalse(metadata.isMatchesAllResourceTypes());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetResourceTypesIsImmutable() {
+    ModelMetadataRegistry.getMetadata(SampleResourceModel.class).getResourceTypes().add("other");
+  }
+
+  @Test
+  public void testIsMatchesAllResourceTypes() {
+    assertTrue(ModelMetadataRegistry.getMetadata(BaseResource.class).isMatchesAllResourceTypes());
+  }
+
+  @Test
+  public void testGetResourceTypesWhenNoModelAnnotation() {
+    ModelMetadata metadata = ModelMetadataRegistry.getMetadata(String.class);
+
+    assertTrue(metadata.getResourceTypes().isEmpty());
+    assertFalse(metadata.isMatchesAllResourceTypes());
+  }
+
+  @Test
+  public void testGetKestrosModel() {
+    ModelMetadata metadata = ModelMetadataRegistry.getMetadata(BaseResource.class);
+
+    assertNotNull(metadata.getKestrosModel());
+    assertEquals(BaseRequestContext.class, metadata.getContextModel());
+    assertFalse(metadata.isUsesJcrContent());
+    assertEquals(4, metadata.getDocPaths().size());
+  }
+
+  @Test
+  public void testGetDocPathsIsComputedOnce() {
+    ModelMetadata metadata = ModelMetadataRegistry.getMetadata(BaseResource.class);
+
+    assertSame(metadata.getDocPaths(), metadata.getDocPaths());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetDocPathsIsImmutable() {
+    ModelMetadataRegistry.getMetadata(BaseResource.class).getDocPaths().add("/other");
+  }
+
+  @Test
+  public void testGetKestrosModelWhenNotAnnotated() {
+    ModelMetadata metadata = ModelMetadataRegistry.getMetadata(SampleResourceModel.class);
+
+    assertNull(metadata.getKestrosModel());
+    assertEquals(BaseRequestContext.class, metadata.getContextModel());
+    assertEquals(0, metadata.getDocPaths().size());
+  }
+
+  @Test
+  public void testGetKestrosPropertyMethods() {
+    assertEquals(Arrays.asList("getDescription", "getName", "getPath", "getResourceType",
+        "getTitle"), getMethodNames(ModelMetadataRegistry.getMetadata(BaseResource.class)));
+  }
+
+  @Test
+  public void testGetKestrosPropertyMethodsWhenOverriddenWithoutAnnotation() {
+    ModelMetadata metadata = ModelMetadataRegistry.getMetadata(BasePage.class);
+
+    assertEquals(Arrays.asList("getDescription", "getName", "getPath", "getResourceType",
+        "getTitle"), getMethodNames(metadata));
+    assertEquals(BasePage.class, metadata.getKestrosPropertyMethods().get(1).getDeclaringClass());
+  }
+
+  private List<String> getMethodNames(ModelMetadata metadata) {
+    List<String> names = new ArrayList<>();
+    for (Method method : metadata.getKestrosPropertyMethods()) {
+      names.add(method.getName());
+    }
+    return names;
+  }
+
+}
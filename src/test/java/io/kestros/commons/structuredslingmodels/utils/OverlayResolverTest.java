@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class OverlayResolverTest {
+
+  @Rule
+  public final SlingContext context = new SlingContext();
+
+  private ResourceResolver resolver;
+
+  @Before
+  public void setUp() {
+    resolver = spy(context.resourceResolver());
+  }
+
+  @After
+  public void tearDown() {
+    SlingModelCacheUtils.disableCaching();
+  }
+
+  @Test
+  public void testGetEffectiveResource() {
+    context.create().resource("/apps/component");
+    context.create().resource("/libs/component");
+
+    assertEquals("/apps/component",
+        OverlayResolver.getEffectiveResource("component", resolver).getPath());
+  }
+
+  @Test
+  public void testGetEffectiveResourceWhenOnlyLibsExists() {
+    context.create().resource("/libs/component");
+
+    assertEquals("/libs/component",
+        OverlayResolver.getEffectiveResource("component", resolver).getPath());
+  }
+
+  @Test
+  public void testGetEffectiveResourceWhenAppsIsSynthetic() {
+    context.create().resource("/libs/component");
+    Resource syntheticResource = mock(Resource.class);
+    when(syntheticResource.getResourceType()).thenReturn(
+        OverlayResolver.RESOURCE_TYPE_SYNTHETIC);
+    when(resolver.getResource("/apps/component")).thenReturn(syntheticResource);
+
+    assertEquals("/libs/component",
+        OverlayResolver.getEffectiveResource("component", resolver).getPath());
+  }
+
+  @Test
+  public void testGetEffectiveResourceWhenPathIsUnderSearchPath() {
+    context.create().resource("/apps/component");
+    context.create().resource("/libs/component");
+
+    assertEquals("/libs/component",
+        OverlayResolver.getEffectiveResource("/apps/component", resolver).getPath());
+  }
+
+  @Test
+  public void testGetEffectiveResourceWhenNotFound() {
+    assertNull(OverlayResolver.getEffectiveResource("component", resolver));
+  }
+
+  @Test
+  public void testGetEffectiveResourceWhenCustomSearchPath() {
+    context.create().resource("/custom/component");
+    context.create().resource("/libs/component");
+    when(resolver.getSearchPath()).thenReturn(new String[]{"/custom/", "/libs/"});
+
+    assertEquals("/custom/component",
+        OverlayResolver.getEffectiveResource("component", resolver).getPath());
+  }
+
+  @Test
+  public void testGetOverlaidResource() {
+    context.create().resource("/apps/component");
+    context.create().resource("/libs/component");
+
+    assertEquals("/libs/component",
+        OverlayResolver.getOverlaidResource("/apps/component", resolver).getPath());
+  }
+
+  @Test
+  public void testGetOverlaidResourceWhenPathIsUnderLastSearchPath() {
+    context.create().resource("/libs/component");
+
+    assertNull(OverlayResolver.getOverlaidResource("/libs/component", resolver));
+  }
+
+  @Test
+  public void testGetOverlaidResourceWhenPathIsNotUnderSearchPath() {
+    context.create().resource("/content/component");
+
+    assertNull(OverlayResolver.getOverlaidResource("/content/component", resolver));
+    verify(resolver, never()).getResource("/libs/content/component");
+  }
+
+  @Test
+  public void testGetEffectiveResourceWhenCachingIsEnabled() throws Exception {
+    context.create().resource("/libs/component");
+    context.resourceResolver().commit();
+    SlingModelCacheUtils.enableCaching();
+
+    OverlayResolver.getEffectiveResource("component", resolver);
+    assertEquals("/libs/component",
+        OverlayResolver.getEffectiveResource("component", resolver).getPath());
+
+    assertEquals(1, OverlayResolver.size());
+    verify(resolver, times(1)).getResource("/apps/component");
+    verify(resolver, times(2)).getResource("/libs/component");
+  }
+
+  @Test
+  public void testGetEffectiveResourceWhenCachedPathIsRemoved() throws Exception {
+    context.create().resource("/apps/component");
+    context.create().resource("/libs/component");
+    context.resourceResolver().commit();
+    SlingModelCacheUtils.enableCaching();
+
+    assertEquals("/apps/component",
+        OverlayResolver.getEffectiveResource("component", resolver).getPath());
+
+    context.resourceResolver().delete(context.resourceResolver().getResource("/apps/component"));
+    context.resourceResolver().commit();
+    SlingModelCacheUtils.invalidate("/apps/component");
+
+    assertEquals(0, OverlayResolver.size());
+    assertEquals("/libs/component",
+        OverlayResolver.getEffectiveResource("component", resolver).getPath());
+  }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ResourceTypeHierarchyTest {
+
+  @Rule
+  public final SlingContext context = new SlingContext();
+
+  private ResourceResolver resolver;
+
+  @Before
+  public void setUp() {
+    context.addModelsForPackage("io.kestros");
+
+    Map<String, Object> baseProperties = new HashMap<>();
+    baseProperties.put("sling:resourceSuperType", "kestros/commons/component");
+    context.create().resource("/libs/kestros/base-type", baseProperties);
+
+    Map<String, Object> extendingProperties = new HashMap<>();
+    extendingProperties.put("sling:resourceSuperType", "kestros/base-type");
+    context.create().resource("/apps/kestros/extending-type", extendingProperties);
+
+    resolver = spy(context.resourceResolver());
+  }
+
+  @After
+  public void tearDown() {
+    SlingModelCacheUtils.disableCaching();
+  }
+
+  @Test
+  public void testGetHierarchy() {
+    assertEquals(
+        Arrays.asList("kestros/extending-type", "kestros/base-type", "kestros/commons/component"),
+        ResourceTypeHierarchy.getHierarchy("kestros/extending-type", resolver));
+  }
+
+  @Test
+  public void testGetHierarchyWhenAbsoluteResourceType() {
+    assertEquals(
+        Arrays.asList("kestros/extending-type", "kestros/base-type", "kestros/commons/component"),
+        ResourceTypeHierarchy.getHierarchy("/apps/kestros/extending-type", resolver));
+  }
+
+  @Test
+  public void testGetHierarchyWhenResourceTypeNotFound() {
+    assertEquals(Collections.emptyList(),
+        ResourceTypeHierarchy.getHierarchy("kestros/missing-type", resolver));
+  }
+
+  @Test
+  public void testGetHierarchyWhenResourceTypeIsEmpty() {
+    assertEquals(Collections.emptyList(), ResourceTypeHierarchy.getHierarchy("", resolver));
+  }
+
+  @Test
+  public void testGetHierarchyWhenSuperTypesAreCircular() {
+    Map<String, Object> firstProperties = new HashMap<>();
+    firstProperties.put("sling:resourceSuperType", "kestros/second-type");
+    context.create().resource("/apps/kestros/first-type", firstProperties);
+
+    Map<String, Object> secondProperties = new HashMap<>();
+    secondProperties.put("sling:resourceSuperType", "kestros/first-type");
+    context.create().resource("/apps/kestros/second-type", secondProperties);
+
+    assertEquals(Arrays.asList("kestros/first-type", "kestros/second-type"),
+        ResourceTypeHierarchy.getHierarchy("kestros/first-type", resolver));
+  }
+
+  @Test
+  public void testIsResourceTypeOrSubtypeOf() {
+    assertTrue(ResourceTypeHierarchy.isResourceTypeOrSubtypeOf("kestros/extending-type",
+        Collections.singletonList("kestros/commons/component"), resolver));
+    assertTrue(ResourceTypeHierarchy.isResourceTypeOrSubtypeOf("kestros/extending-type",
+        Collections.singletonList("kestros/extending-type"), resolver));
+    assertFalse(ResourceTypeHierarchy.isResourceTypeOrSubtypeOf("kestros/base-type",
+        Collections.singletonList("kestros/extending-type"), resolver));
+  }
+
+  @Test
+  public void testGetHierarchyIsCachedWhenCachingEnabled() {
+    SlingModelCacheUtils.enableCaching();
+
+    ResourceTypeHierarchy.getHierarchy("kestros/extending-type", resolver);
+    ResourceTypeHierarchy.getHierarchy("kestros/extending-type", resolver);
+
+    assertEquals(1, ResourceTypeHierarchy.size());
+    verify(resolver, times(1)).getResource("kestros/extending-type");
+  }
+
+  @Test
+  public void testGetHierarchyIsCachedPerUser() {
+    SlingModelCacheUtils.enableCaching();
+
+    ResourceResolver restrictedResolver = spy(context.resourceResolver());
+    doReturn("restricted-user").when(restrictedResolver).getUserID();
+    doReturn(null).when(restrictedResolver).getResource("kestros/base-type");
+
+    assertEquals(Arrays.asList("kestros/extending-type", "kestros/base-type"),
+        ResourceTypeHierarchy.getHierarchy("kestros/extending-type", restrictedResolver));
+    assertEquals(
+        Arrays.asList("kestros/extending-type", "kestros/base-type", "kestros/commons/component"),
+        ResourceTypeHierarchy.getHierarchy("kestros/extending-type", resolver));
+    assertEquals(2, ResourceTypeHierarchy.size());
+  }
+
+  @Test
+  public void testGetHierarchyClearsWhenFull() {
+    SlingModelCacheUtils.enableCaching();
+
+    for (int i = 0; i < ResourceTypeHierarchy.MAX_SIZE; i++) {
+      ResourceTypeHierarchy.getHierarchy("kestros/missing-type-" + i, resolver);
+    }
+    assertEquals(ResourceTypeHierarchy.MAX_SIZE, ResourceTypeHierarchy.size());
+
+    ResourceTypeHierarchy.getHierarchy("kestros/missing-type-" + ResourceTypeHierarchy.MAX_SIZE,
+        resolver);
+
+    assertEquals(1, ResourceTypeHierarchy.size());
+  }
+
+  @Test
+  public void testGetHierarchyIsNotCachedWhenCachingDisabled() {
+    ResourceTypeHierarchy.getHierarchy("kestros/extending-type", resolver);
+    ResourceTypeHierarchy.getHierarchy("kestros/extending-type", resolver);
+
+    assertEquals(0, ResourceTypeHierarchy.size());
+    verify(resolver, times(2)).getResource("kestros/extending-type");
+  }
+
+  @Test
+  public void testGetSubtypes() {
+    stubSubtypeQueries();
+
+    assertEquals(new LinkedHashSet<>(Arrays.asList("kestros/base-type", "kestros/extending-type")),
+        ResourceTypeHierarchy.getSubtypes(Collections.singletonList("kestros/commons/component"),
+            resolver));
+    verify(resolver).findResources("/jcr:root/apps//*["
+        + "@sling:resourceSuperType='kestros/commons/component' "
+        + "or @sling:resourceSuperType='/apps/kestros/commons/component' "
+        + "or @sling:resourceSuperType='/libs/kestros/commons/component'] | /jcr:root/libs//*["
+        + "@sling:resourceSuperType='kestros/commons/component' "
+        + "or @sling:resourceSuperType='/apps/kestros/commons/component' "
+        + "or @sling:resourceSuperType='/libs/kestros/commons/component']", "xpath");
+    verify(resolver, times(3)).findResources(anyString(), eq("xpath"));
+  }
+
+  @Test
+  public void testGetSubtypesExcludesRequestedResourceTypes() {
+    stubSubtypeQueries();
+
+    assertEquals(Collections.singleton("kestros/extending-type"),
+        ResourceTypeHierarchy.getSubtypes(
+            Arrays.asList("kestros/commons/component", "kestros/base-type"), resolver));
+  }
+
+  @Test
+  public void testGetSubtypesWhenPrimaryType() {
+    assertEquals(Collections.emptySet(),
+        ResourceTypeHierarchy.getSubtypes(Collections.singletonList("nt:unstructured"),
+            resolver));
+    verify(resolver, never()).findResources(anyString(), anyString());
+  }
+
+  @Test
+  public void testGetSubtypesWhenQueriesAreNotSupported() {
+    assertEquals(Collections.emptySet(),
+        ResourceTypeHierarchy.getSubtypes(Collections.singletonList("kestros/commons/component"),
+            resolver));
+  }
+
+  @Test
+  public void testGetSubtypesIsCachedWhenCachingEnabled() {
+    SlingModelCacheUtils.enableCaching();
+    stubSubtypeQueries();
+
+    ResourceTypeHierarchy.getSubtypes(Collections.singletonList("kestros/commons/component"),
+        resolver);
+    ResourceTypeHierarchy.getSubtypes(Collections.singletonList("kestros/commons/component"),
+        resolver);
+
+    verify(resolver, times(3)).findResources(anyString(), eq("xpath"));
+
+    SlingModelCacheUtils.invalidate("/apps/kestros/extending-type");
+    ResourceTypeHierarchy.getSubtypes(Collections.singletonList("kestros/commons/component"),
+        resolver);
+
+    verify(resolver, times(6)).findResources(anyString(), eq("xpath"));
+  }
+
+  @Test
+  public void testGetHierarchyWhenInvalidated() {
+    SlingModelCacheUtils.enableCaching();
+
+    ResourceTypeHierarchy.getHierarchy("kestros/extending-type", resolver);
+    SlingModelCacheUtils.invalidate("/libs/kestros/base-type");
+
+    assertEquals(0, ResourceTypeHierarchy.size());
+  }
+
+  private void stubSubtypeQueries() {
+    doAnswer(invocation -> {
+      String query = invocation.getArgument(0);
+      if (query.contains("='kestros/commons/component'")) {
+        return Collections.singletonList(
+            context.resourceResolver().getResource("/libs/kestros/base-type")).iterator();
+      }
+      if (query.contains("='kestros/base-type'")) {
+        return Collections.singletonList(
+            context.resourceResolver().getResource("/apps/kestros/extending-type")).iterator();
+      }
+      return Collections.emptyIterator();
+    }).when(resolver).findResources(anyString(), eq("xpath"));
+  }
+
+}
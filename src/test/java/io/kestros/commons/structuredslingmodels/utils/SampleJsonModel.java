@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import io.kestros.commons.structuredslingmodels.annotation.KestrosProperty;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.models.annotations.Model;
+
+@Model(adaptables = Resource.class,
+       resourceType = "kestros/commons/json-sample")
+public class SampleJsonModel extends BaseResource {
+
+  @KestrosProperty(description = "Count.")
+  public long getCount() {
+    return getLong("count", 0L);
+  }
+
+  @KestrosProperty(description = "Enabled.")
+  public boolean isEnabled() {
+    return getBoolean("enabled", false);
+  }
+
+  @KestrosProperty(description = "Tags.")
+  public List<String> getTags() {
+    return Arrays.asList(getProperties().get("tags", new String[]{}));
+  }
+
+  @KestrosProperty(description = "Published date.")
+  public Date getPublished() {
+    return getProperties().get("published", Date.class);
+  }
+
+  @JsonProperty("renamed")
+  @KestrosProperty(description = "Renamed property.")
+  public String getOriginalName() {
+    return "renamed-value";
+  }
+
+  @JsonIgnore
+  @KestrosProperty(description = "Ignored property.")
+  public String getIgnored() {
+    return "ignored";
+  }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import io.kestros.commons.structuredslingmodels.SampleSlingModel;
+import io.kestros.commons.structuredslingmodels.utilities.SampleResourceModel;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class SlingModelCacheUtilsTest {
+
+  @Rule
+  public final SlingContext context = new SlingContext();
+
+  private Resource resource;
+
+  private Map<String, Object> properties = new HashMap<>();
+
+  @Before
+  public void setUp() {
+    context.addModelsForPackage("io.kestros");
+    SlingModelCacheUtils.enableCaching();
+  }
+
+  @After
+  public void tearDown() {
+    SlingModelCacheUtils.disableCaching();
+  }
+
+  @Test
+  public void testIsCachingEnabled() {
+    assertTrue(SlingModelCacheUtils.isCachingEnabled());
+    SlingModelCacheUtils.disableCaching();
+    assertFalse(SlingModelCacheUtils.isCachingEnabled());
+  }
+
+  @Test
+  public void testIsValidResourceTypeIsCached() {
+    Map<String, Object> resourceTypeProperties = new HashMap<>();
+    resourceTypeProperties.put("sling:resourceSuperType", "kestros/commons/component");
+    context.create().resource("/apps/extending-resource-type", resourceTypeProperties);
+
+    properties.put("sling:resourceType", "extending-resource-type");
+    context.create().resource("/resource-1", properties);
+    context.create().resource("/resource-2", properties);
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+
+    assertTrue(SlingModelUtils.isValidResourceType(resolver.getResource("/resource-1"),
+        SampleResourceModel.class));
+    assertTrue(SlingModelUtils.isValidResourceType(resolver.getResource("/resource-2"),
+        SampleResourceModel.class));
+
+    assertEquals(1, ResourceTypeValidityCache.size());
+    verify(resolver, times(1)).getResource("extending-resource-type");
+  }
+
+  @Test
+  public void testIsValidResourceTypeCachesPerModelType() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource", properties);
+
+    assertTrue(SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class));
+    assertFalse(SlingModelUtils.isValidResourceType(resource, SampleSlingModel.class));
+
+    assertEquals(2, ResourceTypeValidityCache.size());
+  }
+
+  @Test
+  public void testIsValidResourceTypeCachesPerUser() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    properties.put("jcr:primaryType", "nt:unstructured");
+    resource = context.create().resource("/resource", properties);
+    ResourceResolver otherResolver = mock(ResourceResolver.class);
+    when(otherResolver.getUserID()).thenReturn("other-user");
+
+    assertTrue(SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class));
+
+    assertEquals(Boolean.TRUE, ResourceTypeValidityCache.get(context.resourceResolver(),
+        "kestros/commons/component", "nt:unstructured", SampleResourceModel.class));
+    assertNull(ResourceTypeValidityCache.get(otherResolver, "kestros/commons/component",
+        "nt:unstructured", SampleResourceModel.class));
+
+    ResourceTypeValidityCache.put(otherResolver, "kestros/commons/component", "nt:unstructured",
+        SampleResourceModel.class, false);
+
+    assertEquals(2, ResourceTypeValidityCache.size());
+    assertTrue(SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class));
+  }
+
+  @Test
+  public void testIsValidResourceTypeWhenModelMatchesAllResourceTypes() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource", properties);
+
+    assertTrue(SlingModelUtils.isValidResourceType(resource, BaseResource.class));
+
+    assertEquals(0, ResourceTypeValidityCache.size());
+  }
+
+  @Test
+  public void testIsValidResourceTypeWhenCachingDisabled() {
+    SlingModelCacheUtils.disableCaching();
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource", properties);
+
+    assertTrue(SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class));
+
+    assertEquals(0, ResourceTypeValidityCache.size());
+  }
+
+  @Test
+  public void testInvalidateWhenAppsResourceChanges() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource", properties);
+    SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class);
+
+    SlingModelCacheUtils.invalidate("/apps/kestros/commons/component");
+
+    assertEquals(0, ResourceTypeValidityCache.size());
+  }
+
+  @Test
+  public void testInvalidateWhenLibsResourceChanges() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource", properties);
+    SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class);
+
+    SlingModelCacheUtils.invalidate("/libs");
+
+    assertEquals(0, ResourceTypeValidityCache.size());
+  }
+
+  @Test
+  public void testInvalidateWhenContentResourceChanges() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource", properties);
+    SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class);
+
+    SlingModelCacheUtils.invalidate("/content/apps");
+
+    assertEquals(1, ResourceTypeValidityCache.size());
+  }
+
+  @Test
+  public void testInvalidateWhenUnrelatedAppsResourceChanges() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource", properties);
+    SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class);
+
+    SlingModelCacheUtils.invalidate("/apps/kestros/commons/other-component");
+    SlingModelCacheUtils.invalidate("/apps/kestros/commons/component-2");
+
+    assertEquals(1, ResourceTypeValidityCache.size());
+  }
+
+  @Test
+  public void testInvalidateWhenSuperTypeChanges() throws Exception {
+    Map<String, Object> resourceTypeProperties = new HashMap<>();
+    resourceTypeProperties.put("sling:resourceSuperType", "kestros/commons/component");
+    context.create().resource("/apps/extending-resource-type", resourceTypeProperties);
+    context.create().resource("/apps/other-resource-type");
+
+    properties.put("sling:resourceType", "extending-resource-type");
+    resource = context.create().resource("/resource-1", properties);
+    properties.put("sling:resourceType", "other-resource-type");
+    Resource otherResource = context.create().resource("/resource-2", properties);
+
+    SlingModelUtils.isValidResourceType(resource, SampleResourceModel.class);
+    SlingModelUtils.isValidResourceType(otherResource, SampleResourceModel.class);
+    assertEquals(2, ResourceTypeValidityCache.size());
+    assertEquals(2, ResourceTypeHierarchy.size());
+
+    SlingModelCacheUtils.invalidate("/libs/kestros/commons/component");
+
+    assertEquals(1, ResourceTypeValidityCache.size());
+    assertEquals(1, ResourceTypeHierarchy.size());
+  }
+
+  @Test
+  public void testInvalidateRemovesOverlaysBelowChangedPath() {
+    context.create().resource("/libs/kestros/commons/component");
+    context.create().resource("/libs/kestros/commons/other-component");
+    OverlayResolver.getEffectiveResource("kestros/commons/component", context.resourceResolver());
+    OverlayResolver.getEffectiveResource("kestros/commons/other-component",
+        context.resourceResolver());
+    assertEquals(2, OverlayResolver.size());
+
+    SlingModelCacheUtils.invalidate("/apps/kestros/commons/component");
+
+    assertEquals(1, OverlayResolver.size());
+  }
+
+  @Test
+  public void testIsObserved() {
+    assertTrue(SlingModelCacheUtils.isObserved("/content/page"));
+    assertFalse(SlingModelCacheUtils.isObserved("relative/path"));
+
+    SlingModelCacheUtils.enableCaching("/apps", "/libs", "glob:/content/**");
+
+    assertTrue(SlingModelCacheUtils.isObserved("/apps"));
+    assertTrue(SlingModelCacheUtils.isObserved("/libs/kestros/commons/component"));
+    assertFalse(SlingModelCacheUtils.isObserved("/content/page"));
+    assertFalse(SlingModelCacheUtils.isObserved("/apps-content"));
+  }
+
+  @Test
+  public void testDisableCachingObservesAllPaths() {
+    SlingModelCacheUtils.enableCaching("/apps");
+    SlingModelCacheUtils.disableCaching();
+
+    assertTrue(SlingModelCacheUtils.isObserved("/content/page"));
+  }
+
+}
@@ -24,14 +24,23 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import io.kestros.commons.structuredslingmodels.BaseResource;
 import io.kestros.commons.structuredslingmodels.exceptions.ChildResourceNotFoundException;
 import io.kestros.commons.structuredslingmodels.exceptions.InvalidResourceTypeException;
@@ -41,17 +50,32 @@ import io.kestros.commons.structuredslingmodels.exceptions.NoValidAncestorExcept
 import io.kestros.commons.structuredslingmodels.exceptions.ResourceNotFoundException;
 import io.kestros.commons.structuredslingmodels.utilities.SampleRequestModel;
 import io.kestros.commons.structuredslingmodels.utilities.SampleResourceModel;
+import java.io.StringWriter;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.Collectors;
 import org.apache.commons.collections.IteratorUtils;
+import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.factory.ModelFactory;
 import org.apache.sling.models.impl.ModelAdapterFactory;
+import org.apache.sling.testing.mock.sling.MockSling;
 import org.apache.sling.testing.mock.sling.junit.SlingContext;
 import org.junit.Before;
 import org.junit.Ignore;
@@ -173,7 +197,7 @@ public class SlingModelUtilsTest {
       exception = e;
     }
 
-    verify(resource, times(7)).getPath();
+    verify(resource, times(6)).getPath();
     assertNull(exception.getMessage(), baseResource);
   }
 
@@ -191,7 +215,7 @@ public class SlingModelUtilsTest {
     assertNotNull(resource);
     assertNotNull(baseResource);
 
-    verify(resource, times(4)).getPath();
+    verify(resource, times(3)).getPath();
     assertEquals("/resource-ui-framework", baseResource.getPath());
   }
 
@@ -227,10 +251,98 @@ public class SlingModelUtilsTest {
       exception = e;
     }
 
-    verify(resource, times(4)).getPath();
+    verify(resource, times(5)).getPath();
     assertNull(exception.getMessage(), baseResource);
   }
 
+  @Test
+  public void testTryAdaptTo() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource-ui-framework", properties);
+
+    assertTrue(SlingModelUtils.tryAdaptTo(resource, SampleResourceModel.class).isPresent());
+    assertEquals("/resource-ui-framework",
+        SlingModelUtils.tryAdaptTo(resource, SampleResourceModel.class).get().getPath());
+  }
+
+  @Test
+  public void testTryAdaptToWhenPassingBaseResource() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/resource-ui-framework", properties);
+    baseResource = Objects.requireNonNull(resource.adaptTo(BaseResource.class));
+
+    assertTrue(SlingModelUtils.tryAdaptTo(baseResource, SampleResourceModel.class).isPresent());
+  }
+
+  @Test
+  public void testTryAdaptToWhenInvalidResourceType() {
+    assertFalse(SlingModelUtils.tryAdaptTo(resource, SampleResourceModel.class).isPresent());
+  }
+
+  @Test
+  public void testTryAdaptToWhenModelIsNull() {
+    assertFalse(SlingModelUtils.tryAdaptTo(resource, SampleRequestModel.class).isPresent());
+  }
+
+  @Test
+  public void testTryAdaptToWhenJcrContentIsValid() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/resource-ui-framework");
+    context.create().resource("/resource-ui-framework/jcr:content", properties);
+
+    assertEquals("/resource-ui-framework",
+        SlingModelUtils.tryAdaptTo(resource, SampleResourceModel.class).get().getPath());
+  }
+
+  @Test
+  public void testTryAdaptToWhenJcrContentIsInvalid() {
+    resource = context.create().resource("/resource-ui-framework");
+    context.create().resource("/resource-ui-framework/jcr:content");
+
+    assertFalse(SlingModelUtils.tryAdaptTo(resource, SampleResourceModel.class).isPresent());
+  }
+
+  @Test
+  public void testTryAdaptToWhenJcrContentIsValidAdaptsOnce() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = spy(context.create().resource("/resource-ui-framework"));
+    Resource jcrContent = spy(
+        context.create().resource("/resource-ui-framework/jcr:content", properties));
+    doReturn(jcrContent).when(resource).getChild("jcr:content");
+
+    assertTrue(SlingModelUtils.tryAdaptTo(resource, SampleResourceModel.class).isPresent());
+
+    verify(resource, times(1)).adaptTo(SampleResourceModel.class);
+    verify(jcrContent, never()).adaptTo(any());
+  }
+
+  @Test
+  public void testTryAdaptToWhenResourceIsValidDoesNotCheckJcrContent() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = spy(context.create().resource("/resource-ui-framework", properties));
+    context.create().resource("/resource-ui-framework/jcr:content", properties);
+
+    assertTrue(SlingModelUtils.tryAdaptTo(resource, SampleResourceModel.class).isPresent());
+
+    verify(resource, times(1)).adaptTo(SampleResourceModel.class);
+    verify(resource, never()).getChild("jcr:content");
+  }
+
+  @Test
+  public void testTryAdaptToWhenNestedJcrContentIsValid() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/resource-ui-framework");
+    context.create().resource("/resource-ui-framework/jcr:content");
+    context.create().resource("/resource-ui-framework/jcr:content/jcr:content", properties);
+
+    assertEquals("/resource-ui-framework",
+        SlingModelUtils.tryAdaptTo(resource, SampleResourceModel.class).get().getPath());
+  }
+
   @Test
   public void testAdaptToBaseResource() {
     assertEquals("/resource", SlingModelUtils.adaptToBaseResource(resource).getPath());
@@ -464,6 +576,58 @@ public class SlingModelUtilsTest {
         exception.getMessage());
   }
 
+  @Test
+  public void testTryGetChildAsType() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/resource-with-child-framework");
+    context.create().resource("/resource-with-child-framework/ui-framework", properties);
+
+    assertEquals("/resource-with-child-framework/ui-framework",
+        SlingModelUtils.tryGetChildAsType("ui-framework", resource,
+            SampleResourceModel.class).get().getPath());
+    assertTrue(SlingModelUtils.tryGetChildAsType("ui-framework",
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)),
+        SampleResourceModel.class).isPresent());
+  }
+
+  @Test
+  public void testTryGetChildAsTypeWhenHasJcrContent() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/resource-with-child-framework");
+    context.create().resource("/resource-with-child-framework/jcr:content");
+    context.create().resource("/resource-with-child-framework/jcr:content/ui-framework",
+        properties);
+
+    assertEquals("/resource-with-child-framework/jcr:content/ui-framework",
+        SlingModelUtils.tryGetChildAsType("ui-framework", resource,
+            SampleResourceModel.class).get().getPath());
+  }
+
+  @Test
+  public void testTryGetChildAsTypeWhenChildIsInvalid() {
+    resource = context.create().resource("/resource-with-child-framework");
+    context.create().resource("/resource-with-child-framework/ui-framework");
+
+    assertFalse(SlingModelUtils.tryGetChildAsType("ui-framework", resource,
+        SampleResourceModel.class).isPresent());
+  }
+
+  @Test
+  public void testTryGetChildAsTypeWhenChildResourceDoesNotExist() {
+    resource = context.create().resource("/resource-with-child-framework");
+    context.create().resource("/resource-with-child-framework/jcr:content");
+
+    assertFalse(SlingModelUtils.tryGetChildAsType("ui-framework", resource,
+        BaseResource.class).isPresent());
+  }
+
+  @Test
+  public void testTryGetChildAsTypeWhenChildNameIsBlank() {
+    assertFalse(SlingModelUtils.tryGetChildAsType("", resource, BaseResource.class).isPresent());
+  }
+
   @Test
   public void testGetChildAsTypeBaseResource() throws Exception {
     context.create().resource("/resource/child");
@@ -605,7 +769,7 @@ public class SlingModelUtilsTest {
 
     SlingModelUtils.getChildrenOfType(resource, SampleResourceModel.class);
 
-    verify(childResource, times(8)).getPath();
+    verify(childResource, times(4)).getPath();
     assertEquals(0, SlingModelUtils.getChildrenOfType(resource, SampleResourceModel.class).size());
   }
 
@@ -631,7 +795,66 @@ public class SlingModelUtilsTest {
     assertEquals("ui-framework-1", frameworkList.get(0).getName());
     assertEquals("ui-framework-2", frameworkList.get(1).getName());
 
-    verify(resource, times(8)).getPath();
+    verify(resource, never()).getChildren();
+    verify(resource).getChild("ui-framework-1");
+    verify(resource).getChild("ui-framework-2");
+  }
+
+  @Test
+  public void testGetChildrenOfTypeWhenFilteringAllowedResourceNamesPreservesNameOrder() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/resource-with-multiple-children");
+    context.create().resource("/resource-with-multiple-children/ui-framework-1", properties);
+    context.create().resource("/resource-with-multiple-children/ui-framework-2", properties);
+    context.create().resource("/resource-with-multiple-children/ui-framework-3", properties);
+    context.create().resource("/resource-with-multiple-children/unstructured-resource-1");
+
+    List<SampleResourceModel> frameworkList = SlingModelUtils.getChildrenOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)),
+        Arrays.asList("ui-framework-3", "missing", "unstructured-resource-1", "ui-framework-1",
+            "ui-framework-3"), SampleResourceModel.class);
+
+    assertEquals(2, frameworkList.size());
+    assertEquals("ui-framework-3", frameworkList.get(0).getName());
+    assertEquals("ui-framework-1", frameworkList.get(1).getName());
+  }
+
+  @Test
+  public void testGetChildrenOfTypeWhenMoreAllowedResourceNamesThanChildren() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/resource-with-multiple-children");
+    context.create().resource("/resource-with-multiple-children/ui-framework-1", properties);
+    context.create().resource("/resource-with-multiple-children/ui-framework-2", properties);
+
+    resource = spy(resource);
+
+    List<SampleResourceModel> frameworkList = SlingModelUtils.getChildrenOfType(resource,
+        Arrays.asList("ui-framework-2", "ui-framework-1", "missing-1", "missing-2"),
+        SampleResourceModel.class);
+
+    assertEquals(2, frameworkList.size());
+    assertEquals("ui-framework-2", frameworkList.get(0).getName());
+    assertEquals("ui-framework-1", frameworkList.get(1).getName());
+    verify(resource, never()).getChild(anyString());
+  }
+
+  @Test
+  public void testGetChildrenOfTypeWhenAllowedResourceNamesAreRelativePaths() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/parent", properties);
+    context.create().resource("/parent/resource", properties);
+    context.create().resource("/parent/resource/child", properties);
+    context.create().resource("/parent/resource/child/grand-child", properties);
+    for (int i = 0; i < 4; i++) {
+      context.create().resource("/parent/resource/sibling-" + i, properties);
+    }
+    resource = context.resourceResolver().getResource("/parent/resource");
+
+    assertEquals(0, SlingModelUtils.getChildrenOfType(resource,
+        Arrays.asList("..", ".", "child/grand-child", ""), SampleResourceModel.class).size());
   }
 
   @Test
@@ -891,6 +1114,91 @@ public class SlingModelUtilsTest {
         SampleFile.class).size());
   }
 
+  @Test
+  public void testGetResourcesAsTypeWhenUsingExecutor() throws Exception {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    List<String> paths = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      context.create().resource("/resource-" + i, properties);
+      paths.add("/resource-" + i);
+    }
+    context.create().resource("/invalid-resource");
+    paths.add(10, "/invalid-resource");
+    paths.add(20, "/missing-resource");
+    paths.add(30, "");
+    context.resourceResolver().commit();
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doAnswer(invocation -> {
+      ResourceResolver clonedResolver = spy(context.resourceResolver());
+      doNothing().when(clonedResolver).close();
+      return clonedResolver;
+    }).when(resolver).clone(any());
+
+    // Sling Mock registers Model adapters per thread.
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    Executor executor = task -> pool.execute(() -> {
+      MockSling.setAdapterManagerBundleContext(context.bundleContext());
+      try {
+        task.run();
+      } finally {
+        MockSling.clearAdapterManagerBundleContext();
+      }
+    });
+    try (ModelAdaptionResults<SampleResourceModel> results = SlingModelUtils.getResourcesAsType(
+        paths, resolver, SampleResourceModel.class, executor, 4)) {
+
+      assertEquals(100, results.getModels().size());
+      for (int i = 0; i < 100; i++) {
+        assertEquals("/resource-" + i, results.getModels().get(i).getPath());
+      }
+      assertFalse(results.isSuccessful());
+      assertEquals(Arrays.asList("/invalid-resource", "/missing-resource", ""),
+          new ArrayList<>(results.getFailures().keySet()));
+      assertTrue(results.getFailures().get(
+          "/invalid-resource") instanceof InvalidResourceTypeException);
+      assertTrue(results.getFailures().get(
+          "/missing-resource") instanceof ResourceNotFoundException);
+      assertEquals("Unable to adapt '': Resource path not specified.",
+          results.getFailures().get("").getMessage());
+      verify(resolver, times(4)).clone(any());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testGetResourcesAsTypeWhenUsingExecutorAndParallelismIsOne() throws Exception {
+    context.create().resource("/resource-1", properties);
+    context.create().resource("/resource-2", properties);
+    ResourceResolver resolver = spy(context.resourceResolver());
+    Executor executor = mock(Executor.class);
+
+    try (ModelAdaptionResults<BaseResource> results = SlingModelUtils.getResourcesAsType(
+        Arrays.asList("/resource-1", "/resource-2"), resolver, BaseResource.class, executor, 1)) {
+      assertEquals(2, results.getModels().size());
+      assertTrue(results.isSuccessful());
+    }
+    verify(resolver, never()).clone(any());
+    verify(executor, never()).execute(any());
+  }
+
+  @Test
+  public void testGetResourcesAsTypeWhenUsingExecutorAndResolverCannotBeCloned()
+      throws Exception {
+    context.create().resource("/resource-1", properties);
+    context.create().resource("/resource-2", properties);
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doThrow(new LoginException()).when(resolver).clone(any());
+    Executor executor = mock(Executor.class);
+
+    try (ModelAdaptionResults<BaseResource> results = SlingModelUtils.getResourcesAsType(
+        Arrays.asList("/resource-1", "/resource-2"), resolver, BaseResource.class, executor, 2)) {
+      assertEquals(2, results.getModels().size());
+    }
+    verify(executor, never()).execute(any());
+  }
+
   @Test
   public void testGetParentResourceAsType() throws Exception {
     properties.put("sling:resourceType", "kestros/commons/component");
@@ -1110,6 +1418,124 @@ public class SlingModelUtilsTest {
         exception.getMessage());
   }
 
+  @Test
+  public void testGetFirstAncestorOfTypeWhenTreeIsDeep() throws NoValidAncestorException {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    StringBuilder path = new StringBuilder("/deep");
+    context.create().resource(path.toString(), properties);
+    for (int i = 0; i < 20; i++) {
+      path.append("/d");
+      context.create().resource(path.toString());
+    }
+    resource = context.resourceResolver().getResource(path.toString());
+
+    assertEquals("/deep",
+        SlingModelUtils.getFirstAncestorOfType(resource, SampleResourceModel.class).getPath());
+  }
+
+  @Test
+  public void testGetFirstAncestorOfTypeWhenNoValidResourcesAreFoundHasNoCauseChain() {
+    StringBuilder path = new StringBuilder("/deep");
+    context.create().resource(path.toString());
+    for (int i = 0; i < 20; i++) {
+      path.append("/d");
+      context.create().resource(path.toString());
+    }
+    resource = context.resourceResolver().getResource(path.toString());
+
+    try {
+      SlingModelUtils.getFirstAncestorOfType(resource, SampleResourceModel.class);
+    } catch (NoValidAncestorException e) {
+      exception = e;
+    }
+    assertNotNull(exception);
+    assertNull(exception.getCause());
+  }
+
+  @Test
+  public void testTryGetFirstAncestorOfType() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    context.create().resource("/parent", properties);
+    context.create().resource("/parent/child", properties);
+    context.create().resource("/parent/child/grand-child");
+    resource = context.create().resource("/parent/child/grand-child/great-grand-child");
+
+    assertEquals("/parent/child",
+        SlingModelUtils.tryGetFirstAncestorOfType(resource, SampleResourceModel.class).get()
+            .getPath());
+    assertEquals("/parent/child", SlingModelUtils.tryGetFirstAncestorOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)),
+        SampleResourceModel.class).get().getPath());
+  }
+
+  @Test
+  public void testTryGetFirstAncestorOfTypeWhenPassedResourceIsValidType() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    context.create().resource("/parent");
+    resource = context.create().resource("/parent/child", properties);
+
+    assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(resource,
+        SampleResourceModel.class).isPresent());
+  }
+
+  @Test
+  public void testTryGetFirstAncestorOfTypeWhenNoValidResourcesAreFound() {
+    context.create().resource("/parent");
+    context.create().resource("/parent/child");
+    resource = context.create().resource("/parent/child/grand-child");
+
+    assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(resource,
+        SampleResourceModel.class).isPresent());
+  }
+
+  @Test
+  public void testTryGetFirstAncestorOfTypeWhenUsingTraversalOptions() {
+    resource = createDescendantTree();
+    Resource descendant = Objects.requireNonNull(
+        context.resourceResolver().getResource("/tree/node-1/node-0/node-1"));
+
+    Optional<SampleResourceModel> ancestor = SlingModelUtils.tryGetFirstAncestorOfType(descendant,
+        SampleResourceModel.class, TraversalOptions.unbounded());
+    assertTrue(ancestor.isPresent());
+    assertEquals("/tree/node-1", ancestor.get().getPath());
+
+    assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(
+        Objects.requireNonNull(descendant.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxDepth(1)).isPresent());
+    assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(descendant, SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxVisitedNodes(1)).isPresent());
+    assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(resource, SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxDepth(5)).isPresent());
+  }
+
+  @Test
+  public void testTryGetFirstAncestorOfTypeWhenUsingTraversalOptionsAndCaching() throws Exception {
+    resource = createDescendantTree();
+    context.resourceResolver().commit();
+    SlingModelCacheUtils.enableCaching();
+    try {
+      Resource descendant = Objects.requireNonNull(
+          context.resourceResolver().getResource("/tree/node-1/node-0/node-1"));
+
+      assertTrue(SlingModelUtils.tryGetFirstAncestorOfType(descendant, SampleResourceModel.class,
+          TraversalOptions.unbounded()).isPresent());
+      assertTrue(AncestorTypeCache.size() > 0);
+
+      // The cached ancestor is two levels up.
+      assertFalse(SlingModelUtils.tryGetFirstAncestorOfType(descendant, SampleResourceModel.class,
+          TraversalOptions.unbounded().withMaxDepth(1)).isPresent());
+      Optional<SampleResourceModel> ancestor = SlingModelUtils.tryGetFirstAncestorOfType(
+          descendant, SampleResourceModel.class, TraversalOptions.unbounded().withMaxDepth(2));
+      assertTrue(ancestor.isPresent());
+      assertEquals("/tree/node-1", ancestor.get().getPath());
+    } finally {
+      SlingModelCacheUtils.disableCaching();
+    }
+  }
+
   @Test
   public void testGetAllDescendantsOfType() {
     properties.put("sling:resourceType", "kestros/commons/component");
@@ -1189,65 +1615,949 @@ public class SlingModelUtilsTest {
 
 
   @Test
-  public void testGetResourceAsClosestType() throws InvalidResourceTypeException {
-
+  public void testGetAllDescendantsOfTypeAdaptsEachResourceOnce() throws Exception {
     properties.put("sling:resourceType", "kestros/commons/component");
-    resource = context.create().resource("/sample-resource", properties);
-
-    ModelAdapterFactory modelAdapterFactory = mock(ModelAdapterFactory.class);
 
-    when(modelAdapterFactory.getModelFromResource(resource)).thenReturn(
-        resource.adaptTo(SampleResourceModel.class));
+    resource = context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent-framework-1", properties);
+    context.create().resource("/grand-parent/parent-framework-1/child-framework", properties);
+    context.create().resource("/grand-parent/parent-framework-1/child-unstructured");
+    context.create().resource("/grand-parent/parent-unstructured-1");
+    context.create().resource("/grand-parent/parent-unstructured-1/child-framework", properties);
+    context.resourceResolver().commit();
 
-    assertNotNull(SlingModelUtils.getResourceAsClosestType(resource, modelAdapterFactory));
+    AdaptedModelCache cache = AdaptedModelCache.register(context.request());
 
-    assertEquals("/sample-resource",
-        SlingModelUtils.getResourceAsClosestType(resource, modelAdapterFactory).getPath());
-    assertEquals("SampleResourceModel", SlingModelUtils.getResourceAsClosestType(resource,
-        modelAdapterFactory).getClass().getSimpleName());
+    assertEquals(3, SlingModelUtils.getAllDescendantsOfType(resource,
+        SampleResourceModel.class).size());
+    // One lookup per descendant, plus one BaseResource lookup for the unmatched parent.
+    assertEquals(6, cache.getMissCount());
+    assertEquals(0, cache.getHitCount());
   }
 
   @Test
-  public void testGetResourceAsClosestTypeWhenNotExtendingBaseResource() {
-
+  public void testGetAllDescendantsOfTypeWhenTreeIsDeep() {
     properties.put("sling:resourceType", "kestros/commons/component");
-    resource = context.create().resource("/sample-resource", properties);
 
-    ModelAdapterFactory modelAdapterFactory = mock(ModelAdapterFactory.class);
+    StringBuilder path = new StringBuilder("/deep");
+    resource = context.create().resource(path.toString());
+    for (int i = 0; i < 500; i++) {
+      path.append("/d");
+      context.create().resource(path.toString());
+    }
+    context.create().resource(path.append("/match").toString(), properties);
 
-    when(modelAdapterFactory.getModelFromResource(resource)).thenReturn(
-        resource.adaptTo(Resource.class));
+    List<SampleResourceModel> descendants = SlingModelUtils.getAllDescendantsOfType(resource,
+        SampleResourceModel.class);
 
-    try {
-      assertNull(SlingModelUtils.getResourceAsClosestType(resource, modelAdapterFactory));
-    } catch (MatchingResourceTypeNotFoundException e) {
-      exception = e;
+    assertEquals(1, descendants.size());
+    assertEquals(path.toString(), descendants.get(0).getPath());
+  }
+
+  @Test
+  public void testGetAllDescendantsOfTypeWhenUsingForkJoinPool() throws Exception {
+    resource = createDescendantTree();
+    List<String> expectedPaths = new ArrayList<>();
+    for (SampleResourceModel model : SlingModelUtils.getAllDescendantsOfType(resource,
+        SampleResourceModel.class)) {
+      expectedPaths.add(model.getPath());
     }
-    assertEquals(
-        "Unable to retrieve model for /sample-resource: No matching Sling Model type found.",
-        exception.getMessage());
+    assertEquals(36, expectedPaths.size());
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doAnswer(invocation -> {
+      ResourceResolver clonedResolver = spy(context.resourceResolver());
+      doNothing().when(clonedResolver).close();
+      return clonedResolver;
+    }).when(resolver).clone(any());
+
+    ForkJoinPool pool = createForkJoinPool();
+    try (TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        Objects.requireNonNull(resolver.getResource("/tree")), SampleResourceModel.class, pool)) {
+      assertEquals(expectedPaths, results.getModels().stream().map(
+          BaseResource::getPath).collect(Collectors.toList()));
+    } finally {
+      pool.shutdown();
+    }
+    verify(resolver, atLeastOnce()).clone(any());
   }
 
   @Test
-  public void testGetChildrenAsClosestTypes() {
+  public void testGetAllDescendantsOfTypeWhenUsingForkJoinPoolAndResolverCannotBeCloned() {
+    resource = createDescendantTree();
 
-    Map<String, Object> fileProperties = new HashMap<>();
-    context.create().resource("/resource/child-1", fileProperties);
-    context.create().resource("/resource/child-2", fileProperties);
-    context.create().resource("/resource/child-3", fileProperties);
+    ForkJoinPool pool = createForkJoinPool();
+    try (TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        pool)) {
+      assertEquals(36, results.getModels().size());
+      assertEquals("/tree/node-0", results.getModels().get(0).getPath());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testGetAllDescendantsAsClosestTypeWhenUsingForkJoinPool() throws Exception {
+    resource = createDescendantTree();
 
     ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenAnswer(
+        invocation -> invocation.getArgument(0, Resource.class).adaptTo(BaseResource.class));
+    List<BaseResource> expected = SlingModelUtils.getAllDescendantsAsClosestType(resource,
+        factory);
+    assertEquals(84, expected.size());
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doAnswer(invocation -> {
+      ResourceResolver clonedResolver = spy(context.resourceResolver());
+      doNothing().when(clonedResolver).close();
+      return clonedResolver;
+    }).when(resolver).clone(any());
+
+    ForkJoinPool pool = createForkJoinPool();
+    try (TraversalResults<BaseResource> results = SlingModelUtils.getAllDescendantsAsClosestType(
+        Objects.requireNonNull(
+            Objects.requireNonNull(resolver.getResource("/tree")).adaptTo(BaseResource.class)),
+        factory, pool)) {
+      assertEquals(expected.stream().map(BaseResource::getPath).collect(Collectors.toList()),
+          results.getModels().stream().map(BaseResource::getPath).collect(Collectors.toList()));
+    } finally {
+      pool.shutdown();
+    }
+  }
 
-    when(factory.getModelFromResource(any(Resource.class))).thenReturn(
-        resource.adaptTo(BaseResource.class));
+  @Test
+  public void testGetAllDescendantsOfTypeWhenUsingTraversalOptions() {
+    resource = createDescendantTree();
 
-    assertEquals(3, SlingModelUtils.getChildrenAsClosestTypes(resource, factory).size());
+    TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        resource, SampleResourceModel.class, TraversalOptions.unbounded());
+    assertEquals(36, results.getModels().size());
+    assertFalse(results.isTruncated());
+
+    results = SlingModelUtils.getAllDescendantsOfType(resource, SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxDepth(3));
+    assertEquals(36, results.getModels().size());
+    assertFalse(results.isTruncated());
   }
 
   @Test
-  public void testGetChildrenAsClosestTypesWhenNonBaseResourceReturned() {
+  public void testGetAllDescendantsOfTypeWhenLimitingDepth() {
+    resource = createDescendantTree();
 
-    Map<String, Object> fileProperties = new HashMap<>();
+    TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxDepth(1));
+
+    assertEquals(Arrays.asList("/tree/node-0", "/tree/node-1", "/tree/node-2", "/tree/node-3"),
+        results.getModels().stream().map(BaseResource::getPath).collect(Collectors.toList()));
+    assertTrue(results.isTruncated());
+  }
+
+  @Test
+  public void testGetAllDescendantsOfTypeWhenLimitingResults() {
+    resource = createDescendantTree();
+    List<SampleResourceModel> allDescendants = SlingModelUtils.getAllDescendantsOfType(resource,
+        SampleResourceModel.class);
+
+    TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        resource, SampleResourceModel.class, TraversalOptions.unbounded().withMaxResults(5));
+
+    assertEquals(allDescendants.subList(0, 5).stream().map(BaseResource::getPath).collect(
+        Collectors.toList()), results.getModels().stream().map(BaseResource::getPath).collect(
+        Collectors.toList()));
+    assertTrue(results.isTruncated());
+  }
+
+  @Test
+  public void testGetAllDescendantsOfTypeWhenLimitingVisitedNodes() {
+    resource = createDescendantTree();
+
+    TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        resource, SampleResourceModel.class, TraversalOptions.unbounded().withMaxVisitedNodes(6));
+
+    // 4 top level nodes, then the first 2 children of /tree/node-0.
+    assertEquals(4, results.getModels().size());
+    assertTrue(results.isTruncated());
+  }
+
+  @Test
+  public void testGetAllDescendantsOfTypeWhenDeadlineHasPassed() {
+    resource = createDescendantTree();
+
+    TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        resource, SampleResourceModel.class, TraversalOptions.unbounded().withTimeout(
+            Duration.ZERO));
+
+    assertEquals(0, results.getModels().size());
+    assertTrue(results.isTruncated());
+  }
+
+  @Test
+  public void testGetAllDescendantsOfTypeWhenLimitingDepthOfQueryResults() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent", properties);
+    context.create().resource("/grand-parent/parent/child/grand-child", properties);
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doReturn(Arrays.asList(resolver.getResource("/grand-parent/parent"),
+        resolver.getResource("/grand-parent/parent/child/grand-child")).iterator()).when(
+        resolver).findResources(anyString(), eq("xpath"));
+
+    TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        Objects.requireNonNull(resolver.getResource("/grand-parent")), SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxDepth(2));
+
+    assertEquals(1, results.getModels().size());
+    assertEquals("/grand-parent/parent", results.getModels().get(0).getPath());
+    assertTrue(results.isTruncated());
+  }
+
+  @Test
+  public void testGetAllDescendantsAsClosestTypeWhenLimitingDepth() {
+    resource = createDescendantTree();
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenAnswer(
+        invocation -> invocation.getArgument(0, Resource.class).adaptTo(BaseResource.class));
+
+    TraversalResults<BaseResource> results = SlingModelUtils.getAllDescendantsAsClosestType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), factory,
+        TraversalOptions.unbounded().withMaxDepth(2));
+
+    assertEquals(20, results.getModels().size());
+    assertTrue(results.isTruncated());
+    assertEquals(84, SlingModelUtils.getAllDescendantsAsClosestType(resource, factory,
+        TraversalOptions.unbounded()).getModels().size());
+  }
+
+  @Test
+  public void testGetAllDescendantsOfTypeWhenUsingForkJoinPoolAndLimitingResults()
+      throws Exception {
+    resource = createDescendantTree();
+    List<SampleResourceModel> allDescendants = SlingModelUtils.getAllDescendantsOfType(resource,
+        SampleResourceModel.class);
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doAnswer(invocation -> {
+      ResourceResolver clonedResolver = spy(context.resourceResolver());
+      doNothing().when(clonedResolver).close();
+      return clonedResolver;
+    }).when(resolver).clone(any());
+
+    ForkJoinPool pool = createForkJoinPool();
+    try (TraversalResults<SampleResourceModel> results = SlingModelUtils.getAllDescendantsOfType(
+        Objects.requireNonNull(resolver.getResource("/tree")), SampleResourceModel.class, pool,
+        TraversalOptions.unbounded().withMaxResults(5))) {
+      // Tasks stop once 5 Models are found, so they are not necessarily the first 5.
+      List<String> allPaths = allDescendants.stream().map(BaseResource::getPath).collect(
+          Collectors.toList());
+      assertEquals(5, results.getModels().size());
+      int previousIndex = -1;
+      for (SampleResourceModel model : results.getModels()) {
+        int index = allPaths.indexOf(model.getPath());
+        assertTrue(index > previousIndex);
+        previousIndex = index;
+      }
+      assertTrue(results.isTruncated());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testGetAllDescendantsAsClosestTypeWhenUsingForkJoinPoolAndLimitingDepth() {
+    resource = createDescendantTree();
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenAnswer(
+        invocation -> invocation.getArgument(0, Resource.class).adaptTo(BaseResource.class));
+
+    ForkJoinPool pool = createForkJoinPool();
+    try (TraversalResults<BaseResource> results = SlingModelUtils.getAllDescendantsAsClosestType(
+        resource, factory, pool, TraversalOptions.unbounded().withMaxDepth(2))) {
+      assertEquals(20, results.getModels().size());
+      assertTrue(results.isTruncated());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testGetAllDescendantsOfTypeWhenQueriesAreSupported() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent-framework-1", properties);
+    context.create().resource("/grand-parent/parent-framework-2", properties);
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doReturn(Arrays.asList(resolver.getResource("/grand-parent/parent-framework-2"),
+        resolver.getResource("/grand-parent/parent-framework-1")).iterator()).when(
+        resolver).findResources(anyString(), eq("xpath"));
+    resource = resolver.getResource("/grand-parent");
+
+    List<SampleResourceModel> descendants = SlingModelUtils.getAllDescendantsOfType(resource,
+        SampleResourceModel.class);
+
+    assertEquals(2, descendants.size());
+    assertEquals("/grand-parent/parent-framework-2", descendants.get(0).getPath());
+    assertEquals("/grand-parent/parent-framework-1", descendants.get(1).getPath());
+    verify(resolver, times(1)).findResources(
+        "/jcr:root/grand-parent//*[@sling:resourceType='kestros/commons/component']", "xpath");
+  }
+
+  @Test
+  public void testGetAllDescendantsOfTypeWhenIncludingSubtypes() {
+    Map<String, Object> subtypeProperties = new HashMap<>();
+    subtypeProperties.put("sling:resourceSuperType", "kestros/commons/component");
+    context.create().resource("/apps/kestros/commons/extending-component", subtypeProperties);
+    properties.put("sling:resourceType", "kestros/commons/extending-component");
+    context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent-extending", properties);
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doAnswer(invocation -> {
+      if (invocation.getArgument(0, String.class).contains("sling:resourceSuperType")) {
+        return Collections.singletonList(
+            resolver.getResource("/apps/kestros/commons/extending-component")).iterator();
+      }
+      return Collections.singletonList(
+          resolver.getResource("/grand-parent/parent-extending")).iterator();
+    }).when(resolver).findResources(anyString(), eq("xpath"));
+    resource = resolver.getResource("/grand-parent");
+
+    assertEquals(1, SlingModelUtils.getAllDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        true).size());
+    verify(resolver, times(1)).findResources("/jcr:root/grand-parent//*["
+        + "@sling:resourceType='kestros/commons/component' "
+        + "or @sling:resourceType='kestros/commons/extending-component']", "xpath");
+  }
+
+  @Test
+  public void testGetDescendantQuery() {
+    resource = context.create().resource("/grand-parent/2019");
+
+    assertEquals("/jcr:root/grand-parent/_x0032_019//*[@sling:resourceType='my-app/component' "
+            + "or @jcr:primaryType='nt:unstructured' or @sling:resourceType='my-app/o''brien']",
+        SlingModelUtils.getDescendantQuery(resource,
+            Arrays.asList("my-app/component", "nt:unstructured", "my-app/o'brien")));
+  }
+
+  @Test
+  public void testStreamAllDescendantsOfType() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/grand-parent");
+
+    context.create().resource("/grand-parent/parent-framework-1", properties);
+    context.create().resource("/grand-parent/parent-framework-1/child-framework", properties);
+    context.create().resource("/grand-parent/parent-framework-1/child-unstructured");
+    context.create().resource("/grand-parent/parent-unstructured-1");
+    context.create().resource("/grand-parent/parent-unstructured-1/child-framework", properties);
+    context.create().resource("/grand-parent/parent-unstructured-1/child-unstructured");
+
+    assertEquals(Arrays.asList("/grand-parent/parent-framework-1",
+        "/grand-parent/parent-framework-1/child-framework",
+        "/grand-parent/parent-unstructured-1/child-framework"),
+        SlingModelUtils.streamAllDescendantsOfType(resource, SampleResourceModel.class).map(
+            BaseResource::getPath).collect(Collectors.toList()));
+    assertEquals(Arrays.asList("/grand-parent/parent-framework-1",
+        "/grand-parent/parent-framework-1/child-framework"),
+        SlingModelUtils.streamAllDescendantsOfType(resource, SampleResourceModel.class).limit(
+            2).map(BaseResource::getPath).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testIterateAllDescendantsOfType() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/grand-parent");
+
+    context.create().resource("/grand-parent/parent-unstructured-1");
+    context.create().resource("/grand-parent/parent-unstructured-1/child-framework", properties);
+    context.create().resource("/grand-parent/parent-unstructured-2");
+
+    Iterator<SampleResourceModel> iterator = SlingModelUtils.iterateAllDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class);
+
+    assertTrue(iterator.hasNext());
+    assertTrue(iterator.hasNext());
+    assertEquals("/grand-parent/parent-unstructured-1/child-framework",
+        iterator.next().getPath());
+    assertFalse(iterator.hasNext());
+    try {
+      iterator.next();
+      fail();
+    } catch (NoSuchElementException exception) {
+      assertNull(exception.getMessage());
+    }
+  }
+
+  @Test
+  public void testIterateAllDescendantsOfTypeWhenNoDescendants() {
+    resource = context.create().resource("/grand-parent");
+
+    assertFalse(SlingModelUtils.iterateAllDescendantsOfType(resource,
+        SampleResourceModel.class).hasNext());
+  }
+
+  @Test
+  public void testStreamAllDescendantsAsClosestType() {
+    resource = context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent-1");
+    context.create().resource("/grand-parent/parent-1/child-1");
+    context.create().resource("/grand-parent/parent-2");
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenAnswer(
+        invocation -> invocation.getArgument(0, Resource.class).adaptTo(BaseResource.class));
+
+    assertEquals(Arrays.asList("/grand-parent/parent-1", "/grand-parent/parent-2",
+        "/grand-parent/parent-1/child-1"),
+        SlingModelUtils.streamAllDescendantsAsClosestType(
+            Objects.requireNonNull(resource.adaptTo(BaseResource.class)), factory).map(
+            BaseResource::getPath).collect(Collectors.toList()));
+    assertEquals(3, SlingModelUtils.getAllDescendantsAsClosestType(resource, factory).size());
+    assertEquals("/grand-parent/parent-1",
+        SlingModelUtils.iterateAllDescendantsAsClosestType(resource, factory).next().getPath());
+  }
+
+  @Test
+  public void testStreamAllDescendantsAsClosestTypeWhenNonBaseResourceReturned() {
+    resource = context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent-1");
+    context.create().resource("/grand-parent/parent-1/child-1");
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenReturn(resource);
+
+    assertEquals(0, SlingModelUtils.streamAllDescendantsAsClosestType(resource, factory).count());
+  }
+
+
+  @Test
+  public void testVisitDescendants() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+
+    assertTrue(SlingModelUtils.visitDescendants(resource, descendant -> {
+      visitedPaths.add(descendant.getPath());
+      return VisitResult.CONTINUE;
+    }));
+
+    assertEquals(84, visitedPaths.size());
+    assertEquals("/tree/node-0", visitedPaths.get(0));
+    assertEquals("/tree/node-0/node-0", visitedPaths.get(1));
+    assertEquals("/tree/node-0/node-0/node-0", visitedPaths.get(2));
+    assertEquals("/tree/node-0/node-1", visitedPaths.get(6));
+    assertEquals("/tree/node-1", visitedPaths.get(21));
+  }
+
+  @Test
+  public void testVisitDescendantsWhenSkippingSubtree() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+
+    assertTrue(SlingModelUtils.visitDescendants(resource.adaptTo(BaseResource.class),
+        descendant -> {
+          visitedPaths.add(descendant.getPath());
+          if ("/tree/node-1".equals(descendant.getPath())) {
+            return VisitResult.SKIP_SUBTREE;
+          }
+          return VisitResult.CONTINUE;
+        }));
+
+    assertEquals(64, visitedPaths.size());
+    assertTrue(visitedPaths.contains("/tree/node-1"));
+    assertFalse(visitedPaths.contains("/tree/node-1/node-0"));
+    assertTrue(visitedPaths.contains("/tree/node-2/node-0"));
+  }
+
+  @Test
+  public void testVisitDescendantsWhenTerminating() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+
+    assertFalse(SlingModelUtils.visitDescendants(resource, descendant -> {
+      visitedPaths.add(descendant.getPath());
+      if (visitedPaths.size() == 3) {
+        return VisitResult.TERMINATE;
+      }
+      return VisitResult.CONTINUE;
+    }));
+
+    assertEquals(Arrays.asList("/tree/node-0", "/tree/node-0/node-0",
+        "/tree/node-0/node-0/node-0"), visitedPaths);
+  }
+
+  @Test
+  public void testVisitDescendantsOfType() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+
+    assertTrue(SlingModelUtils.visitDescendantsOfType(resource, SampleResourceModel.class,
+        model -> {
+          visitedPaths.add(model.getPath());
+          return VisitResult.CONTINUE;
+        }));
+
+    assertEquals(36, visitedPaths.size());
+    assertEquals("/tree/node-0", visitedPaths.get(0));
+    assertEquals("/tree/node-0/node-0/node-0", visitedPaths.get(1));
+    assertEquals("/tree/node-0/node-0/node-2", visitedPaths.get(2));
+  }
+
+  @Test
+  public void testVisitDescendantsOfTypeWhenSkippingMatchedSubtrees() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+
+    assertTrue(SlingModelUtils.visitDescendantsOfType(resource.adaptTo(BaseResource.class),
+        SampleResourceModel.class, model -> {
+          visitedPaths.add(model.getPath());
+          return VisitResult.SKIP_SUBTREE;
+        }));
+
+    assertEquals(Arrays.asList("/tree/node-0", "/tree/node-1", "/tree/node-2", "/tree/node-3"),
+        visitedPaths);
+  }
+
+  @Test
+  public void testVisitDescendantsOfTypeWhenSkippingUnmatchedSubtrees() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+    List<String> unmatchedPaths = new ArrayList<>();
+
+    assertTrue(SlingModelUtils.visitDescendantsOfType(resource, SampleResourceModel.class,
+        model -> {
+          visitedPaths.add(model.getPath());
+          return VisitResult.CONTINUE;
+        }, descendant -> {
+          unmatchedPaths.add(descendant.getPath());
+          return VisitResult.SKIP_SUBTREE;
+        }));
+
+    assertEquals(Arrays.asList("/tree/node-0", "/tree/node-1", "/tree/node-2", "/tree/node-3"),
+        visitedPaths);
+    assertEquals(16, unmatchedPaths.size());
+  }
+
+  @Test
+  public void testVisitDescendantsOfTypeWhenTerminating() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+
+    assertFalse(SlingModelUtils.visitDescendantsOfType(resource.adaptTo(BaseResource.class),
+        SampleResourceModel.class, model -> {
+          visitedPaths.add(model.getPath());
+          return VisitResult.TERMINATE;
+        }, descendant -> VisitResult.CONTINUE));
+
+    assertEquals(Collections.singletonList("/tree/node-0"), visitedPaths);
+  }
+
+  @Test
+  public void testVisitDescendantsWhenUsingTraversalOptions() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+
+    assertFalse(SlingModelUtils.visitDescendants(resource, descendant -> {
+      visitedPaths.add(descendant.getPath());
+      return VisitResult.CONTINUE;
+    }, TraversalOptions.unbounded().withMaxDepth(2)));
+    assertEquals(20, visitedPaths.size());
+
+    visitedPaths.clear();
+    assertFalse(SlingModelUtils.visitDescendants(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), descendant -> {
+          visitedPaths.add(descendant.getPath());
+          return VisitResult.CONTINUE;
+        }, TraversalOptions.unbounded().withMaxVisitedNodes(3)));
+    assertEquals(3, visitedPaths.size());
+
+    assertTrue(SlingModelUtils.visitDescendants(resource, descendant -> VisitResult.CONTINUE,
+        TraversalOptions.unbounded()));
+  }
+
+  @Test
+  public void testVisitDescendantsOfTypeWhenUsingTraversalOptions() {
+    resource = createDescendantTree();
+    List<String> visitedPaths = new ArrayList<>();
+
+    assertFalse(SlingModelUtils.visitDescendantsOfType(resource, SampleResourceModel.class,
+        model -> {
+          visitedPaths.add(model.getPath());
+          return VisitResult.CONTINUE;
+        }, TraversalOptions.unbounded().withMaxResults(3)));
+    assertEquals(Arrays.asList("/tree/node-0", "/tree/node-0/node-0/node-0",
+        "/tree/node-0/node-0/node-2"), visitedPaths);
+
+    visitedPaths.clear();
+    assertTrue(SlingModelUtils.visitDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        model -> {
+          visitedPaths.add(model.getPath());
+          return VisitResult.CONTINUE;
+        }, TraversalOptions.unbounded()));
+    assertEquals(36, visitedPaths.size());
+  }
+
+  @Test
+  public void testStreamAllDescendantsOfTypeWhenUsingTraversalOptions() {
+    resource = createDescendantTree();
+
+    assertEquals(4, SlingModelUtils.streamAllDescendantsOfType(resource,
+        SampleResourceModel.class, TraversalOptions.unbounded().withMaxDepth(1)).count());
+    assertEquals(5, SlingModelUtils.streamAllDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxResults(5)).count());
+    assertEquals(0, SlingModelUtils.streamAllDescendantsOfType(resource, SampleRequestModel.class,
+        TraversalOptions.unbounded()).count());
+  }
+
+  @Test
+  public void testStreamAllDescendantsAsClosestTypeWhenUsingTraversalOptions() {
+    resource = createDescendantTree();
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenAnswer(
+        invocation -> invocation.getArgument(0, Resource.class).adaptTo(BaseResource.class));
+
+    assertEquals(20, SlingModelUtils.streamAllDescendantsAsClosestType(resource, factory,
+        TraversalOptions.unbounded().withMaxDepth(2)).count());
+    assertEquals(7, SlingModelUtils.streamAllDescendantsAsClosestType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), factory,
+        TraversalOptions.unbounded().withMaxResults(7)).count());
+  }
+
+  @Test
+  public void testVisitDescendantsWhenNoDescendants() {
+    assertTrue(SlingModelUtils.visitDescendants(resource, descendant -> {
+      fail();
+      return VisitResult.CONTINUE;
+    }));
+  }
+
+  @Test
+  public void testCountChildrenOfType() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/resource-with-multiple-children");
+    context.create().resource("/resource-with-multiple-children/ui-framework-1", properties);
+    context.create().resource("/resource-with-multiple-children/ui-framework-2", properties);
+    context.create().resource("/resource-with-multiple-children/unstructured-resource-1");
+    context.create().resource("/resource-with-multiple-children/page");
+    context.create().resource("/resource-with-multiple-children/page/jcr:content", properties);
+
+    assertEquals(3, SlingModelUtils.countChildrenOfType(resource, SampleResourceModel.class));
+    assertEquals(4, SlingModelUtils.countChildrenOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), BaseResource.class));
+  }
+
+  @Test
+  public void testHasChildOfType() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+
+    resource = context.create().resource("/resource-with-multiple-children");
+    context.create().resource("/resource-with-multiple-children/unstructured-resource-1");
+
+    assertFalse(SlingModelUtils.hasChildOfType(resource, SampleResourceModel.class));
+
+    context.create().resource("/resource-with-multiple-children/ui-framework-1", properties);
+
+    assertTrue(SlingModelUtils.hasChildOfType(resource, SampleResourceModel.class));
+    assertTrue(SlingModelUtils.hasChildOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class));
+  }
+
+  @Test
+  public void testCountDescendantsOfType() {
+    resource = createDescendantTree();
+
+    assertEquals(36, SlingModelUtils.countDescendantsOfType(resource, SampleResourceModel.class));
+    assertEquals(84, SlingModelUtils.countDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), BaseResource.class));
+    assertEquals(0, SlingModelUtils.countDescendantsOfType(resource, SampleRequestModel.class));
+  }
+
+  @Test
+  public void testCountDescendantsOfTypeWhenUsingTraversalOptions() {
+    resource = createDescendantTree();
+
+    assertEquals(4, SlingModelUtils.countDescendantsOfType(resource, SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxDepth(2)));
+    assertEquals(10, SlingModelUtils.countDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        TraversalOptions.unbounded().withMaxResults(10)));
+    assertEquals(36, SlingModelUtils.countDescendantsOfType(resource, SampleResourceModel.class,
+        TraversalOptions.unbounded()));
+  }
+
+  @Test
+  public void testHasDescendantOfType() {
+    resource = context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent");
+    context.create().resource("/grand-parent/parent/child");
+
+    assertFalse(SlingModelUtils.hasDescendantOfType(resource, SampleResourceModel.class));
+    assertFalse(SlingModelUtils.hasDescendantOfType(resource, SampleRequestModel.class));
+
+    properties.put("sling:resourceType", "kestros/commons/component");
+    context.create().resource("/grand-parent/parent/child/grand-child", properties);
+
+    assertTrue(SlingModelUtils.hasDescendantOfType(resource, SampleResourceModel.class));
+    assertTrue(SlingModelUtils.hasDescendantOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class));
+  }
+
+  @Test
+  public void testCountDescendantsOfTypeWhenQueriesAreSupported() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent-framework-1", properties);
+    context.create().resource("/grand-parent/parent-framework-2", properties);
+    context.create().resource("/grand-parent/parent-framework-3", properties);
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doReturn(Arrays.asList(resolver.getResource("/grand-parent/parent-framework-2"),
+        resolver.getResource("/grand-parent/parent-framework-1")).iterator()).when(
+        resolver).findResources(anyString(), eq("xpath"));
+    resource = resolver.getResource("/grand-parent");
+
+    assertEquals(2, SlingModelUtils.countDescendantsOfType(resource, SampleResourceModel.class));
+    verify(resolver, times(1)).findResources(
+        "/jcr:root/grand-parent//*[@sling:resourceType='kestros/commons/component']", "xpath");
+  }
+
+  @Test
+  public void testHasDescendantOfTypeWhenQueriesAreSupported() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    context.create().resource("/grand-parent");
+    context.create().resource("/grand-parent/parent-framework-1", properties);
+    context.create().resource("/grand-parent/parent-framework-2", properties);
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    @SuppressWarnings("unchecked")
+    Iterator<Resource> queryResults = mock(Iterator.class);
+    when(queryResults.hasNext()).thenReturn(true);
+    when(queryResults.next()).thenReturn(resolver.getResource("/grand-parent/parent-framework-1"),
+        resolver.getResource("/grand-parent/parent-framework-2"));
+    doReturn(queryResults).when(resolver).findResources(anyString(), eq("xpath"));
+    resource = resolver.getResource("/grand-parent");
+
+    assertTrue(SlingModelUtils.hasDescendantOfType(resource, SampleResourceModel.class));
+    verify(queryResults, times(1)).next();
+  }
+
+  @Test
+  public void testGetTopDescendantsOfType() {
+    resource = createRankedDescendants();
+
+    List<SampleResourceModel> topDescendants = SlingModelUtils.getTopDescendantsOfType(resource,
+        SampleResourceModel.class, Comparator.comparing(
+            (SampleResourceModel model) -> model.getResource().getValueMap().get("rank", 0L))
+            .reversed(), 3);
+
+    assertEquals(Arrays.asList("/articles/section/article-5", "/articles/article-4",
+        "/articles/article-3"),
+        topDescendants.stream().map(BaseResource::getPath).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testGetTopDescendantsOfTypeWhenValuesAreEqual() {
+    resource = createRankedDescendants();
+
+    List<SampleResourceModel> topDescendants = SlingModelUtils.getTopDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        (first, second) -> 0, 2);
+
+    assertEquals(Arrays.asList("/articles/article-1", "/articles/article-3"),
+        topDescendants.stream().map(BaseResource::getPath).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testGetTopDescendantsOfTypeWhenLimitIsLargerThanDescendants() {
+    resource = createRankedDescendants();
+
+    assertEquals(5, SlingModelUtils.getTopDescendantsOfType(resource, SampleResourceModel.class,
+        "rank", 10).size());
+    assertEquals(0, SlingModelUtils.getTopDescendantsOfType(resource, SampleResourceModel.class,
+        "rank", 0).size());
+    assertEquals(0, SlingModelUtils.getTopDescendantsOfType(resource, SampleResourceModel.class,
+        (first, second) -> 0, 0).size());
+  }
+
+  @Test
+  public void testGetTopDescendantsOfTypeByProperty() {
+    resource = createRankedDescendants();
+
+    List<SampleResourceModel> topDescendants = SlingModelUtils.getTopDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        "rank", 5);
+
+    assertEquals(Arrays.asList("/articles/section/article-5", "/articles/article-4",
+        "/articles/article-3", "/articles/article-1", "/articles/article-unranked"),
+        topDescendants.stream().map(BaseResource::getPath).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testGetTopDescendantsOfTypeByPropertyWhenQueriesAreSupported() {
+    createRankedDescendants();
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doAnswer(invocation -> {
+      if (invocation.getArgument(0, String.class).contains("sling:resourceSuperType")) {
+        return Collections.emptyIterator();
+      }
+      return Arrays.asList(resolver.getResource("/articles/section/article-5"),
+          resolver.getResource("/articles/section"),
+          resolver.getResource("/articles/article-4"),
+          resolver.getResource("/articles/article-3")).iterator();
+    }).when(resolver).findResources(anyString(), eq("xpath"));
+    resource = resolver.getResource("/articles");
+
+    List<SampleResourceModel> topDescendants = SlingModelUtils.getTopDescendantsOfType(resource,
+        SampleResourceModel.class, "rank", 2);
+
+    assertEquals(Arrays.asList("/articles/section/article-5", "/articles/article-4"),
+        topDescendants.stream().map(BaseResource::getPath).collect(Collectors.toList()));
+    verify(resolver, times(1)).findResources(
+        "/jcr:root/articles//*[@sling:resourceType='kestros/commons/component'] order by @rank "
+        + "descending", "xpath");
+  }
+
+  @Test
+  public void testGetTopDescendantsOfTypeByPropertyWhenQueryingSubtypes() {
+    Map<String, Object> subtypeProperties = new HashMap<>();
+    subtypeProperties.put("sling:resourceSuperType", "kestros/commons/component");
+    context.create().resource("/apps/kestros/commons/extending-component", subtypeProperties);
+    properties.put("sling:resourceType", "kestros/commons/extending-component");
+    properties.put("rank", 2L);
+    context.create().resource("/articles");
+    context.create().resource("/articles/extending-article", properties);
+
+    ResourceResolver resolver = spy(context.resourceResolver());
+    doAnswer(invocation -> {
+      if (invocation.getArgument(0, String.class).contains("sling:resourceSuperType")) {
+        return Collections.singletonList(
+            resolver.getResource("/apps/kestros/commons/extending-component")).iterator();
+      }
+      return Collections.singletonList(
+          resolver.getResource("/articles/extending-article")).iterator();
+    }).when(resolver).findResources(anyString(), eq("xpath"));
+    resource = resolver.getResource("/articles");
+
+    List<SampleResourceModel> topDescendants = SlingModelUtils.getTopDescendantsOfType(
+        Objects.requireNonNull(resource.adaptTo(BaseResource.class)), SampleResourceModel.class,
+        "rank", 2);
+
+    assertEquals(1, topDescendants.size());
+    assertEquals("/articles/extending-article", topDescendants.get(0).getPath());
+    verify(resolver, times(1)).findResources("/jcr:root/articles//*["
+        + "@sling:resourceType='kestros/commons/component' "
+        + "or @sling:resourceType='kestros/commons/extending-component'] order by @rank "
+        + "descending", "xpath");
+  }
+
+  @Test
+  public void testGetResourceAsClosestType() throws InvalidResourceTypeException {
+
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/sample-resource", properties);
+
+    ModelAdapterFactory modelAdapterFactory = mock(ModelAdapterFactory.class);
+
+    when(modelAdapterFactory.getModelFromResource(resource)).thenReturn(
+        resource.adaptTo(SampleResourceModel.class));
+
+    assertNotNull(SlingModelUtils.getResourceAsClosestType(resource, modelAdapterFactory));
+
+    assertEquals("/sample-resource",
+        SlingModelUtils.getResourceAsClosestType(resource, modelAdapterFactory).getPath());
+    assertEquals("SampleResourceModel", SlingModelUtils.getResourceAsClosestType(resource,
+        modelAdapterFactory).getClass().getSimpleName());
+  }
+
+  @Test
+  public void testGetResourceAsClosestTypeWhenJcrContentMatches() throws Exception {
+    resource = context.create().resource("/page");
+    properties.put("sling:resourceType", "kestros/commons/component");
+    Resource contentResource = context.create().resource("/page/jcr:content", properties);
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.isModelAvailableForResource(any(Resource.class))).thenReturn(true);
+    when(factory.getModelFromResource(contentResource)).thenReturn(
+        contentResource.adaptTo(SampleResourceModel.class));
+
+    BaseResource model = SlingModelUtils.getResourceAsClosestType(resource, factory);
+
+    assertEquals("/page/jcr:content", model.getPath());
+    assertTrue(model instanceof SampleResourceModel);
+    verify(factory, times(1)).getModelFromResource(contentResource);
+    verify(factory, never()).getModelFromResource(resource);
+  }
+
+  @Test
+  public void testGetResourceAsClosestTypeWhenJcrContentDoesNotMatch() throws Exception {
+    resource = context.create().resource("/page");
+    Resource contentResource = context.create().resource("/page/jcr:content");
+    SampleResourceModel contentModel = mock(SampleResourceModel.class);
+    when(contentModel.getResource()).thenReturn(contentResource);
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.isModelAvailableForResource(any(Resource.class))).thenReturn(true);
+    when(factory.getModelFromResource(contentResource)).thenReturn(contentModel);
+    when(factory.getModelFromResource(resource)).thenReturn(resource.adaptTo(BaseResource.class));
+
+    assertEquals("/page", SlingModelUtils.getResourceAsClosestType(resource, factory).getPath());
+    verify(factory, times(1)).getModelFromResource(contentResource);
+    verify(factory, times(1)).getModelFromResource(resource);
+  }
+
+  @Test
+  public void testGetResourceAsClosestTypeWhenNotExtendingBaseResource() {
+
+    properties.put("sling:resourceType", "kestros/commons/component");
+    resource = context.create().resource("/sample-resource", properties);
+
+    ModelAdapterFactory modelAdapterFactory = mock(ModelAdapterFactory.class);
+
+    when(modelAdapterFactory.getModelFromResource(resource)).thenReturn(
+        resource.adaptTo(Resource.class));
+
+    try {
+      assertNull(SlingModelUtils.getResourceAsClosestType(resource, modelAdapterFactory));
+    } catch (MatchingResourceTypeNotFoundException e) {
+      exception = e;
+    }
+    assertEquals(
+        "Unable to retrieve model for /sample-resource: No matching Sling Model type found.",
+        exception.getMessage());
+  }
+
+  @Test
+  public void testGetChildrenAsClosestTypes() {
+
+    Map<String, Object> fileProperties = new HashMap<>();
+    context.create().resource("/resource/child-1", fileProperties);
+    context.create().resource("/resource/child-2", fileProperties);
+    context.create().resource("/resource/child-3", fileProperties);
+
+    ModelFactory factory = mock(ModelFactory.class);
+
+    when(factory.getModelFromResource(any(Resource.class))).thenReturn(
+        resource.adaptTo(BaseResource.class));
+
+    assertEquals(3, SlingModelUtils.getChildrenAsClosestTypes(resource, factory).size());
+  }
+
+  @Test
+  public void testGetChildrenAsClosestTypesWhenNonBaseResourceReturned() {
+
+    Map<String, Object> fileProperties = new HashMap<>();
     context.create().resource("/resource/child-1", fileProperties);
     context.create().resource("/resource/child-2", fileProperties);
     context.create().resource("/resource/child-3", fileProperties);
@@ -1271,6 +2581,67 @@ public class SlingModelUtilsTest {
     assertEquals(0, SlingModelUtils.getChildrenAsClosestTypes(resource, null).size());
   }
 
+  @Test
+  public void testWriteSubtreeAsJson() throws Exception {
+    properties.put("sling:resourceType", "my/type");
+    Resource export = context.create().resource("/export", properties);
+    context.create().resource("/export/a", properties);
+    context.create().resource("/export/b", properties);
+    context.create().resource("/export/b/c", properties);
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenAnswer(
+        invocation -> invocation.getArgument(0, Resource.class).adaptTo(BaseResource.class));
+
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = ModelJsonUtils.createGenerator(writer)) {
+      SlingModelUtils.writeSubtreeAsJson(
+          Objects.requireNonNull(export.adaptTo(BaseResource.class)), factory, generator);
+    }
+
+    assertEquals(getExportJson("export", "/export",
+        getExportJson("a", "/export/a") + "," + getExportJson("b", "/export/b",
+            getExportJson("c", "/export/b/c"))), writer.toString());
+    verify(factory, times(4)).getModelFromResource(any(Resource.class));
+  }
+
+  @Test
+  public void testWriteSubtreeAsJsonWhenChildCannotBeAdapted() throws Exception {
+    properties.put("sling:resourceType", "my/type");
+    Resource export = context.create().resource("/export", properties);
+    context.create().resource("/export/a", properties);
+    context.create().resource("/export/a/nested", properties);
+    context.create().resource("/export/b", properties);
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenAnswer(invocation -> {
+      Resource adaptable = invocation.getArgument(0, Resource.class);
+      if ("/export/a".equals(adaptable.getPath())) {
+        return adaptable;
+      }
+      return adaptable.adaptTo(BaseResource.class);
+    });
+
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = ModelJsonUtils.createGenerator(writer)) {
+      SlingModelUtils.writeSubtreeAsJson(export, factory, generator);
+    }
+
+    assertEquals(getExportJson("export", "/export", getExportJson("b", "/export/b")),
+        writer.toString());
+  }
+
+  @Test(expected = MatchingResourceTypeNotFoundException.class)
+  public void testWriteSubtreeAsJsonWhenResourceCannotBeAdapted() throws Exception {
+    Resource export = context.create().resource("/export", properties);
+
+    ModelFactory factory = mock(ModelFactory.class);
+    when(factory.getModelFromResource(any(Resource.class))).thenReturn(export);
+
+    SlingModelUtils.writeSubtreeAsJson(export, factory,
+        ModelJsonUtils.createGenerator(new StringWriter()));
+  }
+
   @Test
   public void testGetResourceTypesForSlingModel() {
     assertEquals(1, SlingModelUtils.getResourceTypesForSlingModel(
@@ -1290,4 +2661,59 @@ public class SlingModelUtilsTest {
     assertEquals(3, SlingModelUtils.getResourcesAsBaseResource(paths, context.resourceResolver()).size());
   }
 
-}
\ No newline at end of file
+
+  private Resource createRankedDescendants() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    Resource articles = context.create().resource("/articles");
+    Map<String, Object> articleProperties = new HashMap<>(properties);
+    articleProperties.put("rank", 1L);
+    context.create().resource("/articles/article-1", articleProperties);
+    context.create().resource("/articles/section");
+    articleProperties.put("rank", 5L);
+    context.create().resource("/articles/section/article-5", articleProperties);
+    articleProperties.put("rank", 3L);
+    context.create().resource("/articles/article-3", articleProperties);
+    articleProperties.put("rank", 4L);
+    context.create().resource("/articles/article-4", articleProperties);
+    context.create().resource("/articles/article-unranked", properties);
+    return articles;
+  }
+
+  private Resource createDescendantTree() {
+    properties.put("sling:resourceType", "kestros/commons/component");
+    Resource tree = context.create().resource("/tree");
+    for (int i = 0; i < 4; i++) {
+      String parentPath = "/tree/node-" + i;
+      context.create().resource(parentPath, properties);
+      for (int j = 0; j < 4; j++) {
+        String childPath = parentPath + "/node-" + j;
+        context.create().resource(childPath);
+        for (int k = 0; k < 4; k++) {
+          if (k % 2 == 0) {
+            context.create().resource(childPath + "/node-" + k, properties);
+          } else {
+            context.create().resource(childPath + "/node-" + k);
+          }
+        }
+      }
+    }
+    return tree;
+  }
+
+  private ForkJoinPool createForkJoinPool() {
+    // Sling Mock registers Model adapters per thread.
+    return new ForkJoinPool(4, pool -> new ForkJoinWorkerThread(pool) {
+      @Override
+      protected void onStart() {
+        super.onStart();
+        MockSling.setAdapterManagerBundleContext(context.bundleContext());
+      }
+    }, null, false);
+  }
+
+  private String getExportJson(String name, String path, String... children) {
+    return "{\"description\":\"\",\"name\":\"" + name + "\",\"path\":\"" + path
+           + "\",\"resourceType\":\"my/type\",\"title\":\"" + name + "\",\":children\":["
+           + String.join(",", children) + "]}";
+  }
+}
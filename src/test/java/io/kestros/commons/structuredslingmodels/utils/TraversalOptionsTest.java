@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.time.Duration;
+import org.junit.Test;
+
+public class TraversalOptionsTest {
+
+  @Test
+  public void testUnbounded() {
+    TraversalOptions options = TraversalOptions.unbounded();
+
+    assertEquals(Integer.MAX_VALUE, options.getMaxDepth());
+    assertEquals(Integer.MAX_VALUE, options.getMaxVisitedNodes());
+    assertEquals(Integer.MAX_VALUE, options.getMaxResults());
+    assertNull(options.getTimeout());
+  }
+
+  @Test
+  public void testWithMethodsReturnCopies() {
+    TraversalOptions options = TraversalOptions.unbounded().withMaxDepth(2).withMaxVisitedNodes(
+        100).withMaxResults(10).withTimeout(Duration.ofMillis(50));
+
+    assertEquals(2, options.getMaxDepth());
+    assertEquals(100, options.getMaxVisitedNodes());
+    assertEquals(10, options.getMaxResults());
+    assertEquals(Duration.ofMillis(50), options.getTimeout());
+
+    assertNotSame(options, options.withMaxDepth(2));
+    assertEquals(3, options.withMaxDepth(3).getMaxDepth());
+    assertEquals(2, options.getMaxDepth());
+    assertEquals(Integer.MAX_VALUE, TraversalOptions.unbounded().getMaxDepth());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWithMaxDepthWhenZero() {
+    TraversalOptions.unbounded().withMaxDepth(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWithMaxVisitedNodesWhenNegative() {
+    TraversalOptions.unbounded().withMaxVisitedNodes(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWithMaxResultsWhenZero() {
+    TraversalOptions.unbounded().withMaxResults(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWithTimeoutWhenNegative() {
+    TraversalOptions.unbounded().withTimeout(Duration.ofMillis(-1));
+  }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.kestros.commons.structuredslingmodels.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.kestros.commons.structuredslingmodels.BaseResource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.Test;
+
+public class TraversalResultsTest {
+
+  @Test
+  public void testGetModels() {
+    BaseResource model = mock(BaseResource.class);
+    TraversalResults<BaseResource> results = new TraversalResults<>(
+        Collections.singletonList(model), Collections.emptyList(), true);
+
+    assertEquals(Collections.singletonList(model), results.getModels());
+    assertTrue(results.isTruncated());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetModelsIsImmutable() {
+    TraversalResults<BaseResource> results = new TraversalResults<>(new ArrayList<>(),
+        Collections.emptyList(), false);
+
+    assertFalse(results.isTruncated());
+    results.getModels().add(mock(BaseResource.class));
+  }
+
+  @Test
+  public void testClose() {
+    ResourceResolver liveResolver = mock(ResourceResolver.class);
+    when(liveResolver.isLive()).thenReturn(true);
+    ResourceResolver closedResolver = mock(ResourceResolver.class);
+    when(closedResolver.isLive()).thenReturn(false);
+
+    try (TraversalResults<BaseResource> results = new TraversalResults<>(
+        Collections.emptyList(), Arrays.asList(liveResolver, closedResolver), false)) {
+      assertTrue(results.getModels().isEmpty());
+    }
+
+    verify(liveResolver).close();
+    verify(closedResolver, never()).close();
+  }
+
+}